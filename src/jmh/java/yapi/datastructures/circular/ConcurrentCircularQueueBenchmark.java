@@ -0,0 +1,150 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.circular;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producers offering against one consumer polling, with 1, 4 and 16 producer
+ * threads. The score of each group is split into the 'offer' and 'poll' side,
+ * a failed offer on a full queue or a poll on an empty one counts as well.
+ * The 'spsc' group runs the {@link SingleProducerCircularQueue} with its one
+ * producer for comparison with 'producers1'.
+ *
+ * Run with 'gradle jmh'.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrentCircularQueueBenchmark {
+
+    private static final Integer ELEMENT = 1;
+
+    @Param({"mpmc", "array"})
+    public String queue;
+
+    @Param({"1024"})
+    public int size;
+
+    private Target target;
+
+    @Setup
+    public void setup() {
+        switch (queue) {
+            case "mpmc":
+                target = of(new MultiProducerCircularQueue<>(size));
+                break;
+            case "array":
+                target = of(new ArrayBlockingQueue<>(size));
+                break;
+            default:
+                throw new IllegalArgumentException(queue);
+        }
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public boolean offer1() {
+        return target.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public Integer poll1() {
+        return target.poll();
+    }
+
+    @Benchmark
+    @Group("producers4")
+    @GroupThreads(4)
+    public boolean offer4() {
+        return target.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("producers4")
+    @GroupThreads(1)
+    public Integer poll4() {
+        return target.poll();
+    }
+
+    @Benchmark
+    @Group("producers16")
+    @GroupThreads(16)
+    public boolean offer16() {
+        return target.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("producers16")
+    @GroupThreads(1)
+    public Integer poll16() {
+        return target.poll();
+    }
+
+    @State(Scope.Group)
+    public static class Spsc {
+
+        final SingleProducerCircularQueue<Integer> queue = new SingleProducerCircularQueue<>(1024);
+
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean offerSpsc(Spsc spsc) {
+        return spsc.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer pollSpsc(Spsc spsc) {
+        return spsc.queue.poll();
+    }
+
+    private interface Target {
+
+        boolean offer(Integer element);
+
+        Integer poll();
+
+    }
+
+    private static Target of(ConcurrentCircularQueue<Integer> queue) {
+        return new Target() {
+            @Override
+            public boolean offer(Integer element) {
+                return queue.offer(element);
+            }
+
+            @Override
+            public Integer poll() {
+                return queue.poll();
+            }
+        };
+    }
+
+    private static Target of(Queue<Integer> queue) {
+        return new Target() {
+            @Override
+            public boolean offer(Integer element) {
+                return queue.offer(element);
+            }
+
+            @Override
+            public Integer poll() {
+                return queue.poll();
+            }
+        };
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.encryption.encryption;
+
+import org.openjdk.jmh.annotations.*;
+import yapi.internal.exceptions.CipherException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Block} based path with {@link YAPICipherEngine}. The
+ * score is in operations per second, multiply it by 'size' for bytes per second.
+ *
+ * Run with 'gradle jmh'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class YAPICipherBenchmark {
+
+    @Param({"1024", "65536", "131040"})
+    public int size;
+
+    private final byte[] key = "YAPICipherBenchmark".getBytes();
+    private byte[] plain;
+    private byte[] cipher;
+
+    private final YAPICipherModeEncryption encryption = new YAPICipherModeEncryption();
+    private final YAPICipherModeDecryption decryption = new YAPICipherModeDecryption();
+
+    @Setup
+    public void setup() throws CipherException {
+        plain = new byte[size];
+        new Random(size).nextBytes(plain);
+        cipher = encryption.crypt(key, plain);
+    }
+
+    @Benchmark
+    public byte[] encryptBlocks() throws CipherException {
+        return encryption.cryptBlocks(key, plain);
+    }
+
+    @Benchmark
+    public byte[] encryptEngine() throws CipherException {
+        return encryption.crypt(key, plain);
+    }
+
+    @Benchmark
+    public byte[] decryptBlocks() throws CipherException {
+        return decryption.cryptBlocks(key, cipher);
+    }
+
+    @Benchmark
+    public byte[] decryptEngine() throws CipherException {
+        return decryption.crypt(key, cipher);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.math;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NumberUtils#fastFactorial(BigInteger)} with the former block
+ * algorithm and times {@link NumberUtils#over(BigInteger, BigInteger)}. The
+ * block algorithm needs minutes for 10^7, so it only runs up to 10^6.
+ *
+ * Run with 'gradle jmh'.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FactorialBenchmark {
+
+    private static final BigInteger BLOCKS = BigInteger.valueOf(100000);
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public long n;
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class Blocks {
+
+        @Param({"10000", "100000", "1000000"})
+        public long n;
+
+    }
+
+    @Benchmark
+    public BigInteger factorial(Engine state) {
+        return NumberUtils.fastFactorial(BigInteger.valueOf(state.n));
+    }
+
+    @Benchmark
+    public BigInteger blockFactorial(Blocks state) {
+        return NumberUtils.blockFactorial(BigInteger.valueOf(state.n), BLOCKS);
+    }
+
+    @Benchmark
+    public BigInteger over(Engine state) {
+        return NumberUtils.over(BigInteger.valueOf(state.n), BigInteger.valueOf(state.n / 3));
+    }
+
+}
\ No newline at end of file
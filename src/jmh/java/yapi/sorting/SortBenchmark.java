@@ -0,0 +1,106 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts a copy of the same Integer array with {@link ParallelMergeSort},
+ * {@link ParallelQuickSort}, {@link QuickSort}, {@link Arrays#sort(Object[], Comparator)}
+ * and {@link Arrays#parallelSort(Object[], Comparator)}. The copy is part of
+ * the measured time for all of them. 'partial' is sorted input with every
+ * hundredth element replaced by a random one. {@link MergeSort}, {@link TimSort}
+ * and {@link YSort} are left out, they fail with an index out of bounds on
+ * arrays of this size.
+ *
+ * Run with 'gradle jmh'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortBenchmark {
+
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+    @Param({"100000", "2000000"})
+    public int size;
+
+    @Param({"random", "sorted", "reversed", "partial"})
+    public String input;
+
+    private Integer[] data;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        data = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextInt();
+        }
+        switch (input) {
+            case "random":
+                break;
+            case "sorted":
+                Arrays.sort(data);
+                break;
+            case "reversed":
+                Arrays.sort(data, Comparator.reverseOrder());
+                break;
+            case "partial":
+                Arrays.sort(data);
+                for (int i = 0; i < size; i += 100) {
+                    data[i] = random.nextInt();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(input);
+        }
+    }
+
+    private Integer[] copy() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    private Integer[] run(Sort<Integer> sort) {
+        sort.setArray(copy());
+        sort.sort(COMPARATOR);
+        return sort.getArray();
+    }
+
+    @Benchmark
+    public Integer[] arraysSort() {
+        Integer[] ts = copy();
+        Arrays.sort(ts, COMPARATOR);
+        return ts;
+    }
+
+    @Benchmark
+    public Integer[] arraysParallelSort() {
+        Integer[] ts = copy();
+        Arrays.parallelSort(ts, COMPARATOR);
+        return ts;
+    }
+
+    @Benchmark
+    public Integer[] parallelMergeSort() {
+        return run(new ParallelMergeSort<>());
+    }
+
+    @Benchmark
+    public Integer[] parallelQuickSort() {
+        return run(new ParallelQuickSort<>());
+    }
+
+    @Benchmark
+    public Integer[] quickSort() {
+        return run(new QuickSort<>());
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.statemachine.regex;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import yapi.statemachine.CompiledStateMachine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scans 10000 generated log lines for a pattern, line by line with
+ * {@link RegexMatcher} and {@link Pattern} and over the whole buffer with a
+ * {@link CompiledStateMachine.Feeder}. The score is the time for all lines.
+ *
+ * Run with 'gradle jmh'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegexMatcherBenchmark {
+
+    private static final int LINES = 10000;
+    private static final String[] LEVELS = {"DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR"};
+    private static final String[] MESSAGES = {
+            "request handled in", "cache miss for key", "connection reset by peer", "user logged in from",
+            "retrying after timeout", "disk usage at"
+    };
+
+    @Param({"ERROR", "\\d+\\.\\d+\\.\\d+\\.\\d+", "(WARN|ERROR) [a-z]+ (reset|timeout)", "[a-z]+ in [0-9]{3,}ms"})
+    public String regex;
+
+    private String[] lines;
+    private char[] buffer;
+    private Pattern pattern;
+    private RegexMatcher matcher;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(LINES);
+        lines = new String[LINES];
+        StringBuilder st = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            String line = String.format("2020-04-%02d 12:%02d:%02d %s %s %d.%d.%d.%d %dms",
+                    random.nextInt(30) + 1, random.nextInt(60), random.nextInt(60),
+                    LEVELS[random.nextInt(LEVELS.length)], MESSAGES[random.nextInt(MESSAGES.length)],
+                    random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                    random.nextInt(2000));
+            lines[i] = line;
+            st.append(line).append('\n');
+        }
+        buffer = st.toString().toCharArray();
+        pattern = Pattern.compile(regex);
+        matcher = new RegexMatcher(regex);
+    }
+
+    @Benchmark
+    public int pattern() {
+        int count = 0;
+        Matcher m = pattern.matcher("");
+        for (String line : lines) {
+            if (m.reset(line).find()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int regexMatcher() {
+        int count = 0;
+        for (String line : lines) {
+            if (matcher.contains(line)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void regexMatcherFind(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(matcher.find(line));
+        }
+    }
+
+    @Benchmark
+    public long feeder() {
+        CompiledStateMachine.Feeder feeder = matcher.feeder();
+        int offset = 0;
+        while (offset < buffer.length) {
+            int end = feeder.feed(buffer, offset, buffer.length - offset);
+            if (end < 0) {
+                break;
+            }
+            offset = end;
+        }
+        return feeder.getMatches();
+    }
+
+}
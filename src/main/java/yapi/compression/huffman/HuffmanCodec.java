@@ -0,0 +1,335 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.compression.huffman;
+
+import java.io.*;
+import java.util.PriorityQueue;
+
+/**
+ * Canonical Huffman coding of bytes. The input is cut into blocks of up to
+ * 1 MB, every block gets its own code, so the code adapts to the data and
+ * streams are encoded without reading them completely.
+ *
+ * A block is the original length as int, the payload length as int, the code
+ * length of every byte value as 4 bit nibble (0 means the value does not
+ * occur) and the payload. The codes are canonical, so the lengths are all the
+ * decoder needs. A length of 0 ends the data. The payload is written most
+ * significant bit first through a 64 bit accumulator and read back with one
+ * table lookup per byte.
+ *
+ * @since Version 2.4
+ */
+public final class HuffmanCodec {
+
+    static final int BLOCK_SIZE = 1 << 20;
+    // Longer codes are avoided by flattening the frequencies, keeps the decoding table at 16 KB
+    static final int MAX_LENGTH = 12;
+    private static final int SYMBOLS = 256;
+
+    private HuffmanCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param bytes
+     * @return
+     */
+    public static byte[] encode(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+        try {
+            encode(new ByteArrayInputStream(bytes), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param bytes
+     * @return
+     * @throws UncheckedIOException if the bytes are not valid encoded data
+     */
+    public static byte[] decode(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 2 + 16);
+        try {
+            decode(new ByteArrayInputStream(bytes), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes everything up to the end of 'in', neither stream is closed.
+     *
+     * @since Version 2.4
+     *
+     * @param in
+     * @param out
+     * @throws IOException
+     */
+    public static void encode(InputStream in, OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        byte[] block = new byte[BLOCK_SIZE];
+        byte[] payload = new byte[BLOCK_SIZE + BLOCK_SIZE / 2 + 8];
+        int[] frequencies = new int[SYMBOLS];
+        int[] lengths = new int[SYMBOLS];
+        int[] codes = new int[SYMBOLS];
+        int length;
+        while ((length = readBlock(in, block)) > 0) {
+            for (int i = 0; i < SYMBOLS; i++) {
+                frequencies[i] = 0;
+            }
+            for (int i = 0; i < length; i++) {
+                frequencies[block[i] & 0xFF]++;
+            }
+            codeLengths(frequencies, lengths);
+            canonicalCodes(lengths, codes);
+            int payloadLength = encodeBlock(block, length, lengths, codes, payload);
+
+            dataOut.writeInt(length);
+            dataOut.writeInt(payloadLength);
+            for (int i = 0; i < SYMBOLS; i += 2) {
+                dataOut.writeByte(lengths[i] << 4 | lengths[i + 1]);
+            }
+            dataOut.write(payload, 0, payloadLength);
+        }
+        dataOut.writeInt(0);
+        dataOut.flush();
+    }
+
+    /**
+     * Decodes one encoded data from 'in', neither stream is closed. Only the
+     * encoded data is read, so 'in' can continue with other data behind the
+     * end marker. Every block is read with a few bulk reads, 'in' needs no
+     * buffering.
+     *
+     * @since Version 2.4
+     *
+     * @param in
+     * @param out
+     * @throws IOException if reading fails or the data is not valid
+     */
+    public static void decode(InputStream in, OutputStream out) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        byte[] block = new byte[BLOCK_SIZE];
+        byte[] nibbles = new byte[SYMBOLS / 2];
+        byte[] payload = new byte[0];
+        int[] lengths = new int[SYMBOLS];
+        int[] codes = new int[SYMBOLS];
+        int[] table = new int[1 << MAX_LENGTH];
+        int length;
+        while ((length = dataIn.readInt()) != 0) {
+            int payloadLength = dataIn.readInt();
+            if (length < 0 || length > BLOCK_SIZE || payloadLength < 0 || payloadLength > BLOCK_SIZE * 2) {
+                throw new IOException("Corrupt Huffman block header");
+            }
+            dataIn.readFully(nibbles);
+            for (int i = 0; i < SYMBOLS; i += 2) {
+                int b = nibbles[i / 2] & 0xFF;
+                lengths[i] = b >>> 4;
+                lengths[i + 1] = b & 15;
+            }
+            if (payload.length < payloadLength) {
+                payload = new byte[payloadLength];
+            }
+            dataIn.readFully(payload, 0, payloadLength);
+
+            if (!isComplete(lengths)) {
+                throw new IOException("Corrupt Huffman code lengths");
+            }
+            canonicalCodes(lengths, codes);
+            decodingTable(lengths, codes, table);
+            decodeBlock(payload, payloadLength, table, block, length);
+            out.write(block, 0, length);
+        }
+        out.flush();
+    }
+
+    private static int readBlock(InputStream in, byte[] block) throws IOException {
+        int length = 0;
+        while (length < block.length) {
+            int read = in.read(block, length, block.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Builds the Huffman tree with a priority queue and writes the depth of
+     * every leaf to 'lengths'. While the tree is deeper than MAX_LENGTH the
+     * frequencies are halved, rare values come closer to the common ones.
+     */
+    static void codeLengths(int[] frequencies, int[] lengths) {
+        long[] weights = new long[2 * SYMBOLS];
+        int[] parents = new int[2 * SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            weights[i] = frequencies[i];
+        }
+        while (true) {
+            PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> weights[a] != weights[b] ? Long.compare(weights[a], weights[b]) : Integer.compare(a, b));
+            for (int i = 0; i < SYMBOLS; i++) {
+                lengths[i] = 0;
+                if (weights[i] > 0) {
+                    queue.add(i);
+                }
+            }
+            if (queue.size() == 1) {
+                // A single value still needs one bit per byte
+                lengths[queue.peek()] = 1;
+                return;
+            }
+            int next = SYMBOLS;
+            while (queue.size() > 1) {
+                int a = queue.poll();
+                int b = queue.poll();
+                weights[next] = weights[a] + weights[b];
+                parents[a] = next;
+                parents[b] = next;
+                queue.add(next++);
+            }
+            int root = next - 1;
+
+            int longest = 0;
+            for (int i = 0; i < SYMBOLS; i++) {
+                if (weights[i] > 0) {
+                    int depth = 0;
+                    for (int node = i; node != root; node = parents[node]) {
+                        depth++;
+                    }
+                    lengths[i] = depth;
+                    longest = Math.max(longest, depth);
+                }
+            }
+            if (longest <= MAX_LENGTH) {
+                return;
+            }
+            for (int i = 0; i < SYMBOLS; i++) {
+                if (weights[i] > 0) {
+                    weights[i] = (weights[i] + 1) >>> 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns the codes in the order of length and value, each code is the
+     * previous one plus one, shifted when the length grows.
+     */
+    private static void canonicalCodes(int[] lengths, int[] codes) {
+        int[] counts = new int[MAX_LENGTH + 1];
+        for (int length : lengths) {
+            counts[length]++;
+        }
+        counts[0] = 0;
+        int[] next = new int[MAX_LENGTH + 2];
+        int code = 0;
+        for (int length = 1; length <= MAX_LENGTH; length++) {
+            code = (code + counts[length - 1]) << 1;
+            next[length] = code;
+        }
+        for (int i = 0; i < SYMBOLS; i++) {
+            if (lengths[i] != 0) {
+                codes[i] = next[lengths[i]]++;
+            }
+        }
+    }
+
+    /**
+     * @return if the lengths describe a code without gaps or overlaps, a single value with length 1 is allowed
+     */
+    private static boolean isComplete(int[] lengths) {
+        long kraft = 0;
+        int used = 0;
+        for (int length : lengths) {
+            if (length > MAX_LENGTH) {
+                return false;
+            }
+            if (length != 0) {
+                kraft += 1L << (MAX_LENGTH - length);
+                used++;
+            }
+        }
+        return used == 1 ? kraft == 1L << (MAX_LENGTH - 1) : kraft == 1L << MAX_LENGTH;
+    }
+
+    private static int encodeBlock(byte[] block, int length, int[] lengths, int[] codes, byte[] payload) {
+        long accumulator = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            int symbol = block[i] & 0xFF;
+            accumulator = accumulator << lengths[symbol] | codes[symbol];
+            bits += lengths[symbol];
+            if (bits >= 32) {
+                bits -= 32;
+                int word = (int) (accumulator >>> bits);
+                payload[index] = (byte) (word >>> 24);
+                payload[index + 1] = (byte) (word >>> 16);
+                payload[index + 2] = (byte) (word >>> 8);
+                payload[index + 3] = (byte) word;
+                index += 4;
+            }
+        }
+        while (bits > 0) {
+            bits -= 8;
+            payload[index++] = (byte) (bits >= 0 ? accumulator >>> bits : accumulator << -bits);
+        }
+        return index;
+    }
+
+    /**
+     * Every entry is indexed by the next MAX_LENGTH bits and holds the value
+     * in the upper and the length of its code in the lower bits.
+     */
+    private static void decodingTable(int[] lengths, int[] codes, int[] table) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = 0;
+        }
+        for (int i = 0; i < SYMBOLS; i++) {
+            int length = lengths[i];
+            if (length != 0) {
+                int from = codes[i] << (MAX_LENGTH - length);
+                int to = from + (1 << (MAX_LENGTH - length));
+                for (int j = from; j < to; j++) {
+                    table[j] = i << 4 | length;
+                }
+            }
+        }
+    }
+
+    private static void decodeBlock(byte[] payload, int payloadLength, int[] table, byte[] block, int length) throws IOException {
+        long buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            if (bits < MAX_LENGTH) {
+                // Refill up to 56 bits, behind the payload only zeros follow
+                while (bits <= 48) {
+                    buffer = buffer << 8 | (index < payloadLength ? payload[index] & 0xFF : 0);
+                    index++;
+                    bits += 8;
+                }
+            }
+            int entry = table[(int) (buffer >>> (bits - MAX_LENGTH)) & ((1 << MAX_LENGTH) - 1)];
+            if (entry == 0) {
+                throw new IOException("Corrupt Huffman payload");
+            }
+            block[i] = (byte) (entry >>> 4);
+            bits -= entry & 15;
+        }
+        if (index - (bits >>> 3) > payloadLength) {
+            throw new IOException("Huffman payload is too short");
+        }
+    }
+
+}
\ No newline at end of file
@@ -4,11 +4,16 @@
 
 package yapi.compression.image;
 
+import yapi.runtime.ThreadUtils;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class ImageCompression {
@@ -19,6 +24,9 @@ public class ImageCompression {
     public static final double COMPRESSION_NOTICABLE = 20;
     public static final double COMPRESSION_EXTREME = 50;
 
+    // Width and height of the blocks of blockCompress
+    private static final int BLOCK_SIZE = 4;
+
     private int width = 0;
     private int height = 0;
 
@@ -57,36 +65,21 @@ public class ImageCompression {
         lengthAfterCompression = colors.length;
     }
 
-    private double getDistance(int[] c1, int[] c2) {
-        double color = 0;
-        for (int i = 0; i < c1.length; i++) {
-            color += (c1[i] - c2[i]) * (c1[i] - c2[i] + 0.0);
-        }
-        return Math.sqrt(color);
-    }
-
-    private void setColor(int index, int prevIndex, double maxDistance) {
-        int[] c1 = getColor(index);
-        int[] c2 = getColor(prevIndex);
-        double distance = getDistance(c1, c2);
-        if (distance < maxDistance) {
-            setColor(index, c2);
-        } else {
-            setColor(index, c1);
-        }
-    }
-
-    private int[] getColor(int index) {
-        int[] ints = new int[depth];
+    /**
+     * @return the squared distance between the colors starting at 'index1' and 'index2'
+     */
+    private int getDistance(int index1, int index2) {
+        int distance = 0;
         for (int i = 0; i < depth; i++) {
-            ints[i] = colors[index + i];
+            int d = colors[index1 + i] - colors[index2 + i];
+            distance += d * d;
         }
-        return ints;
+        return distance;
     }
 
-    private void setColor(int index, int[] cs) {
-        for (int i = 0; i < cs.length; i++) {
-            colors[index + i] = cs[i];
+    private void copyColor(int from, int to) {
+        for (int i = 0; i < depth; i++) {
+            colors[to + i] = colors[from + i];
         }
     }
 
@@ -94,93 +87,268 @@ public class ImageCompression {
         createData();
     }
 
+    /**
+     * Replaces every pixel by its left neighbour if their colors are closer
+     * than 'maxDistance'. The image is one long row, so the first pixel of a
+     * row is compared with the last one of the row above.
+     *
+     * @param maxDistance
+     */
     public void lossyCompress(double maxDistance) {
-        for (int i = depth; i < colors.length / depth; i++) {
-            setColor(i * depth, (i - 1) * depth, maxDistance);
-        }
+        lossyCompress(maxDistance, 0, height);
     }
 
+    /**
+     * Same as {@link #lossyCompress(double)} with the rows split into one band
+     * per thread. The first pixel of every band is kept as it is, so the
+     * result differs from the single threaded one only there.
+     *
+     * @param maxDistance
+     * @param threadCount
+     */
     public void lossyCompress(double maxDistance, int threadCount) {
         if (threadCount <= 1) {
             lossyCompress(maxDistance);
             return;
         }
+        inBands(threadCount, 1, (from, to) -> lossyCompress(maxDistance, from, to));
     }
 
+    private void lossyCompress(double maxDistance, int fromRow, int toRow) {
+        double limit = maxDistance * maxDistance;
+        int from = fromRow * width * depth;
+        int to = toRow * width * depth;
+        for (int index = from + depth; index < to; index += depth) {
+            if (getDistance(index, index - depth) < limit) {
+                copyColor(index - depth, index);
+            }
+        }
+    }
+
+    /**
+     * Splits the image into blocks of 4x4 pixels, every block whose pixels
+     * are all closer than 'maxDistance' to the average color of the block is
+     * filled with that color.
+     *
+     * @param maxDistance
+     */
     public void blockCompress(double maxDistance) {
+        blockCompress(maxDistance, 1);
+    }
+
+    /**
+     * Same as {@link #blockCompress(double)} with the rows of blocks split
+     * into one band per thread, the result does not depend on the threads.
+     *
+     * @param maxDistance
+     * @param threadCount
+     */
+    public void blockCompress(double maxDistance, int threadCount) {
+        if (threadCount <= 1) {
+            blockCompress(maxDistance, 0, height);
+            return;
+        }
+        inBands(threadCount, BLOCK_SIZE, (from, to) -> blockCompress(maxDistance, from, to));
+    }
+
+    private void blockCompress(double maxDistance, int fromRow, int toRow) {
+        double limit = maxDistance * maxDistance;
+        int[] average = new int[depth];
+        for (int y = fromRow; y < toRow; y += BLOCK_SIZE) {
+            int blockHeight = Math.min(BLOCK_SIZE, toRow - y);
+            for (int x = 0; x < width; x += BLOCK_SIZE) {
+                int blockWidth = Math.min(BLOCK_SIZE, width - x);
+                for (int i = 0; i < depth; i++) {
+                    average[i] = 0;
+                }
+                for (int dy = 0; dy < blockHeight; dy++) {
+                    int index = ((y + dy) * width + x) * depth;
+                    for (int dx = 0; dx < blockWidth * depth; dx++) {
+                        average[dx % depth] += colors[index + dx];
+                    }
+                }
+                int pixels = blockWidth * blockHeight;
+                for (int i = 0; i < depth; i++) {
+                    average[i] = (average[i] + pixels / 2) / pixels;
+                }
+
+                if (isBlockClose(average, x, y, blockWidth, blockHeight, limit)) {
+                    for (int dy = 0; dy < blockHeight; dy++) {
+                        int index = ((y + dy) * width + x) * depth;
+                        for (int dx = 0; dx < blockWidth * depth; dx++) {
+                            colors[index + dx] = average[dx % depth];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isBlockClose(int[] average, int x, int y, int blockWidth, int blockHeight, double limit) {
+        for (int dy = 0; dy < blockHeight; dy++) {
+            int index = ((y + dy) * width + x) * depth;
+            for (int dx = 0; dx < blockWidth; dx++) {
+                int distance = 0;
+                for (int i = 0; i < depth; i++) {
+                    int d = colors[index + i] - average[i];
+                    distance += d * d;
+                }
+                if (distance >= limit) {
+                    return false;
+                }
+                index += depth;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * Runs 'band' for about equal parts of the rows on 'threadCount' threads,
+     * every part but the last one has a multiple of 'alignment' rows.
+     */
+    private void inBands(int threadCount, int alignment, Band band) {
+        int rows = (height + threadCount - 1) / threadCount;
+        rows = (rows + alignment - 1) / alignment * alignment;
+        List<Thread> threads = new ArrayList<>();
+        for (int from = 0; from < height; from += rows) {
+            int fromRow = from;
+            int toRow = Math.min(height, from + rows);
+            Thread thread = new Thread(ThreadUtils.yapiGroup, () -> band.run(fromRow, toRow));
+            thread.setName("ImageCompression Thread - " + threads.size());
+            thread.start();
+            threads.add(thread);
+        }
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Band {
+        void run(int fromRow, int toRow);
     }
 
     public byte[] compress() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(colors.length / 4 + 16);
+        try {
+            compress(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the type, the width, the height and the run length encoded
+     * samples to 'out'. The sample value 1 marks a run and is written as 2,
+     * a run is the marker followed by how often the last color repeats, at
+     * most 255 times. The stream is not closed.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void compress(OutputStream out) throws IOException {
         for (int i = 0; i < colors.length; i++) {
             if (colors[i] == 1) {
                 colors[i]++;
             }
         }
-        List<Byte> bytes = new ArrayList<>();
-
-        bytes.add((byte)type);
-        bytes.addAll(getBytes(width));
-        bytes.addAll(getBytes(height));
-
-        // System.out.println(type + " " + width + " " + height);
-        byte repetitionLength = 0;
-        int[] lastInts = new int[0];
-        for (int i = 0; i < colors.length / depth; i++) {
-            if (i == 0) {
-                int[] ints = getColor(i * depth);
-                add(bytes, ints);
-                lastInts = ints;
-                continue;
-            }
-            int[] currentColor = getColor(i * depth);
-            if (Arrays.equals(currentColor, lastInts)) {
+        Output output = new Output(out);
+        output.write(type);
+        writeDimension(output, width);
+        writeDimension(output, height);
+
+        int repetitionLength = 0;
+        for (int index = 0; index < colors.length; index += depth) {
+            if (index > 0 && isSameColor(index, index - depth)) {
                 repetitionLength++;
-                if (repetitionLength == (byte)0xFF) {
-                    addLength(bytes, repetitionLength);
-                    // lastInts = new int[0];
+                if (repetitionLength == 0xFF) {
+                    output.writeLength(repetitionLength);
                     repetitionLength = 0;
                 }
-            } else {
-                if (repetitionLength > 0) {
-                    addLength(bytes, repetitionLength);
-                }
-                add(bytes, currentColor);
-                lastInts = currentColor;
+                continue;
+            }
+            if (repetitionLength > 0) {
+                output.writeLength(repetitionLength);
+                repetitionLength = 0;
             }
+            for (int i = 0; i < depth; i++) {
+                output.write(colors[index + i]);
+            }
+        }
+        if (repetitionLength > 0) {
+            output.writeLength(repetitionLength);
         }
+        output.flush();
+        lengthAfterCompression = (int) Math.min(Integer.MAX_VALUE, output.written);
+    }
 
-        lengthAfterCompression = bytes.size();
-        return toByteArray(bytes);
+    private boolean isSameColor(int index1, int index2) {
+        for (int i = 0; i < depth; i++) {
+            if (colors[index1 + i] != colors[index2 + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private List<Byte> getBytes(int i) {
-        List<Byte> bytes = new ArrayList<>();
-        while (i > 1) {
-            bytes.add((byte)(i - i / 255 * 255));
+    /**
+     * The amount of digits in base 255 followed by the digits, least significant first.
+     */
+    private static void writeDimension(Output output, int i) throws IOException {
+        int digits = 0;
+        for (int t = i; t > 0; t /= 255) {
+            digits++;
+        }
+        output.write(digits);
+        while (i > 0) {
+            output.write(i % 255);
             i /= 255;
         }
-        bytes.add(0, (byte)bytes.size());
-        return bytes;
     }
 
-    private void addLength(List<Byte> bytes, byte i) {
-        bytes.add((byte)1);
-        bytes.add(i);
-    }
+    /**
+     * Collects the bytes in a buffer, so the stream is written in large parts.
+     */
+    private static class Output {
 
-    private void add(List<Byte> bytes, int... ints) {
-        for (int i = 0; i < ints.length; i++) {
-            bytes.add((byte)ints[i]);
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int size = 0;
+        private long written = 0;
+
+        private Output(OutputStream out) {
+            this.out = out;
+        }
+
+        private void write(int b) throws IOException {
+            if (size == buffer.length) {
+                flush();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        private void writeLength(int length) throws IOException {
+            write(1);
+            write(length);
         }
-    }
 
-    private byte[] toByteArray(List<Byte> bytes) {
-        byte[] bts = new byte[bytes.size()];
-        for (int i = 0; i < bytes.size(); i++) {
-            bts[i] = bytes.get(i);
+        private void flush() throws IOException {
+            out.write(buffer, 0, size);
+            written += size;
+            size = 0;
         }
-        return bts;
+
     }
 
     public BufferedImage getBufferedImage() {
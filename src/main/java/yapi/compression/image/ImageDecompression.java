@@ -7,10 +7,7 @@ package yapi.compression.image;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.*;
 
 public class ImageDecompression {
 
@@ -27,80 +24,107 @@ public class ImageDecompression {
     private int type;
     private int width;
     private int height;
-
-    private int parse = 0;
+    private int depth = 3;
 
     private BufferedImage image;
 
+    /**
+     * @param bytes the output of {@link ImageCompression#compress()}
+     * @throws UncheckedIOException if the bytes are not a valid image
+     */
     public ImageDecompression(byte[] bytes) {
-        int index = parseHeader(bytes) + 1;
-        parseBody(bytes, index);
+        try {
+            decompress(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private int parseHeader(byte[] bytes) {
-        int index = 0;
-        type = bytes[index++];
-
-        index = parseDim(bytes, index);
-        index = parseDim(bytes, index);
+    /**
+     * Reads one image written by {@link ImageCompression#compress(OutputStream)},
+     * the stream is not closed and nothing behind the image is read.
+     *
+     * @param in
+     * @throws IOException if reading fails or the data is not a valid image
+     */
+    public ImageDecompression(InputStream in) throws IOException {
+        decompress(in);
+    }
 
-        // System.out.println(type + " " + width + " " + height);
+    private void decompress(InputStream in) throws IOException {
+        type = read(in);
+        width = parseDim(in);
+        height = parseDim(in);
+        if (type < 0 || type > 7 || (long) width * height * 4 > Integer.MAX_VALUE - 8) {
+            throw new IOException("Corrupt image header");
+        }
+        if (type == 2 || type == 3 || type == 6 || type == 7) {
+            depth = 4;
+        }
+        int[] colors = new int[width * height * depth];
+        parseBody(in, colors);
 
-        return index;
+        image = new BufferedImage(width, height, type == 0 ? BufferedImage.TYPE_INT_RGB : type);
+        WritableRaster raster = image.getRaster();
+        raster.setPixels(0, 0, width, height, colors);
     }
 
-    private void parseBody(byte[] bytes, int index) {
-        boolean b = false;
-        List<Byte> bts = new ArrayList<>();
-        for (int i = index; i < bytes.length; i++) {
-            if (b) {
-                byte b1 = bts.get(bts.size() - 3);
-                byte b2 = bts.get(bts.size() - 2);
-                byte b3 = bts.get(bts.size() - 1);
-
-                int count = bytes[i] & 0xFF;
-                while (count > 0) {
-                    bts.add(b1);
-                    bts.add(b2);
-                    bts.add(b3);
-                    count--;
-                }
-                b = false;
-            } else {
-                if (bytes[i] == 1) {
-                    b = true;
-                    continue;
+    /**
+     * Reads the body in parts, never more bytes than the remaining samples need at least.
+     */
+    private void parseBody(InputStream in, int[] colors) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        int index = 0;
+        boolean repetition = false;
+        while (index < colors.length) {
+            // At least one byte for every sample or a run of up to 255 colors for every two
+            long needed = repetition ? 1 : ((long) (colors.length - index) * 2 + 255 * depth - 1) / (255 * depth);
+            int length = in.read(buffer, 0, (int) Math.min(buffer.length, needed));
+            if (length < 0) {
+                throw new EOFException("Image data ends after " + index + " of " + colors.length + " samples");
+            }
+            for (int i = 0; i < length; i++) {
+                int b = buffer[i] & 0xFF;
+                if (repetition) {
+                    if (index < depth || index + b * depth > colors.length) {
+                        throw new IOException("Corrupt image data");
+                    }
+                    for (int count = 0; count < b; count++) {
+                        System.arraycopy(colors, index - depth, colors, index, depth);
+                        index += depth;
+                    }
+                    repetition = false;
+                } else if (b == 1) {
+                    repetition = true;
+                } else if (index < colors.length) {
+                    colors[index++] = b;
+                } else {
+                    throw new IOException("Corrupt image data");
                 }
-                bts.add(bytes[i]);
             }
         }
-
-        // System.out.println(bts.size());
-        image = new BufferedImage(width, height, type);
-        WritableRaster raster = image.getRaster();
-        raster.setPixels(0, 0, width, height, toByteArray(bts));
     }
 
-    private int[] toByteArray(List<Byte> bytes) {
-        int[] bts = new int[bytes.size()];
-        for (int i = 0; i < bytes.size(); i++) {
-            bts[i] = bytes.get(i);
+    private static int read(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Image header is incomplete");
         }
-        return bts;
+        return b;
     }
 
-    private int parseDim(byte[] bytes, int index) {
-        int m = 1;
-        for (int i = 0; i < bytes[index]; i++) {
-            if (parse == 0) {
-                width += (bytes[i + index + 1]) * m;
-            } else {
-                height += (bytes[i + index + 1]) * m;
-            }
+    private static int parseDim(InputStream in) throws IOException {
+        int digits = read(in);
+        long value = 0;
+        long m = 1;
+        for (int i = 0; i < digits; i++) {
+            value += read(in) * m;
             m *= 255;
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt image header");
+            }
         }
-        parse++;
-        return index + (bytes[index] + 1);
+        return (int) value;
     }
 
     public BufferedImage getImage() {
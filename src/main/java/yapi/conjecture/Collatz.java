@@ -4,11 +4,24 @@
 
 package yapi.conjecture;
 
+import yapi.internal.runtimeexceptions.math.RangeException;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 public class Collatz {
 
+    // Trajectories are only followed until they drop below this, the rest is looked up
+    private static final int MEMO_SIZE = 1 << 20;
+    // Start values computed by one thread at a time
+    private static final int CHUNK_SIZE = 1 << 14;
+    // Size of the ranges given to the consumer of range(long, long, Consumer)
+    private static final int PART_SIZE = 1 << 24;
+    // The biggest odd value where 3 * n + 1 still fits into a long
+    private static final long MAX_ODD = (Long.MAX_VALUE - 1) / 3;
+
     private Collatz() {
         throw new IllegalStateException();
     }
@@ -75,42 +88,189 @@ public class Collatz {
         if (i <= 0) {
             return bytes;
         }
-        StringBuilder st = new StringBuilder();
-        long times = 1;
+        long[] bits = new long[(stoppingTime(i) + 63) / 64];
+        int steps = computeParity(i, bits);
+        for (int j = 0; j < steps; j += 8) {
+            bytes.add((byte) (bits[j / 64] >>> (j % 64)));
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the parity vector of 'i' into 'bits', bit k is set if the value
+     * after k steps is odd. Bit k is bit 'k % 64' of 'bits[k / 64]', the
+     * array needs {@link #stoppingTime(long)} bits. Reusing the array keeps
+     * long ranges free of allocations.
+     *
+     * @since Version 2.4
+     *
+     * @param i
+     * @param bits
+     * @return the amount of bits written
+     */
+    public static int computeParity(long i, long[] bits) {
+        checkStart(i);
+        int steps = 0;
+        long word = 0;
         while (i != 1) {
-            if (st.length() == 8) {
-                bytes.add(createByte(st));
-                st = new StringBuilder();
+            if ((i & 1) == 0) {
+                i = i >>> 1;
+            } else {
+                i = next(i);
+                word |= 1L << steps;
             }
-            if (i % 2 == 0) {
-                i = i / 2;
-                st.append('0');
+            steps++;
+            if ((steps & 63) == 0) {
+                bits[(steps >>> 6) - 1] = word;
+                word = 0;
+            }
+        }
+        if ((steps & 63) != 0) {
+            bits[steps >>> 6] = word;
+        }
+        return steps;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param i
+     * @return the steps until 'i' reaches 1
+     */
+    public static int stoppingTime(long i) {
+        checkStart(i);
+        int steps = 0;
+        while (i >= MEMO_SIZE) {
+            if ((i & 1) == 0) {
+                int zeros = Long.numberOfTrailingZeros(i);
+                i = i >>> zeros;
+                steps += zeros;
             } else {
-                i = i * 3 + 1;
-                st.append('1');
+                i = next(i) >>> 1;
+                steps += 2;
+            }
+        }
+        return steps + Memo.STEPS[(int) i];
+    }
+
+    /**
+     * Computes the stopping time and the biggest value on the way to 1 of
+     * every start value in [from, to) on all cores. Values below 2^20 are
+     * looked up in a table shared by all threads.
+     *
+     * @since Version 2.4
+     *
+     * @param from the first start value, at least 1
+     * @param to the first start value not included
+     * @return
+     */
+    public static CollatzRange range(long from, long to) {
+        checkStart(from);
+        if (to < from) {
+            throw new RangeException("to needs to be at least from");
+        }
+        if (to - from > Integer.MAX_VALUE - 8) {
+            throw new RangeException("Range is too big for arrays, use range(from, to, consumer)");
+        }
+        int length = (int) (to - from);
+        int[] stoppingTimes = new int[length];
+        long[] maxima = new long[length];
+        int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int first = chunk * CHUNK_SIZE;
+            int last = (int) Math.min(length, (long) first + CHUNK_SIZE);
+            for (int index = first; index < last; index++) {
+                explore(from + index, index, stoppingTimes, maxima);
+            }
+        });
+        return new CollatzRange(from, to, stoppingTimes, maxima);
+    }
+
+    /**
+     * Same as {@link #range(long, long)} for ranges of any size, the results
+     * are given to 'consumer' in ascending parts of up to 2^24 start values.
+     *
+     * @since Version 2.4
+     *
+     * @param from the first start value, at least 1
+     * @param to the first start value not included
+     * @param consumer
+     */
+    public static void range(long from, long to, Consumer<CollatzRange> consumer) {
+        checkStart(from);
+        while (from < to) {
+            long end = from + Math.min(PART_SIZE, to - from);
+            consumer.accept(range(from, end));
+            from = end;
+        }
+    }
+
+    private static void explore(long i, int index, int[] stoppingTimes, long[] maxima) {
+        int steps = 0;
+        long maximum = i;
+        while (i >= MEMO_SIZE) {
+            if ((i & 1) == 0) {
+                int zeros = Long.numberOfTrailingZeros(i);
+                i = i >>> zeros;
+                steps += zeros;
+            } else {
+                i = next(i);
+                maximum = Math.max(maximum, i);
+                i = i >>> 1;
+                steps += 2;
             }
-            times++;
         }
-        if (st.length() > 0) {
-            bytes.add(createByte(st));
-            System.out.println(st);
+        stoppingTimes[index] = steps + Memo.STEPS[(int) i];
+        maxima[index] = Math.max(maximum, Memo.MAXIMA[(int) i]);
+    }
+
+    /**
+     * @return 3 * i + 1 of the odd 'i'
+     */
+    private static long next(long i) {
+        if (i > MAX_ODD) {
+            throw new ArithmeticException("Collatz sequence leaves the long range after " + i);
         }
-        System.out.println(times);
-        return bytes;
+        return i * 3 + 1;
     }
 
-    private static byte createByte(StringBuilder st) {
-        char[] chars = st.toString().toCharArray();
-        int i = 0;
-        int max = 1;
-        for (char c : chars) {
-            if (c == '1') {
-                i += max;
+    private static void checkStart(long i) {
+        if (i < 1) {
+            throw new RangeException("start value needs to be at least 1");
+        }
+    }
+
+    /**
+     * Stopping time and maximum of every value below MEMO_SIZE, each one
+     * is followed until it drops below itself.
+     */
+    private static final class Memo {
+
+        private static final int[] STEPS = new int[MEMO_SIZE];
+        private static final long[] MAXIMA = new long[MEMO_SIZE];
+
+        static {
+            MAXIMA[1] = 1;
+            for (int start = 2; start < MEMO_SIZE; start++) {
+                long i = start;
+                int steps = 0;
+                long maximum = i;
+                while (i >= start) {
+                    if ((i & 1) == 0) {
+                        i = i >>> 1;
+                        steps++;
+                    } else {
+                        i = i * 3 + 1;
+                        maximum = Math.max(maximum, i);
+                        i = i >>> 1;
+                        steps += 2;
+                    }
+                }
+                STEPS[start] = steps + STEPS[(int) i];
+                MAXIMA[start] = Math.max(maximum, MAXIMA[(int) i]);
             }
-            max *= 2;
         }
-        //System.out.println(st + " -> " + i);
-        return (byte)i;
+
     }
 
     /**
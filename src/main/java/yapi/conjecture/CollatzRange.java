@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.conjecture;
+
+import yapi.internal.runtimeexceptions.math.RangeException;
+
+/**
+ * Stopping times and maximum excursions of every start value in [from, to),
+ * see {@link Collatz#range(long, long)}.
+ *
+ * @since Version 2.4
+ */
+public final class CollatzRange {
+
+    private final long from;
+    private final long to;
+    private final int[] stoppingTimes;
+    private final long[] maxima;
+
+    CollatzRange(long from, long to, int[] stoppingTimes, long[] maxima) {
+        this.from = from;
+        this.to = to;
+        this.stoppingTimes = stoppingTimes;
+        this.maxima = maxima;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * @return the steps until 1 of every start value, index 0 is 'from'
+     */
+    public int[] getStoppingTimes() {
+        return stoppingTimes;
+    }
+
+    /**
+     * @return the biggest value on the way to 1 of every start value, index 0 is 'from'
+     */
+    public long[] getMaxima() {
+        return maxima;
+    }
+
+    public int getStoppingTime(long n) {
+        return stoppingTimes[index(n)];
+    }
+
+    public long getMaximum(long n) {
+        return maxima[index(n)];
+    }
+
+    /**
+     * @return the first start value with the longest stopping time or -1 if the range is empty
+     */
+    public long getLongest() {
+        int longest = -1;
+        for (int i = 0; i < stoppingTimes.length; i++) {
+            if (longest < 0 || stoppingTimes[i] > stoppingTimes[longest]) {
+                longest = i;
+            }
+        }
+        return longest < 0 ? -1 : from + longest;
+    }
+
+    /**
+     * @return the first start value with the highest maximum or -1 if the range is empty
+     */
+    public long getHighest() {
+        int highest = -1;
+        for (int i = 0; i < maxima.length; i++) {
+            if (highest < 0 || maxima[i] > maxima[highest]) {
+                highest = i;
+            }
+        }
+        return highest < 0 ? -1 : from + highest;
+    }
+
+    private int index(long n) {
+        if (n < from || n >= to) {
+            throw new RangeException(n + " is not in [" + from + ", " + to + ")");
+        }
+        return (int) (n - from);
+    }
+
+    @Override
+    public String toString() {
+        return "CollatzRange{" +
+                "from=" + from +
+                ", to=" + to +
+                '}';
+    }
+
+}
\ No newline at end of file
@@ -4,14 +4,27 @@
 
 package yapi.datastructures.cache;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class CacheMap<K, V> extends LinkedHashMap<K, V> {
 
     private int desiredCacheSize = -1;
 
+    // Runtime state of the policy, a deserialized CacheMap has none
+    private transient CachePolicy<K, V> policy = null;
+    private transient FrequencySketch<K> sketch = null;
+    private transient long weight = 0;
+    private transient Map<Object, long[]> times = null;
+    private final transient CacheStats stats = new CacheStats();
+
     public CacheMap(int initialCapacity, float loadFactor) {
         super(initialCapacity, loadFactor);
     }
@@ -32,15 +45,280 @@ public class CacheMap<K, V> extends LinkedHashMap<K, V> {
         super(initialCapacity, loadFactor, accessOrder);
     }
 
+    /**
+     * Evicts in access order by the limits of the policy. Only 'put', 'putAll',
+     * 'putIfAbsent' and 'computeIfAbsent' are weighed, 'compute', 'computeIfPresent'
+     * and 'merge' are not supported with a policy. The key, value and entry views
+     * are read only then, a removal through them would not be weighed.
+     *
+     * @since Version 2.4
+     *
+     * @param policy
+     */
+    public CacheMap(CachePolicy<K, V> policy) {
+        super(16, 0.75f, true);
+        this.policy = policy;
+        this.sketch = policy.createSketch();
+        if (policy.expires()) {
+            times = new HashMap<>();
+        }
+    }
+
     public void setDesiredCacheSize(int desiredCacheSize) {
-        if (desiredCacheSize == -1) {
-            this.desiredCacheSize = desiredCacheSize;
+        if (desiredCacheSize < -1) {
+            throw new IllegalArgumentException("desiredCacheSize needs to be positive or -1");
         }
+        this.desiredCacheSize = desiredCacheSize;
+    }
+
+    public CachePolicy<K, V> getPolicy() {
+        return policy;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public long weight() {
+        return policy == null ? size() : weight;
     }
 
     @Override
     protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-        return size() > desiredCacheSize;
+        if (policy != null) {
+            return false;
+        }
+        if (desiredCacheSize != -1 && size() > desiredCacheSize) {
+            stats.recordEviction(1);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (sketch != null && key != null) {
+            sketch.increment((K) key);
+        }
+        V value = super.get(key);
+        if (value == null && !containsKey(key)) {
+            stats.recordMiss();
+            return null;
+        }
+        if (times != null) {
+            long[] time = times.get(key);
+            long now = System.nanoTime();
+            if (time != null && policy.isExpired(time[0], time[1], now)) {
+                stats.recordExpiration();
+                stats.recordMiss();
+                removeEntry((K) key, value);
+                return null;
+            }
+            if (time != null) {
+                time[1] = now;
+            }
+        }
+        stats.recordHit();
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (policy == null) {
+            return super.put(key, value);
+        }
+        boolean present = containsKey(key);
+        if (!present && sketch != null) {
+            sketch.increment(key);
+        }
+        long nodeWeight = policy.weigh(key, value);
+        if (!present && policy.isTooHeavy(nodeWeight)) {
+            stats.recordRejection();
+            return null;
+        }
+        V old = super.put(key, value);
+        if (present) {
+            weight -= policy.weigh(key, old);
+        }
+        weight += nodeWeight;
+        if (times != null) {
+            long now = System.nanoTime();
+            times.put(key, new long[]{now, now});
+        }
+        evict(present ? null : key);
+        return old;
+    }
+
+    private void evict(K candidate) {
+        if (!policy.isOverCapacity(size(), weight)) {
+            return;
+        }
+        if (candidate != null && sketch != null && !admit(candidate)) {
+            stats.recordRejection();
+            removeEntry(candidate, super.get(candidate));
+            return;
+        }
+        Iterator<Map.Entry<K, V>> iterator = super.entrySet().iterator();
+        while (iterator.hasNext() && policy.isOverCapacity(size(), weight)) {
+            Map.Entry<K, V> entry = iterator.next();
+            if (entry.getKey() == candidate && size() > 1) {
+                continue;
+            }
+            long entryWeight = policy.weigh(entry.getKey(), entry.getValue());
+            iterator.remove();
+            weight -= entryWeight;
+            if (times != null) {
+                times.remove(entry.getKey());
+            }
+            stats.recordEviction(entryWeight);
+        }
+    }
+
+    private boolean admit(K candidate) {
+        int frequency = sketch.frequency(candidate);
+        long freed = 0;
+        int count = 0;
+        for (Map.Entry<K, V> entry : super.entrySet()) {
+            if (!policy.isOverCapacity(size() - count, weight - freed)) {
+                break;
+            }
+            if (entry.getKey() == candidate) {
+                continue;
+            }
+            if (frequency <= sketch.frequency(entry.getKey())) {
+                return false;
+            }
+            freed += policy.weigh(entry.getKey(), entry.getValue());
+            count++;
+        }
+        return true;
+    }
+
+    private void removeEntry(K key, V value) {
+        super.keySet().remove(key);
+        weight -= policy.weigh(key, value);
+        if (times != null) {
+            times.remove(key);
+        }
+    }
+
+    /**
+     * Removes every expired entry, without this they are only removed when accessed.
+     *
+     * @since Version 2.4
+     */
+    public void cleanUp() {
+        if (times == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, V>> iterator = super.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, V> entry = iterator.next();
+            long[] time = times.get(entry.getKey());
+            if (time != null && policy.isExpired(time[0], time[1], now)) {
+                iterator.remove();
+                weight -= policy.weigh(entry.getKey(), entry.getValue());
+                times.remove(entry.getKey());
+                stats.recordExpiration();
+            }
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (policy == null) {
+            super.putAll(m);
+            return;
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (policy == null) {
+            return super.putIfAbsent(key, value);
+        }
+        V current = get(key);
+        if (current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (policy == null) {
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+        V current = get(key);
+        if (current == null) {
+            current = mappingFunction.apply(key);
+            if (current != null) {
+                put(key, current);
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (policy == null) {
+            return super.compute(key, remappingFunction);
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (policy == null) {
+            return super.computeIfPresent(key, remappingFunction);
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (policy == null) {
+            return super.merge(key, value, remappingFunction);
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        weight = 0;
+        if (times != null) {
+            times.clear();
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (policy == null) {
+            return super.keySet();
+        }
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (policy == null) {
+            return super.values();
+        }
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (policy == null) {
+            return super.entrySet();
+        }
+        return Collections.unmodifiableSet(super.entrySet());
     }
 
     @Override
@@ -0,0 +1,140 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eviction settings for {@link Cache}, {@link DirtyCache}, {@link ConcurrentCache}
+ * and {@link CacheMap}. Every limit is off until it is set.
+ *
+ * <pre>
+ * new CachePolicy&lt;String, byte[]&gt;()
+ *         .maximumWeight(64 * 1024 * 1024, (key, value) -&gt; value.length)
+ *         .expireAfterAccess(10, TimeUnit.MINUTES)
+ *         .frequencyAdmission();
+ * </pre>
+ */
+public class CachePolicy<K, V> {
+
+    private static final int DEFAULT_SKETCH_SIZE = 4096;
+
+    private int maximumSize = -1;
+    private long maximumWeight = -1;
+    private Weigher<K, V> weigher = null;
+    private long expireAfterWrite = -1;
+    private long expireAfterAccess = -1;
+    private boolean frequencyAdmission = false;
+
+    public CachePolicy<K, V> maximumSize(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize needs to be positive");
+        }
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public CachePolicy<K, V> maximumWeight(long maximumWeight, Weigher<K, V> weigher) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight needs to be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    public CachePolicy<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration needs to be positive");
+        }
+        this.expireAfterWrite = unit.toNanos(duration);
+        return this;
+    }
+
+    public CachePolicy<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration needs to be positive");
+        }
+        this.expireAfterAccess = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * A new entry that would evict another one is only admitted if it was
+     * requested more often than the entry it would evict (TinyLFU). This keeps
+     * one time scans from flushing out the entries that are used all the time.
+     *
+     * @return
+     */
+    public CachePolicy<K, V> frequencyAdmission() {
+        this.frequencyAdmission = true;
+        return this;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getExpireAfterWrite(TimeUnit unit) {
+        return expireAfterWrite < 0 ? -1 : unit.convert(expireAfterWrite, TimeUnit.NANOSECONDS);
+    }
+
+    public long getExpireAfterAccess(TimeUnit unit) {
+        return expireAfterAccess < 0 ? -1 : unit.convert(expireAfterAccess, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isFrequencyAdmission() {
+        return frequencyAdmission;
+    }
+
+    long weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weigher returned a negative weight for '" + key + "'");
+        }
+        return weight;
+    }
+
+    boolean isOverCapacity(int size, long weight) {
+        return (maximumSize >= 0 && size > maximumSize) || (maximumWeight >= 0 && weight > maximumWeight);
+    }
+
+    boolean isTooHeavy(long weight) {
+        return maximumWeight >= 0 && weight > maximumWeight;
+    }
+
+    boolean expires() {
+        return expireAfterWrite >= 0 || expireAfterAccess >= 0;
+    }
+
+    boolean isExpired(long writeTime, long accessTime, long now) {
+        return (expireAfterWrite >= 0 && now - writeTime >= expireAfterWrite) || (expireAfterAccess >= 0 && now - accessTime >= expireAfterAccess);
+    }
+
+    FrequencySketch<K> createSketch() {
+        if (!frequencyAdmission) {
+            return null;
+        }
+        return new FrequencySketch<>(maximumSize > 0 ? maximumSize : DEFAULT_SKETCH_SIZE);
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicy{" +
+                "maximumSize=" + maximumSize +
+                ", maximumWeight=" + maximumWeight +
+                ", expireAfterWrite=" + expireAfterWrite +
+                ", expireAfterAccess=" + expireAfterAccess +
+                ", frequencyAdmission=" + frequencyAdmission +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction(long weight) {
+        evictions.increment();
+        evictionWeight.add(weight);
+    }
+
+    void recordExpiration() {
+        expirations.increment();
+    }
+
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRequestCount() {
+        return getHitCount() + getMissCount();
+    }
+
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long requestCount = hitCount + getMissCount();
+        return requestCount == 0 ? 1.0 : hitCount / (double) requestCount;
+    }
+
+    /**
+     * @return how many entries were evicted to stay below the maximum size or weight
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * @return how many new entries were not admitted by the frequency admission or were heavier than the maximum weight
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        evictionWeight.reset();
+        expirations.reset();
+        rejections.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", hitRate=" + getHitRate() +
+                ", evictions=" + getEvictionCount() +
+                ", evictionWeight=" + getEvictionWeight() +
+                ", expirations=" + getExpirationCount() +
+                ", rejections=" + getRejectionCount() +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,519 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe LRU cache with the API of {@link Cache} and the write back
+ * callback of {@link DirtyCache}.
+ *
+ * Lookups only go through a ConcurrentHashMap and record the access in a
+ * small per thread stripe buffer. The LRU list is reordered in batches by
+ * whoever holds the eviction lock, so readers never wait on each other. A
+ * record is dropped when its buffer is full, which only makes the LRU order
+ * a little less exact.
+ */
+public class ConcurrentCache<K, V> {
+
+    private static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final int size;
+    private final DirtyCache.Cleaner<K, V> cleaner;
+    private final CachePolicy<K, V> policy;
+    private final CacheStats stats = new CacheStats();
+
+    private final ConcurrentHashMap<K, Node<K, V>> nodeCache = new ConcurrentHashMap<>();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int bufferMask;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Node<K, V> head = null;
+    private Node<K, V> tail = null;
+    private int linked = 0;
+    private long weight = 0;
+    private final FrequencySketch<K> sketch;
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V data;
+        private volatile boolean dirty = false;
+        private volatile long writeTime;
+        private volatile long accessTime;
+
+        // Guarded by the eviction lock
+        private Node<K, V> prev, next;
+        private boolean alive = false;
+        private long weight = 0;
+
+        private Node(K key, V data) {
+            this.key = key;
+            this.data = data;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(data);
+        }
+    }
+
+    private static final class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads = 0;
+    }
+
+    public ConcurrentCache() {
+        this(100, null);
+    }
+
+    public ConcurrentCache(int size) {
+        this(size, null);
+    }
+
+    public ConcurrentCache(DirtyCache.Cleaner<K, V> cleaner) {
+        this(100, cleaner);
+    }
+
+    public ConcurrentCache(int size, DirtyCache.Cleaner<K, V> cleaner) {
+        this(new CachePolicy<K, V>().maximumSize(size), cleaner);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param policy
+     */
+    public ConcurrentCache(CachePolicy<K, V> policy) {
+        this(policy, null);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param policy
+     * @param cleaner
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(CachePolicy<K, V> policy, DirtyCache.Cleaner<K, V> cleaner) {
+        this.size = policy.getMaximumSize();
+        this.cleaner = cleaner;
+        this.policy = policy;
+        this.sketch = policy.createSketch();
+
+        int stripes = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1) * 4 - 1) << 1;
+        readBuffers = (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        bufferMask = stripes - 1;
+    }
+
+    public boolean hasValue(K key) {
+        Node<K, V> node = nodeCache.get(key);
+        if (node == null) {
+            return false;
+        }
+        if (expired(node, System.nanoTime())) {
+            expire(node);
+            return false;
+        }
+        return true;
+    }
+
+    public V getValue(K key) {
+        Node<K, V> node = nodeCache.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            if (sketch != null) {
+                // An unlinked node only counts for the sketch
+                record(new Node<>(key, null));
+            }
+            return null;
+        }
+        if (policy.expires()) {
+            long now = System.nanoTime();
+            if (expired(node, now)) {
+                expire(node);
+                stats.recordMiss();
+                record(node);
+                return null;
+            }
+            node.accessTime = now;
+        }
+        stats.recordHit();
+        record(node);
+        return node.data;
+    }
+
+    public void cache(K key, V value) {
+        add(key, value);
+    }
+
+    /**
+     * Adds the value or replaces the value of an existing key. A replaced value
+     * is marked dirty and handed to the Cleaner as such once it gets evicted.
+     *
+     * @param key
+     * @param value
+     */
+    public void add(K key, V value) {
+        long now = System.nanoTime();
+        long nodeWeight = policy.weigh(key, value);
+        Node<K, V> node = new Node<>(key, value);
+        node.writeTime = now;
+        node.accessTime = now;
+        while (true) {
+            Node<K, V> current = nodeCache.putIfAbsent(key, node);
+            if (current == null) {
+                break;
+            }
+            if (expired(current, now)) {
+                expire(current);
+                continue;
+            }
+            if (replace(current, value, nodeWeight, now)) {
+                return;
+            }
+            // Evicted or removed meanwhile, the new value still replaces the one the Cleaner got
+            node.dirty = true;
+        }
+
+        List<Node<K, V>> evicted;
+        boolean rejected = false;
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+            // A concurrent add may have replaced the value before it got linked
+            V data = node.data;
+            if (data != value) {
+                nodeWeight = policy.weigh(key, data);
+            }
+            if (admit(key, nodeWeight)) {
+                if (nodeCache.get(key) == node) {
+                    node.weight = nodeWeight;
+                    linkLast(node);
+                }
+            } else {
+                rejected = nodeCache.remove(key, node);
+            }
+            evicted = evict();
+        } finally {
+            evictionLock.unlock();
+        }
+        if (rejected) {
+            stats.recordRejection();
+            if (cleaner != null) {
+                // A concurrent add may have replaced the value before it was rejected
+                cleaner.clean(node.dirty, key, node.data);
+            }
+        }
+        clean(evicted);
+    }
+
+    /**
+     * Updates the node under the eviction lock, so it can't be evicted between
+     * the lookup and the update. A value too heavy for the cache removes the
+     * node instead.
+     *
+     * @return false if the node is no longer in the cache
+     */
+    private boolean replace(Node<K, V> node, V value, long nodeWeight, long now) {
+        List<Node<K, V>> evicted;
+        boolean rejected = false;
+        evictionLock.lock();
+        try {
+            if (nodeCache.get(node.key) != node) {
+                return false;
+            }
+            node.data = value;
+            node.dirty = true;
+            node.writeTime = now;
+            node.accessTime = now;
+            drainReadBuffers();
+            if (policy.isTooHeavy(nodeWeight)) {
+                // Same rule as for a new key, an adder that didn't link the node yet skips it
+                nodeCache.remove(node.key, node);
+                unlink(node);
+                rejected = true;
+            } else if (node.alive) {
+                weight += nodeWeight - node.weight;
+                node.weight = nodeWeight;
+                moveToTail(node);
+            }
+            evicted = evict();
+        } finally {
+            evictionLock.unlock();
+        }
+        if (rejected) {
+            stats.recordRejection();
+            if (cleaner != null) {
+                cleaner.clean(true, node.key, value);
+            }
+        }
+        clean(evicted);
+        return true;
+    }
+
+    // Guarded by the eviction lock, evicts the LRU entries the new one needs room from
+    private boolean admit(K key, long nodeWeight) {
+        if (policy.isTooHeavy(nodeWeight)) {
+            return false;
+        }
+        if (sketch == null || !policy.isOverCapacity(linked + 1, weight + nodeWeight)) {
+            return true;
+        }
+        Node<K, V> victim = head;
+        long freed = 0;
+        int count = 0;
+        int frequency = sketch.frequency(key);
+        while (victim != null && policy.isOverCapacity(linked + 1 - count, weight + nodeWeight - freed)) {
+            if (frequency <= sketch.frequency(victim.key)) {
+                return false;
+            }
+            freed += victim.weight;
+            count++;
+            victim = victim.next;
+        }
+        return true;
+    }
+
+    /**
+     * Removes every expired entry, without this they are only removed when accessed.
+     *
+     * @since Version 2.4
+     */
+    public void cleanUp() {
+        if (!policy.expires()) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Node<K, V>> expired = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<K, V> current = head;
+            while (current != null) {
+                Node<K, V> next = current.next;
+                if (expired(current, now) && nodeCache.remove(current.key, current)) {
+                    unlink(current);
+                    stats.recordExpiration();
+                    expired.add(current);
+                }
+                current = next;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        clean(expired);
+    }
+
+    private boolean expired(Node<K, V> node, long now) {
+        return policy.expires() && policy.isExpired(node.writeTime, node.accessTime, now);
+    }
+
+    private void expire(Node<K, V> node) {
+        if (!nodeCache.remove(node.key, node)) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        stats.recordExpiration();
+        if (cleaner != null) {
+            cleaner.clean(node.dirty, node.key, node.data);
+        }
+    }
+
+    public V remove(K key) {
+        Node<K, V> node = nodeCache.remove(key);
+        if (node == null) {
+            return null;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        return node.data;
+    }
+
+    public int size() {
+        return nodeCache.size();
+    }
+
+    public int getMaximumSize() {
+        return size;
+    }
+
+    public long weight() {
+        evictionLock.lock();
+        try {
+            return weight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public CachePolicy<K, V> getPolicy() {
+        return policy;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private void record(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[System.identityHashCode(Thread.currentThread()) & bufferMask];
+        long write = buffer.writes.get();
+        long pending = write - buffer.reads;
+        if (pending < BUFFER_SIZE && buffer.writes.compareAndSet(write, write + 1)) {
+            buffer.slots.lazySet((int) (write & BUFFER_MASK), node);
+            if (pending + 1 < DRAIN_THRESHOLD) {
+                return;
+            }
+        }
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            long read = buffer.reads;
+            long write = buffer.writes.get();
+            while (read < write) {
+                int index = (int) (read & BUFFER_MASK);
+                Node<K, V> node = buffer.slots.get(index);
+                if (node == null) {
+                    // The slot is claimed but not yet written, pick it up next time
+                    break;
+                }
+                buffer.slots.lazySet(index, null);
+                moveToTail(node);
+                if (sketch != null) {
+                    sketch.increment(node.key);
+                }
+                read++;
+            }
+            buffer.reads = read;
+        }
+    }
+
+    private void linkLast(Node<K, V> node) {
+        node.alive = true;
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        linked++;
+        weight += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (!node.alive) {
+            return;
+        }
+        node.alive = false;
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+        linked--;
+        weight -= node.weight;
+    }
+
+    private void moveToTail(Node<K, V> node) {
+        if (!node.alive || node == tail) {
+            return;
+        }
+        unlink(node);
+        linkLast(node);
+    }
+
+    private List<Node<K, V>> evict() {
+        if (!policy.isOverCapacity(linked, weight)) {
+            return Collections.emptyList();
+        }
+        List<Node<K, V>> evicted = new ArrayList<>();
+        while (head != null && policy.isOverCapacity(linked, weight)) {
+            Node<K, V> node = head;
+            unlink(node);
+            if (nodeCache.remove(node.key, node)) {
+                stats.recordEviction(node.weight);
+                evicted.add(node);
+            }
+        }
+        return evicted;
+    }
+
+    private void clean(List<Node<K, V>> evicted) {
+        if (cleaner == null) {
+            return;
+        }
+        for (Node<K, V> node : evicted) {
+            cleaner.clean(node.dirty, node.key, node.data);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder st = new StringBuilder();
+        st.append("ConcurrentCache{");
+        st.append("size=").append(size);
+        st.append(", ").append("actualSize=").append(nodeCache.size());
+        st.append(", ").append("values={");
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            boolean b = false;
+            Node<K, V> current = head;
+            while (current != null) {
+                if (b) {
+                    st.append(", ");
+                }
+                st.append(current.key).append("=").append(current.data);
+                current = current.next;
+                b = true;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        st.append("}");
+        st.append("}");
+        return st.toString();
+    }
+
+}
\ No newline at end of file
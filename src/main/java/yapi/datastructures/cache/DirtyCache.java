@@ -16,13 +16,21 @@ public class DirtyCache<K, V> {
 
     private Map<K, Node<V>> nodeCache = new HashMap<>();
 
-    private Cleaner cleaner;
+    private Cleaner<K, V> cleaner;
+
+    private CachePolicy<K, V> policy;
+    private FrequencySketch<K> sketch = null;
+    private long weight = 0;
+    private final CacheStats stats = new CacheStats();
 
     private class Node<V> {
         private V data;
         private K key;
         private boolean dirty;
         private Node<V> prev, next;
+        private long weight;
+        private long writeTime;
+        private long accessTime;
 
         public Node(V data, K key, Node<V> prev, Node<V> next) {
             this.data = data;
@@ -37,7 +45,7 @@ public class DirtyCache<K, V> {
         }
     }
 
-    public abstract class Cleaner<K, V> {
+    public abstract static class Cleaner<K, V> {
 
         public abstract void clean(boolean dirty, K key, V currentValue);
 
@@ -45,22 +53,59 @@ public class DirtyCache<K, V> {
 
     public DirtyCache(Cleaner<K, V> cleaner) {
         this.cleaner = cleaner;
+        this.policy = new CachePolicy<K, V>().maximumSize(size);
     }
 
     public DirtyCache(int size, Cleaner<K, V> cleaner) {
         this.size = size;
         this.cleaner = cleaner;
+        this.policy = new CachePolicy<K, V>().maximumSize(size);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param policy
+     * @param cleaner
+     */
+    public DirtyCache(CachePolicy<K, V> policy, Cleaner<K, V> cleaner) {
+        this.size = policy.getMaximumSize();
+        this.cleaner = cleaner;
+        this.policy = policy;
+        this.sketch = policy.createSketch();
     }
 
     public boolean hasValue(K key) {
-        return nodeCache.containsKey(key);
+        Node<V> node = nodeCache.get(key);
+        if (node == null) {
+            return false;
+        }
+        if (expired(node, System.nanoTime())) {
+            expire(node);
+            return false;
+        }
+        return true;
     }
 
     public V getValue(K key) {
-        if (nodeCache.containsKey(key)) {
-            touch(nodeCache.get(key), null);
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node<V> node = nodeCache.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
         }
-        return nodeCache.get(key).data;
+        long now = System.nanoTime();
+        if (expired(node, now)) {
+            expire(node);
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        node.accessTime = now;
+        touch(node, null);
+        return node.data;
     }
 
     public void cache(K key, V value) {
@@ -68,71 +113,156 @@ public class DirtyCache<K, V> {
     }
 
     public void add(K key, V value) {
-        if (nodeCache.containsKey(key)) {
-            touch(nodeCache.get(key), value);
+        long now = System.nanoTime();
+        Node<V> node = nodeCache.get(key);
+        if (node != null && !expired(node, now)) {
+            long nodeWeight = policy.weigh(key, value);
+            node.writeTime = now;
+            node.accessTime = now;
+            touch(node, value);
+            if (policy.isTooHeavy(nodeWeight)) {
+                // Same rule as for a new key, the replaced value is dirty
+                stats.recordRejection();
+                removeNode(node);
+                return;
+            }
+            weight += nodeWeight - node.weight;
+            node.weight = nodeWeight;
+            while (head != null && policy.isOverCapacity(nodeCache.size(), weight)) {
+                stats.recordEviction(head.weight);
+                remove();
+            }
             return;
         }
-        while (nodeCache.size() >= size) {
+        if (node != null) {
+            expire(node);
+        }
+
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        long nodeWeight = policy.weigh(key, value);
+        if (policy.isTooHeavy(nodeWeight)) {
+            stats.recordRejection();
+            cleaner.clean(false, key, value);
+            return;
+        }
+        while (head != null && policy.isOverCapacity(nodeCache.size() + 1, weight + nodeWeight)) {
+            if (sketch != null && sketch.frequency(key) <= sketch.frequency(head.key)) {
+                stats.recordRejection();
+                cleaner.clean(false, key, value);
+                return;
+            }
+            stats.recordEviction(head.weight);
             remove();
         }
-        Node<V> node = addLast(key, value);
+        node = addLast(key, value);
+        node.weight = nodeWeight;
+        node.writeTime = now;
+        node.accessTime = now;
+        weight += nodeWeight;
         nodeCache.put(key, node);
     }
 
-    private Node<V> addLast(K key, V value) {
-        if (head == null && tail == null) {
-            head = tail = new Node<>(value, key, null, null);
-            return head;
-        } else {
-            tail.next = new Node<>(value, key, tail, null);
-            tail = tail.next;
-            return tail;
+    /**
+     * Removes every expired entry, without this they are only removed when accessed.
+     *
+     * @since Version 2.4
+     */
+    public void cleanUp() {
+        if (!policy.expires()) {
+            return;
         }
+        long now = System.nanoTime();
+        Node<V> current = head;
+        while (current != null) {
+            Node<V> next = current.next;
+            if (expired(current, now)) {
+                expire(current);
+            }
+            current = next;
+        }
+    }
+
+    public int size() {
+        return nodeCache.size();
+    }
+
+    public long weight() {
+        return weight;
+    }
+
+    public CachePolicy<K, V> getPolicy() {
+        return policy;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private Node<V> addLast(K key, V value) {
+        Node<V> node = new Node<>(value, key, null, null);
+        addLast(node);
+        return node;
     }
 
     private void addLast(Node<V> node) {
-        if (head == null && tail == null) {
-            head = tail = node;
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
         } else {
             tail.next = node;
-            tail = tail.next;
         }
+        tail = node;
     }
 
-    private void touch(Node<V> node, V newValue) {
+    private void unlink(Node<V> node) {
         if (node.prev == null) {
-            if (node.next != null) {
-                node.next.prev = null;
-            }
-            addLast(node);
-            return;
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
         }
         if (node.next == null) {
-            return;
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
         }
-
-        node.next.prev = node.prev;
-        node.prev.next = node.next;
-
         node.prev = node.next = null;
+    }
 
-        addLast(node);
+    private void touch(Node<V> node, V newValue) {
+        if (node != tail) {
+            unlink(node);
+            addLast(node);
+        }
         if (newValue != null) {
             node.data = newValue;
             node.dirty = true;
         }
     }
 
+    private boolean expired(Node<V> node, long now) {
+        return policy.expires() && policy.isExpired(node.writeTime, node.accessTime, now);
+    }
+
+    private void expire(Node<V> node) {
+        stats.recordExpiration();
+        removeNode(node);
+    }
+
     private void remove() {
         if (head == null) {
             return;
         }
+        removeNode(head);
+    }
 
-        Node<V> node = nodeCache.get(head.key);
+    private void removeNode(Node<V> node) {
         cleaner.clean(node.dirty, node.key, node.data);
-        nodeCache.remove(head.key);
-        head = head.next;
-        head.prev = null;
+        nodeCache.remove(node.key);
+        weight -= node.weight;
+        unlink(node);
     }
 
     @Override
@@ -0,0 +1,17 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.cache;
+
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * @param key
+     * @param value
+     * @return the weight of the entry, for example the size of a byte[] in bytes, never negative
+     */
+    long weigh(K key, V value);
+
+}
\ No newline at end of file
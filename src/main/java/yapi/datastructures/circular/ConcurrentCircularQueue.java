@@ -0,0 +1,108 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.circular;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Thread safe variant of {@link CircularQueue}. Unlike the CircularQueue it
+ * never overwrites, 'offer' returns false once the queue is full. The size
+ * is rounded up to a power of two and null elements are not supported.
+ *
+ * @since Version 2.4
+ */
+public abstract class ConcurrentCircularQueue<T> {
+
+    final AtomicReferenceArray<T> ts;
+    final int mask;
+
+    final PaddedSequence head = new PaddedSequence();
+    final PaddedSequence tail = new PaddedSequence();
+
+    ConcurrentCircularQueue(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size needs to be positive");
+        }
+        if (size > 1 << 30) {
+            throw new IllegalArgumentException("size needs to be at most 2^30");
+        }
+        int capacity = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        ts = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * @param t
+     * @return false if the queue is full
+     */
+    public abstract boolean offer(T t);
+
+    /**
+     * @return the oldest element or null if the queue is empty
+     */
+    public abstract T poll();
+
+    /**
+     * Removes up to 'limit' elements at once and hands them to the consumer in order.
+     *
+     * @param consumer
+     * @param limit
+     * @return how many elements were removed
+     */
+    public int drain(Consumer<? super T> consumer, int limit) {
+        int count = 0;
+        T t;
+        while (count < limit && (t = poll()) != null) {
+            consumer.accept(t);
+            count++;
+        }
+        return count;
+    }
+
+    public void add(T t) {
+        if (!offer(t)) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    public T remove() {
+        T t = poll();
+        if (t == null) {
+            throw new ArrayIndexOutOfBoundsException("Array is empty");
+        }
+        return t;
+    }
+
+    public int size() {
+        // Read head first, so the difference can't become negative because of a concurrent poll
+        long currentHead = head.get();
+        long size = tail.get() - currentHead;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    static void checkNotNull(Object t) {
+        if (t == null) {
+            throw new NullPointerException("Null as value is not supported");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "size=" + size() +
+                ", capacity=" + capacity() +
+                '}';
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.circular;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * {@link ConcurrentCircularQueue} for any number of threads on both sides.
+ * Every slot has a sequence number, it equals the position a producer may
+ * write next and the position plus one once the element is readable. The
+ * head and tail indices are claimed with a CAS, a full or empty queue is
+ * detected from the sequence of the slot without touching the other index.
+ *
+ * @since Version 2.4
+ */
+public class MultiProducerCircularQueue<T> extends ConcurrentCircularQueue<T> {
+
+    private final AtomicLongArray sequences;
+
+    public MultiProducerCircularQueue(int size) {
+        super(size);
+        sequences = new AtomicLongArray(capacity());
+        for (int i = 0; i < capacity(); i++) {
+            sequences.lazySet(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(T t) {
+        checkNotNull(t);
+        while (true) {
+            long currentTail = tail.get();
+            int index = (int) (currentTail & mask);
+            long sequence = sequences.get(index);
+            if (sequence < currentTail) {
+                return false;
+            }
+            if (sequence == currentTail && tail.compareAndSet(currentTail, currentTail + 1)) {
+                ts.lazySet(index, t);
+                sequences.lazySet(index, currentTail + 1);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        while (true) {
+            long currentHead = head.get();
+            int index = (int) (currentHead & mask);
+            long sequence = sequences.get(index);
+            if (sequence < currentHead + 1) {
+                return null;
+            }
+            if (sequence == currentHead + 1 && head.compareAndSet(currentHead, currentHead + 1)) {
+                return take(index, currentHead);
+            }
+        }
+    }
+
+    /**
+     * Claims all readable elements up to 'limit' with a single CAS.
+     */
+    @Override
+    public int drain(Consumer<? super T> consumer, int limit) {
+        while (true) {
+            long currentHead = head.get();
+            int count = 0;
+            while (count < limit && sequences.get((int) ((currentHead + count) & mask)) == currentHead + count + 1) {
+                count++;
+            }
+            if (count == 0) {
+                if (sequences.get((int) (currentHead & mask)) > currentHead + 1) {
+                    // Another consumer took this slot in the meantime
+                    continue;
+                }
+                return 0;
+            }
+            if (head.compareAndSet(currentHead, currentHead + count)) {
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(take((int) ((currentHead + i) & mask), currentHead + i));
+                }
+                return count;
+            }
+        }
+    }
+
+    private T take(int index, long position) {
+        T t = ts.get(index);
+        ts.lazySet(index, null);
+        sequences.lazySet(index, position + mask + 1);
+        return t;
+    }
+
+}
\ No newline at end of file
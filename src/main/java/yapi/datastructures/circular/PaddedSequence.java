@@ -0,0 +1,39 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.circular;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A counter that sits on its own cache line, so the producer side and the
+ * consumer side of a queue don't invalidate each others cache on every write.
+ */
+@SuppressWarnings("unused")
+final class PaddedSequence {
+
+    private static final AtomicLongFieldUpdater<PaddedSequence> VALUE = AtomicLongFieldUpdater.newUpdater(PaddedSequence.class, "value");
+
+    private long p01, p02, p03, p04, p05, p06, p07;
+
+    private volatile long value;
+
+    // Last seen value of the opposite sequence, only used by the thread owning this one
+    long cache;
+
+    private long p11, p12, p13, p14, p15, p16;
+
+    long get() {
+        return value;
+    }
+
+    void lazySet(long newValue) {
+        VALUE.lazySet(this, newValue);
+    }
+
+    boolean compareAndSet(long expect, long update) {
+        return VALUE.compareAndSet(this, expect, update);
+    }
+
+}
\ No newline at end of file
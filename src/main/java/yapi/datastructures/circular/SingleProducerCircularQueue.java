@@ -0,0 +1,71 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.datastructures.circular;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link ConcurrentCircularQueue} for exactly one thread calling 'offer' and
+ * one thread calling 'poll' and 'drain'. Neither side needs a CAS, each one
+ * only publishes its own index and re-reads the other one when it looks like
+ * the queue is full or empty.
+ *
+ * @since Version 2.4
+ */
+public class SingleProducerCircularQueue<T> extends ConcurrentCircularQueue<T> {
+
+    public SingleProducerCircularQueue(int size) {
+        super(size);
+    }
+
+    @Override
+    public boolean offer(T t) {
+        checkNotNull(t);
+        long currentTail = tail.get();
+        if (currentTail - tail.cache > mask) {
+            tail.cache = head.get();
+            if (currentTail - tail.cache > mask) {
+                return false;
+            }
+        }
+        ts.lazySet((int) (currentTail & mask), t);
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        long currentHead = head.get();
+        if (currentHead >= head.cache) {
+            head.cache = tail.get();
+            if (currentHead >= head.cache) {
+                return null;
+            }
+        }
+        int index = (int) (currentHead & mask);
+        T t = ts.get(index);
+        ts.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+        return t;
+    }
+
+    @Override
+    public int drain(Consumer<? super T> consumer, int limit) {
+        long currentHead = head.get();
+        long available = tail.get() - currentHead;
+        int count = (int) Math.min(available, limit);
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((currentHead + i) & mask);
+            T t = ts.get(index);
+            ts.lazySet(index, null);
+            consumer.accept(t);
+        }
+        if (count > 0) {
+            head.lazySet(currentHead + count);
+        }
+        return count;
+    }
+
+}
\ No newline at end of file
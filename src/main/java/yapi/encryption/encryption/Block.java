@@ -4,15 +4,10 @@
 
 package yapi.encryption.encryption;
 
-import yapi.math.NumberRandom;
 import yapi.string.StringFormatting;
 
-import java.util.*;
-
 public class Block {
 
-    private static Map<Integer, int[]> permutationMap = new HashMap<>();
-
     byte[] blockBytes;
 
     public Block(byte[] blockBytes) {
@@ -24,13 +19,7 @@ public class Block {
     }
 
     void permute(int key) {
-        int[] permutation;
-        if (!permutationMap.containsKey(key)) {
-            permutation = createPermutation(key);
-            permutationMap.put(key, permutation);
-        } else {
-            permutation = permutationMap.get(key);
-        }
+        int[] permutation = YAPICipherEngine.permutation(key);
 
         for (int i = 0; i < permutation.length; i += 2) {
             int x1 = permutation[i + 0];
@@ -42,27 +31,6 @@ public class Block {
         }
     }
 
-    private int[] createPermutation(int key) {
-        LinkedList<Integer> indices = new LinkedList<>();
-        NumberRandom numberRandom = new NumberRandom(key);
-        for (int i = 0; i < blockBytes.length; i++) {
-            indices.add(i);
-        }
-        int[] permutation = new int[blockBytes.length];
-        int index = 0;
-        while (!indices.isEmpty()) {
-            int x1 = numberRandom.getInt(indices.size());
-            x1 = indices.remove(x1);
-            int x2 = numberRandom.getInt(indices.size());
-            x2 = indices.remove(x2);
-
-            permutation[index++] = x1;
-            permutation[index++] = x2;
-        }
-
-        return permutation;
-    }
-
     void encrypt(byte[] bytes) {
         if (bytes.length != blockBytes.length) {
             throw new IllegalArgumentException();
@@ -0,0 +1,210 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.encryption.encryption;
+
+import yapi.internal.exceptions.CipherException;
+import yapi.math.NumberRandom;
+import yapi.string.HashType;
+import yapi.string.StringCrypting;
+
+import java.util.Arrays;
+
+/**
+ * In place implementation of the YAPICipher block format. It does the same
+ * steps as the {@link Block} based path of {@link YAPICipherModeEncryption}
+ * and {@link YAPICipherModeDecryption} and produces the same bytes, but
+ * works on one byte[] with the blocks laid out next to each other.
+ *
+ * The engine has no mutable state, the 256 block permutations are created
+ * once when the class is loaded, so it can be used from any thread.
+ */
+final class YAPICipherEngine {
+
+    static final int BLOCK_SIZE = 16;
+
+    private static final int[][] PERMUTATIONS = new int[256][];
+
+    static {
+        for (int i = 0; i < PERMUTATIONS.length; i++) {
+            PERMUTATIONS[i] = createPermutation(i);
+        }
+    }
+
+    private YAPICipherEngine() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static int[] permutation(int key) {
+        return PERMUTATIONS[key & 0xFF];
+    }
+
+    private static int[] createPermutation(int key) {
+        NumberRandom numberRandom = new NumberRandom(key);
+        int[] indices = new int[BLOCK_SIZE];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        int[] permutation = new int[BLOCK_SIZE];
+        int size = indices.length;
+        int index = 0;
+        while (size > 0) {
+            int x1 = numberRandom.getInt(size);
+            permutation[index++] = indices[x1];
+            System.arraycopy(indices, x1 + 1, indices, x1, --size - x1);
+            int x2 = numberRandom.getInt(size);
+            permutation[index++] = indices[x2];
+            System.arraycopy(indices, x2 + 1, indices, x2, --size - x2);
+        }
+        return permutation;
+    }
+
+    static byte[] encrypt(byte[] key, byte[] bytes) {
+        key = StringCrypting.hash(key, HashType.SHA256);
+        NumberRandom numberRandom = new NumberRandom(getLong(key, 0));
+
+        // Data blocks as 'partitionSource' creates them, always at least one
+        int dataBlocks = Math.max((bytes.length + BLOCK_SIZE - 1) / BLOCK_SIZE, 1);
+        int bytesAdded = (BLOCK_SIZE - (bytes.length % BLOCK_SIZE)) % BLOCK_SIZE;
+        boolean padding = dataBlocks % 2 == 0;
+        int blocks = dataBlocks + (padding ? 2 : 1);
+        byte[] output = new byte[blocks * BLOCK_SIZE];
+
+        // The first data block starts out random, so do all but the last one, which
+        // only matters for the first one as the others get overwritten by the source
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            output[BLOCK_SIZE + i] = numberRandom.getByte();
+        }
+        for (int i = BLOCK_SIZE * Math.max(dataBlocks - 2, 0); i > 0; i--) {
+            numberRandom.getByte();
+        }
+        System.arraycopy(bytes, 0, output, BLOCK_SIZE, bytes.length);
+        if (padding) {
+            bytesAdded += BLOCK_SIZE;
+            for (int i = (dataBlocks + 1) * BLOCK_SIZE; i < output.length; i++) {
+                output[i] = numberRandom.getByte();
+            }
+        }
+        output[0] = (byte) bytesAdded;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            output[i] = numberRandom.getByte();
+        }
+
+        permuteBlocks(output, blocks, new NumberRandom(getLong(key, 1)));
+
+        NumberRandom internal = new NumberRandom(getLong(key, 2));
+        NumberRandom xor = new NumberRandom(getLong(key, 3));
+        int b = internal.getByte() & 0xFF;
+        for (int offset = 0; offset < output.length; offset += BLOCK_SIZE) {
+            int c = output[offset + BLOCK_SIZE - 1] & 0xFF;
+            permute(output, offset, b);
+            b = c;
+            xor(output, offset, xor);
+        }
+        return output;
+    }
+
+    static byte[] decrypt(byte[] key, byte[] bytes) throws CipherException {
+        key = StringCrypting.hash(key, HashType.SHA256);
+        if (bytes == null || bytes.length == 0 || bytes.length % (BLOCK_SIZE * 2) != 0) {
+            throw new CipherException("Malformed cipher text");
+        }
+        byte[] work = bytes.clone();
+        int blocks = work.length / BLOCK_SIZE;
+
+        NumberRandom internal = new NumberRandom(getLong(key, 2));
+        NumberRandom xor = new NumberRandom(getLong(key, 3));
+        int b = internal.getByte() & 0xFF;
+        for (int offset = 0; offset < work.length; offset += BLOCK_SIZE) {
+            xor(work, offset, xor);
+            permute(work, offset, b);
+            b = work[offset + BLOCK_SIZE - 1] & 0xFF;
+        }
+
+        permuteBlocks(work, blocks, new NumberRandom(getLong(key, 1)));
+
+        int bytesRemoved = work[0] & 0xFF;
+        int dataBlocks = blocks - 1;
+        if (bytesRemoved >= BLOCK_SIZE) {
+            dataBlocks--;
+            bytesRemoved -= BLOCK_SIZE;
+        }
+        int size = dataBlocks * BLOCK_SIZE - bytesRemoved;
+        if (size <= 0) {
+            throw new CipherException("Decryption failed");
+        }
+        return Arrays.copyOfRange(work, BLOCK_SIZE, BLOCK_SIZE + size);
+    }
+
+    /**
+     * Swaps the blocks in pairs. The pairs are picked from the blocks that are
+     * not swapped yet, a Fenwick tree over those finds the n-th one in log time.
+     */
+    private static void permuteBlocks(byte[] bytes, int blocks, NumberRandom numberRandom) {
+        int[] tree = new int[blocks + 1];
+        for (int i = 1; i <= blocks; i++) {
+            tree[i]++;
+            int parent = i + (i & -i);
+            if (parent <= blocks) {
+                tree[parent] += tree[i];
+            }
+        }
+        int highestBit = Integer.highestOneBit(blocks);
+        int size = blocks;
+        while (size > 0) {
+            int x1 = take(tree, highestBit, numberRandom.getInt(size--));
+            int x2 = take(tree, highestBit, numberRandom.getInt(size--));
+            swap(bytes, x1 * BLOCK_SIZE, x2 * BLOCK_SIZE);
+        }
+    }
+
+    private static int take(int[] tree, int highestBit, int rank) {
+        int position = 0;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= rank) {
+                position = next;
+                rank -= tree[next];
+            }
+        }
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+        return position;
+    }
+
+    private static void swap(byte[] bytes, int x1, int x2) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            byte b = bytes[x1 + i];
+            bytes[x1 + i] = bytes[x2 + i];
+            bytes[x2 + i] = b;
+        }
+    }
+
+    private static void permute(byte[] bytes, int offset, int key) {
+        int[] permutation = PERMUTATIONS[key];
+        for (int i = 0; i < permutation.length; i += 2) {
+            int x1 = offset + permutation[i];
+            int x2 = offset + permutation[i + 1];
+            byte b = bytes[x1];
+            bytes[x1] = bytes[x2];
+            bytes[x2] = b;
+        }
+    }
+
+    private static void xor(byte[] bytes, int offset, NumberRandom numberRandom) {
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            bytes[i] ^= numberRandom.getByte();
+        }
+    }
+
+    private static long getLong(byte[] bytes, int index) {
+        long r = 0;
+        for (int i = 7; i >= 0; i--) {
+            r = (r << 8) | (bytes[i + 8 * index] & 0xFF);
+        }
+        return r;
+    }
+
+}
\ No newline at end of file
@@ -121,6 +121,19 @@ class YAPICipherModeDecryption implements YAPICipherImpl {
 
     @Override
     public byte[] crypt(byte[] key, byte[] bytes) throws CipherException {
+        return YAPICipherEngine.decrypt(key, bytes);
+    }
+
+    /**
+     * The {@link Block} based reference of the format, {@link YAPICipherEngine}
+     * produces the same output without the per block objects.
+     *
+     * @param key
+     * @param bytes
+     * @return
+     * @throws CipherException
+     */
+    byte[] cryptBlocks(byte[] key, byte[] bytes) throws CipherException {
         key = StringCrypting.hash(key, HashType.SHA256);
         if (bytes == null || bytes.length == 0 || bytes.length % (BLOCK_SIZE * 2) != 0) {
             throw new CipherException("Malformed cipher text");
@@ -113,6 +113,19 @@ class YAPICipherModeEncryption implements YAPICipherImpl {
 
     @Override
     public byte[] crypt(byte[] key, byte[] bytes) throws CipherException {
+        return YAPICipherEngine.encrypt(key, bytes);
+    }
+
+    /**
+     * The {@link Block} based reference of the format, {@link YAPICipherEngine}
+     * produces the same output without the per block objects.
+     *
+     * @param key
+     * @param bytes
+     * @return
+     * @throws CipherException
+     */
+    byte[] cryptBlocks(byte[] key, byte[] bytes) throws CipherException {
         key = StringCrypting.hash(key, HashType.SHA256);
 
         NumberRandom randomNumberRandom = new NumberRandom(getLong(key, 0));
@@ -0,0 +1,103 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.encryption.encryption;
+
+import yapi.internal.exceptions.CipherException;
+import yapi.manager.worker.TaskFuture;
+import yapi.manager.worker.WorkerPool;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Block pipeline behind the parallel cipher modes. The source is read one
+ * block at a time and every block is crypted on the WorkerPool, at most
+ * 'threads * 2' blocks are in memory at once. The finished blocks are
+ * written to the destination in source order, so nothing touches the disk
+ * besides the source and the destination.
+ */
+class YAPICipherStream {
+
+    private static final int BLOCKS_PER_THREAD = 2;
+
+    private final String mode;
+    private final int blockSize;
+    private final int threads;
+
+    YAPICipherStream(String mode, int blockSize, int threads) {
+        this.mode = mode;
+        this.blockSize = blockSize;
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Counts the blocks left between the current position of the source and its end.
+     *
+     * @param source
+     * @return
+     * @throws IOException
+     */
+    int blocks(FileInputStream source) throws IOException {
+        long remaining = source.getChannel().size() - source.getChannel().position();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return (int) ((remaining + blockSize - 1) / blockSize);
+    }
+
+    void crypt(byte[] keySpace, int ids, FileInputStream source, FileOutputStream destination) throws CipherException, IOException {
+        int window = threads * BLOCKS_PER_THREAD;
+        ArrayDeque<TaskFuture<byte[]>> inFlight = new ArrayDeque<>(window);
+        WorkerPool workerPool = new WorkerPool(threads);
+        try {
+            for (int i = 0; i < ids; i++) {
+                byte[] bytes = source.readNBytes(blockSize);
+                if (bytes.length == 0) {
+                    throw new CipherException("Source ended before block " + i);
+                }
+                if (inFlight.size() >= window) {
+                    destination.write(await(inFlight.removeFirst()));
+                }
+                inFlight.addLast(work(keySpace, workerPool, i, bytes));
+            }
+            while (!inFlight.isEmpty()) {
+                destination.write(await(inFlight.removeFirst()));
+            }
+        } finally {
+            for (TaskFuture<byte[]> future : inFlight) {
+                future.cancel(false);
+            }
+            workerPool.close();
+        }
+    }
+
+    private TaskFuture<byte[]> work(byte[] keySpace, WorkerPool workerPool, int id, byte[] bytes) {
+        return workerPool.submit(() -> YAPICipher.getInstance(mode).crypt(getKey(keySpace, id), bytes));
+    }
+
+    private byte[] await(TaskFuture<byte[]> future) throws CipherException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CipherException("Interrupted while waiting on block " + future.getTaskID(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CipherException) {
+                throw (CipherException) e.getCause();
+            }
+            throw new CipherException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private byte[] getKey(byte[] keySpace, int id) {
+        byte[] key = new byte[8];
+        System.arraycopy(keySpace, id * 8, key, 0, 8);
+        return key;
+    }
+
+}
\ No newline at end of file
@@ -6,8 +6,6 @@ package yapi.encryption.proveofwork;
 
 import yapi.math.NumberRandom;
 import yapi.math.base.BaseConversion;
-import yapi.runtime.ThreadUtils;
-import yapi.string.HashType;
 import yapi.string.StringCrypting;
 import yapi.string.StringFormatting;
 
@@ -65,8 +63,6 @@ public class ProveOfWork {
     private long time = 0;
     //private String salt = "";
 
-    private String solution = "";
-    private boolean done = false;
     private long tries = 0;
 
     public long getTries() {
@@ -77,110 +73,12 @@ public class ProveOfWork {
         return time;
     }
 
-    private class WorkSystem {
-
-        char[] chars = new char[128];
-        private long tries = 0;
-
-        {
-            chars[0] = 1;
-        }
-
-        public synchronized String next() {
-            tries++;
-            boolean b = true;
-            int i = 0;
-            while (b) {
-                chars[i]++;
-                b = false;
-                if (chars[i] > 94) {
-                    b = true;
-                    chars[i] = 1;
-                    i++;
-                }
-            }
-
-            StringBuilder st = new StringBuilder();
-            i = 0;
-            while (i < chars.length) {
-                if (chars[i] == 0) {
-                    break;
-                }
-                char c = (char)(chars[i] + 31);
-                if (c >= 127) {
-                    c++;
-                }
-                st.append(c);
-                i++;
-            }
-            return st.toString();
-        }
-
-    }
-
     public synchronized String work(int work) {
-        if (work < 0) {
-            work = 0;
-        }
-        if (work > 65536) {
-            work = 65536;
-        }
-
-        int fWork = work;
-        done = false;
-        solution = "";
-        WorkSystem workSystem = new WorkSystem();
-
-        Runnable runnable = () -> {
-            while (!done) {
-                String current = workSystem.next();
-                if (testHash(current, fWork)) {
-                    done = true;
-                    solution = current;
-                }
-            }
-        };
-
-        time = System.currentTimeMillis();
-        ThreadGroup threadGroup = new ThreadGroup(ThreadUtils.yapiGroup, "ProveOfWork: " + work);
-        for (int i = 0; i < Runtime.getRuntime().availableProcessors() / 2; i++) {
-            Thread t = new Thread(threadGroup, runnable);
-            t.setName("ProveOfWork Thread - " + i);
-            t.start();
-        }
-
-        while (solution.isEmpty()) {
-            ThreadUtils.sleep(100);
-        }
-        time = System.currentTimeMillis() - time;
-        tries = workSystem.tries;
-        return salt + solution;
-    }
-
-    private boolean testHash(String input, int work) {
-        String s = StringFormatting.toHex(StringCrypting.hash(salt + input, HashType.SHA512));
-        if (input.length() < 3) {
-            return false;
-        }
-        if (s.length() - s.replace("0", "").length() < 5) {
-            return false;
-        }
-        String w = BaseConversion.toBaseN(work, 8).replace("0", "F") + "0";
-        if (!s.startsWith(w)) {
-            return false;
-        }
-        boolean b = false;
-        String t = "0123456789ABCDEF";
-        for (int i = 0; i < t.length(); i++) {
-            if (s.length() - s.replace(t.charAt(i) + "", "").length() > Math.sqrt(work) / 2) {
-                b = true;
-                break;
-            }
-        }
-        if (!b) {
-            return false;
-        }
-        return contains(s, input.charAt(work % input.length()));
+        ProveOfWorkMiner miner = new ProveOfWorkMiner(salt);
+        String solution = miner.work(work);
+        time = miner.getTime();
+        tries = miner.getTries();
+        return solution;
     }
 
     private static boolean contains(String s, char c) {
@@ -0,0 +1,299 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.encryption.proveofwork;
+
+import yapi.math.base.BaseConversion;
+import yapi.runtime.ThreadUtils;
+import yapi.string.HashType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Searches the same solutions as {@link ProveOfWork} without any shared state
+ * between the threads. The candidates are numbered, every thread takes the
+ * blocks of {@link #BLOCK_SIZE} numbers with its own index, so no two threads
+ * ever test the same candidate. Inside a block the candidate is counted up in
+ * place in a byte buffer behind the salt and hashed with the threads own
+ * {@link MessageDigest}, nothing is allocated per try. The first thread that
+ * finds a solution stops all others.
+ *
+ * @since Version 2.4
+ */
+public class ProveOfWorkMiner {
+
+    // The candidates are written with the characters from ' ' to '}'
+    private static final byte FIRST = 32;
+    private static final byte LAST = 125;
+    private static final int DIGITS = LAST - FIRST + 1;
+    // Numbering of the first candidate with 3 characters
+    private static final long START = 1 + DIGITS + (long) DIGITS * DIGITS;
+    // Enough characters for every positive long
+    private static final int MAX_LENGTH = 10;
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private final String salt;
+    private final byte[] saltBytes;
+    private final int threads;
+
+    private long tries = 0;
+    private long nanos = 0;
+
+    public ProveOfWorkMiner(String salt) {
+        this(salt, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ProveOfWorkMiner(String salt, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads needs to be at least 1");
+        }
+        this.salt = salt;
+        this.saltBytes = salt.getBytes(StandardCharsets.UTF_8);
+        this.threads = threads;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return the hashes computed by the last {@link #work(int)}
+     */
+    public long getTries() {
+        return tries;
+    }
+
+    /**
+     * @return the milliseconds the last {@link #work(int)} needed
+     */
+    public long getTime() {
+        return nanos / 1000000;
+    }
+
+    /**
+     * @return the hashes per second of the last {@link #work(int)}
+     */
+    public double getHashesPerSecond() {
+        return tries * 1e9 / Math.max(nanos, 1);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param work between 0 and 65536
+     * @return the salt followed by the solution or null if the current thread got interrupted
+     */
+    public synchronized String work(int work) {
+        if (work < 0) {
+            work = 0;
+        }
+        if (work > 65536) {
+            work = 65536;
+        }
+
+        Search search = new Search(work);
+        ThreadGroup threadGroup = new ThreadGroup(ThreadUtils.yapiGroup, "ProveOfWorkMiner: " + work);
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            workers[i] = new Thread(threadGroup, () -> mine(search, index));
+            workers[i].setName("ProveOfWorkMiner Thread - " + i);
+            workers[i].start();
+        }
+
+        boolean interrupted = false;
+        try {
+            search.found.await();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        search.done = true;
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        nanos = System.nanoTime() - start;
+        tries = search.tries.get();
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return salt + search.solution.get();
+    }
+
+    private void mine(Search search, int index) {
+        MessageDigest digest = digest();
+        byte[] buffer = new byte[saltBytes.length + MAX_LENGTH];
+        System.arraycopy(saltBytes, 0, buffer, 0, saltBytes.length);
+        byte[] hash = new byte[digest.getDigestLength()];
+        byte[] nibbles = new byte[hash.length * 2];
+        int[] counts = new int[16];
+        long tries = 0;
+
+        try {
+            for (long block = index; !search.done; block += threads) {
+                long first = START + block * BLOCK_SIZE;
+                if (first < START) {
+                    // Every candidate is tested
+                    return;
+                }
+                int length = saltBytes.length + encode(first, buffer, saltBytes.length);
+                for (int i = 0; i < BLOCK_SIZE && !search.done; i++) {
+                    digest.update(buffer, 0, length);
+                    try {
+                        digest.digest(hash, 0, hash.length);
+                    } catch (DigestException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    tries++;
+                    if (search.matches(hash, nibbles, counts, buffer, saltBytes.length, length)) {
+                        String solution = new String(buffer, saltBytes.length, length - saltBytes.length, StandardCharsets.UTF_8);
+                        if (search.solution.compareAndSet(null, solution)) {
+                            search.done = true;
+                            search.found.countDown();
+                        }
+                        return;
+                    }
+                    length = increment(buffer, saltBytes.length, length);
+                }
+            }
+        } finally {
+            search.tries.addAndGet(tries);
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance(HashType.SHA512.getType());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the candidate with the number 'n' > 0 at 'offset', the first
+     * character is the least significant.
+     *
+     * @return the length of the candidate
+     */
+    static int encode(long n, byte[] buffer, int offset) {
+        int length = 0;
+        while (n > 0) {
+            n--;
+            buffer[offset + length++] = (byte) (FIRST + n % DIGITS);
+            n /= DIGITS;
+        }
+        return length;
+    }
+
+    /**
+     * Counts the candidate in 'buffer[offset, end)' up by one.
+     *
+     * @return the new end of the candidate
+     */
+    private static int increment(byte[] buffer, int offset, int end) {
+        for (int i = offset; i < end; i++) {
+            if (buffer[i] != LAST) {
+                buffer[i]++;
+                return end;
+            }
+            buffer[i] = FIRST;
+        }
+        buffer[end] = FIRST;
+        return end + 1;
+    }
+
+    private static class Search {
+
+        private final int work;
+        // The hex digits every hash needs to start with
+        private final byte[] prefix;
+        private final double minimumCount;
+
+        private volatile boolean done = false;
+        private final AtomicReference<String> solution = new AtomicReference<>();
+        private final CountDownLatch found = new CountDownLatch(1);
+        private final AtomicLong tries = new AtomicLong();
+
+        private Search(int work) {
+            this.work = work;
+            String w = BaseConversion.toBaseN(work, 8).replace("0", "F") + "0";
+            prefix = new byte[w.length()];
+            for (int i = 0; i < prefix.length; i++) {
+                prefix[i] = (byte) Character.digit(w.charAt(i), 16);
+            }
+            minimumCount = Math.sqrt(work) / 2;
+        }
+
+        /**
+         * The checks of {@link ProveOfWork} on the hex digits of 'hash', the
+         * cheapest first.
+         */
+        private boolean matches(byte[] hash, byte[] nibbles, int[] counts, byte[] buffer, int offset, int end) {
+            for (int i = 0; i < prefix.length; i++) {
+                int b = hash[i >>> 1];
+                int nibble = (i & 1) == 0 ? (b >>> 4) & 15 : b & 15;
+                if (nibble != prefix[i]) {
+                    return false;
+                }
+            }
+
+            for (int i = 0; i < 16; i++) {
+                counts[i] = 0;
+            }
+            for (int i = 0; i < hash.length; i++) {
+                nibbles[2 * i] = (byte) ((hash[i] >>> 4) & 15);
+                nibbles[2 * i + 1] = (byte) (hash[i] & 15);
+                counts[nibbles[2 * i]]++;
+                counts[nibbles[2 * i + 1]]++;
+            }
+            if (counts[0] < 5) {
+                return false;
+            }
+            boolean b = false;
+            for (int count : counts) {
+                if (count > minimumCount) {
+                    b = true;
+                    break;
+                }
+            }
+            if (!b) {
+                return false;
+            }
+
+            // The hex of the chosen character needs to be in the hash exactly once
+            int c = buffer[offset + work % (end - offset)];
+            int high = (c >>> 4) & 15;
+            int low = c & 15;
+            int occurrences = 0;
+            for (int i = 0; i < nibbles.length - 1; i++) {
+                if (nibbles[i] == high && nibbles[i + 1] == low) {
+                    occurrences++;
+                    i++;
+                }
+            }
+            return occurrences == 1;
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,606 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.json;
+
+import yapi.internal.runtimeexceptions.objectnotation.JSONException;
+import yapi.manager.json.value.JSONArray;
+import yapi.manager.json.value.JSONObject;
+import yapi.manager.json.value.JSONValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull parser for JSON. Every call of {@link #next()} reads just enough of
+ * the source for the next token, so a document of any size is read in one
+ * pass with constant memory besides the nesting depth. A JSONReader holds
+ * all of its state itself, many of them can be used at the same time.
+ *
+ * <pre>
+ * try (JSONReader reader = new JSONReader(inputStream)) {
+ *     JSONToken token;
+ *     while ((token = reader.next()) != JSONToken.END_DOCUMENT) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class JSONReader implements Closeable {
+
+    private static final int DOCUMENT_START = 0;
+    private static final int DOCUMENT_END = 1;
+    private static final int OBJECT_EMPTY = 2;
+    private static final int OBJECT_NAME = 3;
+    private static final int OBJECT_VALUE = 4;
+    private static final int ARRAY_EMPTY = 5;
+    private static final int ARRAY_VALUE = 6;
+
+    private static final JSONValue TRUE = new JSONValue(JSONToken.BOOLEAN, "true");
+    private static final JSONValue FALSE = new JSONValue(JSONToken.BOOLEAN, "false");
+    private static final JSONValue NULL = new JSONValue(JSONToken.NULL, "null");
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position = 0;
+    private int limit = 0;
+    private long offset = 0;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+
+    private JSONToken token = null;
+    private final StringBuilder text = new StringBuilder();
+    private boolean escaped = false;
+
+    // Direct mapped cache of the names read so far, repeated keys share one String
+    private final String[] names = new String[256];
+
+    public JSONReader(Reader reader) {
+        this.reader = reader;
+        stack[0] = DOCUMENT_START;
+    }
+
+    public JSONReader(InputStream inputStream) {
+        this(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the current token or null before the first call of {@link #next()}
+     */
+    public JSONToken getToken() {
+        return token;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return how many objects and arrays the current token is nested in
+     */
+    public int getDepth() {
+        return depth - 1;
+    }
+
+    /**
+     * Reads the next token of the document.
+     *
+     * @since Version 2.4
+     *
+     * @return the token, {@link JSONToken#END_DOCUMENT} once the document is done
+     * @throws IOException
+     */
+    public JSONToken next() throws IOException {
+        int c;
+        switch (stack[depth - 1]) {
+            case DOCUMENT_START:
+                stack[depth - 1] = DOCUMENT_END;
+                return readValue(nextNonWhitespace());
+            case DOCUMENT_END:
+                c = nextNonWhitespace();
+                if (c != -1) {
+                    throw unexpected(c);
+                }
+                return setToken(JSONToken.END_DOCUMENT);
+            case OBJECT_EMPTY:
+            case OBJECT_VALUE:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    depth--;
+                    return setToken(JSONToken.END_OBJECT);
+                }
+                if (stack[depth - 1] == OBJECT_VALUE) {
+                    expect(c, ',');
+                    c = nextNonWhitespace();
+                }
+                expect(c, '"');
+                readString();
+                stack[depth - 1] = OBJECT_NAME;
+                return setToken(JSONToken.NAME);
+            case OBJECT_NAME:
+                expect(nextNonWhitespace(), ':');
+                stack[depth - 1] = OBJECT_VALUE;
+                return readValue(nextNonWhitespace());
+            case ARRAY_EMPTY:
+            case ARRAY_VALUE:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    depth--;
+                    return setToken(JSONToken.END_ARRAY);
+                }
+                if (stack[depth - 1] == ARRAY_VALUE) {
+                    expect(c, ',');
+                    c = nextNonWhitespace();
+                }
+                stack[depth - 1] = ARRAY_VALUE;
+                return readValue(c);
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * The text of the current token. Names and strings are returned without
+     * quotes and with their escape sequences resolved, numbers, booleans and
+     * null as they are written in the document.
+     *
+     * @since Version 2.4
+     *
+     * @return the text or null if the token has none
+     */
+    public String getText() {
+        if (token == JSONToken.NAME && !escaped) {
+            return name();
+        }
+        if (token == JSONToken.NAME || token == JSONToken.STRING) {
+            return escaped ? unescape(text) : text.toString();
+        }
+        if (token == JSONToken.NUMBER || token == JSONToken.BOOLEAN || token == JSONToken.NULL) {
+            return text.toString();
+        }
+        return null;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the current boolean
+     */
+    public boolean getBoolean() {
+        if (token != JSONToken.BOOLEAN) {
+            throw new JSONException("Current token is " + token + " not " + JSONToken.BOOLEAN);
+        }
+        return text.charAt(0) == 't';
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the current number
+     */
+    public BigDecimal getNumber() {
+        if (token != JSONToken.NUMBER) {
+            throw new JSONException("Current token is " + token + " not " + JSONToken.NUMBER);
+        }
+        return new BigDecimal(text.toString());
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the current number as an int
+     */
+    public int getInt() {
+        long l = getLong();
+        if ((int) l != l) {
+            throw new JSONException("Number out of int range: " + text);
+        }
+        return (int) l;
+    }
+
+    /**
+     * Reads plain integers straight from the token, only fractions and
+     * exponents go through BigDecimal.
+     *
+     * @since Version 2.4
+     *
+     * @return the current number as a long
+     */
+    public long getLong() {
+        if (token != JSONToken.NUMBER) {
+            throw new JSONException("Current token is " + token + " not " + JSONToken.NUMBER);
+        }
+        int length = text.length();
+        boolean negative = text.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        if (length - i <= 18) {
+            long result = 0;
+            for (; i < length; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                result = result * 10 + digit;
+            }
+            if (i == length) {
+                return negative ? -result : result;
+            }
+        }
+        try {
+            return getNumber().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new JSONException("No exact long value: " + text, e);
+        }
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the current number as a double
+     */
+    public double getDouble() {
+        if (token != JSONToken.NUMBER) {
+            throw new JSONException("Current token is " + token + " not " + JSONToken.NUMBER);
+        }
+        return Double.parseDouble(text.toString());
+    }
+
+    /**
+     * Skips the next value with everything nested in it.
+     *
+     * @since Version 2.4
+     *
+     * @throws IOException
+     */
+    public void skipValue() throws IOException {
+        int target = getDepth();
+        do {
+            next();
+        } while (getDepth() > target);
+    }
+
+    /**
+     * Reads the next value into a {@link JSONObject}, {@link JSONArray} or {@link JSONValue}.
+     *
+     * @since Version 2.4
+     *
+     * @return the value
+     * @throws IOException
+     */
+    public JSONType readValue() throws IOException {
+        return readTree(next());
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the next value, which has to be an object
+     * @throws IOException
+     */
+    public JSONObject readObject() throws IOException {
+        if (next() != JSONToken.START_OBJECT) {
+            throw new JSONException("No JSON Object");
+        }
+        return (JSONObject) readTree(JSONToken.START_OBJECT);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the next value, which has to be an array
+     * @throws IOException
+     */
+    public JSONArray readArray() throws IOException {
+        if (next() != JSONToken.START_ARRAY) {
+            throw new JSONException("No JSON Array");
+        }
+        return (JSONArray) readTree(JSONToken.START_ARRAY);
+    }
+
+    private JSONType readTree(JSONToken current) throws IOException {
+        switch (current) {
+            case START_OBJECT:
+                JSONObject jsonObject = new JSONObject();
+                while (next() == JSONToken.NAME) {
+                    String name = getText();
+                    jsonObject.add(new JSONVariable(name, readTree(next())));
+                }
+                return jsonObject;
+            case START_ARRAY:
+                JSONArray jsonArray = new JSONArray();
+                JSONToken element;
+                while ((element = next()) != JSONToken.END_ARRAY) {
+                    jsonArray.add(readTree(element));
+                }
+                return jsonArray;
+            case STRING:
+                // JSONValue keeps strings as they are written in the document
+                return new JSONValue(current, text.toString());
+            case NUMBER:
+                return new JSONValue(current, text.toString());
+            case BOOLEAN:
+                return text.charAt(0) == 't' ? TRUE : FALSE;
+            case NULL:
+                return NULL;
+            default:
+                throw new JSONException("Expected a value but got " + current);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String name() {
+        int length = text.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int index = (hash ^ (hash >>> 16)) & (names.length - 1);
+        String name = names[index];
+        if (name != null && name.length() == length && contentEquals(name)) {
+            return name;
+        }
+        name = text.toString();
+        names[index] = name;
+        return name;
+    }
+
+    private JSONToken setToken(JSONToken token) {
+        this.token = token;
+        return token;
+    }
+
+    private JSONToken readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                push(OBJECT_EMPTY);
+                return setToken(JSONToken.START_OBJECT);
+            case '[':
+                push(ARRAY_EMPTY);
+                return setToken(JSONToken.START_ARRAY);
+            case '"':
+                readString();
+                return setToken(JSONToken.STRING);
+            case -1:
+                throw unexpected(c);
+            default:
+                if (isDelimiter((char) c)) {
+                    throw unexpected(c);
+                }
+                return setToken(readLiteral(c));
+        }
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth++] = context;
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        escaped = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new JSONException("Unterminated string at position " + offset);
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position++];
+                if (c == '"') {
+                    text.append(buffer, start, position - start - 1);
+                    return;
+                }
+                if (c == '\\') {
+                    escaped = true;
+                    if (position == limit) {
+                        text.append(buffer, start, position - start);
+                        if (!fill()) {
+                            throw new JSONException("Unterminated string at position " + offset);
+                        }
+                        start = position;
+                    }
+                    position++;
+                }
+            }
+            text.append(buffer, start, position - start);
+        }
+    }
+
+    private JSONToken readLiteral(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if (isDelimiter(c)) {
+                break;
+            }
+            text.append(c);
+            position++;
+        }
+        if (contentEquals("true") || contentEquals("false")) {
+            return JSONToken.BOOLEAN;
+        }
+        if (contentEquals("null")) {
+            return JSONToken.NULL;
+        }
+        if (isNumber(text)) {
+            return JSONToken.NUMBER;
+        }
+        throw new JSONException("Unexpected value '" + text + "' at position " + (offset + position - text.length()));
+    }
+
+    private boolean contentEquals(String s) {
+        if (text.length() != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(char c) {
+        switch (c) {
+            case ',':
+            case ':':
+            case '}':
+            case ']':
+            case '{':
+            case '[':
+            case '"':
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isNumber(CharSequence s) {
+        int i = 0;
+        int length = s.length();
+        if (i < length && s.charAt(i) == '-') {
+            i++;
+        }
+        int digits = i;
+        while (i < length && Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == digits || (s.charAt(digits) == '0' && i - digits > 1)) {
+            return false;
+        }
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            digits = i;
+            while (i < length && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            digits = i;
+            while (i < length && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == digits) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    static String unescape(CharSequence s) {
+        StringBuilder st = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '\\') {
+                st.append(c);
+                continue;
+            }
+            if (++i >= s.length()) {
+                throw new JSONException("Malformed escape sequence");
+            }
+            c = s.charAt(i);
+            switch (c) {
+                case 'b':
+                    st.append('\b');
+                    break;
+                case 'f':
+                    st.append('\f');
+                    break;
+                case 'n':
+                    st.append('\n');
+                    break;
+                case 'r':
+                    st.append('\r');
+                    break;
+                case 't':
+                    st.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= s.length()) {
+                        throw new JSONException("Malformed escape sequence");
+                    }
+                    try {
+                        st.append((char) Integer.parseInt(s.subSequence(i + 1, i + 5).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw new JSONException("Malformed escape sequence", e);
+                    }
+                    i += 4;
+                    break;
+                default:
+                    st.append(c);
+                    break;
+            }
+        }
+        return st.toString();
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    private void expect(int c, char expected) {
+        if (c != expected) {
+            throw new JSONException("Expected '" + expected + "' but got " + describe(c) + " at position " + (offset + position - 1));
+        }
+    }
+
+    private JSONException unexpected(int c) {
+        return new JSONException("Unexpected " + describe(c) + " at position " + (offset + position - 1));
+    }
+
+    private static String describe(int c) {
+        return c == -1 ? "end of document" : "'" + (char) c + "'";
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) == 0) {
+            // Readers may return 0, try again until there is something or the end
+        }
+        if (read == -1) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.json;
+
+public enum JSONToken {
+
+    // '{'
+    START_OBJECT,
+    // '}'
+    END_OBJECT,
+    // '['
+    START_ARRAY,
+    // ']'
+    END_ARRAY,
+    // The key of an object entry, the value follows as the next token
+    NAME,
+    // A string value
+    STRING,
+    // A number value
+    NUMBER,
+    // 'true' or 'false'
+    BOOLEAN,
+    // 'null'
+    NULL,
+    // Nothing left to read
+    END_DOCUMENT
+
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.json;
+
+import yapi.internal.runtimeexceptions.objectnotation.JSONException;
+import yapi.manager.json.value.JSONArray;
+import yapi.manager.json.value.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming counterpart of {@link JSONReader}. Everything is written to the
+ * underlying Writer right away, the JSONWriter only remembers the nesting
+ * to place the ',' and ':' and to reject malformed documents.
+ *
+ * <pre>
+ * try (JSONWriter writer = new JSONWriter(outputStream)) {
+ *     writer.beginObject().name("size").value(2).name("values").beginArray().value("a").value("b").endArray().endObject();
+ * }
+ * </pre>
+ */
+public class JSONWriter implements Closeable, Flushable {
+
+    private static final int DOCUMENT_START = 0;
+    private static final int DOCUMENT_END = 1;
+    private static final int OBJECT_EMPTY = 2;
+    private static final int OBJECT_NAME = 3;
+    private static final int OBJECT_VALUE = 4;
+    private static final int ARRAY_EMPTY = 5;
+    private static final int ARRAY_VALUE = 6;
+
+    private static final String[] ESCAPES = new String[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = String.format("\\u%04x", i);
+        }
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\t'] = "\\t";
+    }
+
+    private final Writer writer;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+
+    public JSONWriter(Writer writer) {
+        this.writer = writer;
+        stack[0] = DOCUMENT_START;
+    }
+
+    public JSONWriter(OutputStream outputStream) {
+        this(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+    }
+
+    public JSONWriter beginObject() throws IOException {
+        beforeValue();
+        push(OBJECT_EMPTY);
+        writer.write('{');
+        return this;
+    }
+
+    public JSONWriter endObject() throws IOException {
+        int context = stack[depth - 1];
+        if (context != OBJECT_EMPTY && context != OBJECT_VALUE) {
+            throw new JSONException("Not in an object or missing value");
+        }
+        depth--;
+        writer.write('}');
+        return this;
+    }
+
+    public JSONWriter beginArray() throws IOException {
+        beforeValue();
+        push(ARRAY_EMPTY);
+        writer.write('[');
+        return this;
+    }
+
+    public JSONWriter endArray() throws IOException {
+        int context = stack[depth - 1];
+        if (context != ARRAY_EMPTY && context != ARRAY_VALUE) {
+            throw new JSONException("Not in an array");
+        }
+        depth--;
+        writer.write(']');
+        return this;
+    }
+
+    public JSONWriter name(String name) throws IOException {
+        int context = stack[depth - 1];
+        if (context == OBJECT_VALUE) {
+            writer.write(',');
+        } else if (context != OBJECT_EMPTY) {
+            throw new JSONException("Names are only allowed in an object and before a value");
+        }
+        stack[depth - 1] = OBJECT_NAME;
+        writeString(name);
+        writer.write(':');
+        return this;
+    }
+
+    public JSONWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JSONWriter value(boolean value) throws IOException {
+        beforeValue();
+        writer.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JSONWriter value(long value) throws IOException {
+        beforeValue();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    public JSONWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new JSONException("JSON has no representation for " + value);
+        }
+        beforeValue();
+        writer.write(Double.toString(value));
+        return this;
+    }
+
+    public JSONWriter value(BigDecimal value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writer.write(value.toString());
+        return this;
+    }
+
+    public JSONWriter nullValue() throws IOException {
+        beforeValue();
+        writer.write("null");
+        return this;
+    }
+
+    /**
+     * Writes a parsed or built value with everything nested in it.
+     *
+     * @since Version 2.4
+     *
+     * @param jsonType
+     * @return
+     * @throws IOException
+     */
+    public JSONWriter value(JSONType jsonType) throws IOException {
+        if (jsonType == null) {
+            return nullValue();
+        }
+        if (jsonType instanceof JSONObject) {
+            beginObject();
+            for (JSONVariable jsonVariable : ((JSONObject) jsonType).getVariables()) {
+                name(jsonVariable.getName());
+                value(jsonVariable.getJsonType());
+            }
+            return endObject();
+        }
+        if (jsonType instanceof JSONArray) {
+            JSONArray jsonArray = (JSONArray) jsonType;
+            beginArray();
+            for (int i = 0; i < jsonArray.size(); i++) {
+                value(jsonArray.get(i));
+            }
+            return endArray();
+        }
+        // JSONValue already prints itself as JSON
+        beforeValue();
+        writer.write(jsonType.toString());
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        if (depth > 1 || stack[0] != DOCUMENT_END) {
+            throw new JSONException("Incomplete document");
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        switch (stack[depth - 1]) {
+            case DOCUMENT_START:
+                stack[depth - 1] = DOCUMENT_END;
+                break;
+            case OBJECT_NAME:
+                stack[depth - 1] = OBJECT_VALUE;
+                break;
+            case ARRAY_EMPTY:
+                stack[depth - 1] = ARRAY_VALUE;
+                break;
+            case ARRAY_VALUE:
+                writer.write(',');
+                break;
+            case DOCUMENT_END:
+                throw new JSONException("A document can only have one top level value");
+            default:
+                throw new JSONException("A value in an object needs a name first");
+        }
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth++] = context;
+    }
+
+    private void writeString(String s) throws IOException {
+        writer.write('"');
+        int last = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            String escape;
+            if (c < 128) {
+                escape = ESCAPES[c];
+                if (escape == null) {
+                    continue;
+                }
+            } else if (c == '\u2028') {
+                escape = "\\u2028";
+            } else if (c == '\u2029') {
+                escape = "\\u2029";
+            } else {
+                continue;
+            }
+            if (last < i) {
+                writer.write(s, last, i - last);
+            }
+            writer.write(escape);
+            last = i + 1;
+        }
+        if (last < length) {
+            writer.write(s, last, length - last);
+        }
+        writer.write('"');
+    }
+
+}
\ No newline at end of file
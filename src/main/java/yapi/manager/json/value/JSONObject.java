@@ -8,6 +8,7 @@ import yapi.manager.json.JSONType;
 import yapi.manager.json.JSONVariable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class JSONObject extends JSONType {
@@ -22,6 +23,15 @@ public class JSONObject extends JSONType {
         return keys;
     }
 
+    /**
+     * @since Version 2.4
+     *
+     * @return every variable in the order they were added
+     */
+    public List<JSONVariable> getVariables() {
+        return Collections.unmodifiableList(jsonVariables);
+    }
+
     public JSONVariable getVariable(String key) {
         for (JSONVariable jsonVariable : jsonVariables) {
             if (jsonVariable.getName().equals(key)) {
@@ -4,47 +4,104 @@
 
 package yapi.manager.json.value;
 
+import yapi.internal.runtimeexceptions.objectnotation.JSONException;
+import yapi.manager.json.JSONToken;
 import yapi.manager.json.JSONType;
 
 import java.math.BigDecimal;
 
+/**
+ * A JSON scalar. Only the text of the value is kept, what kind of value it
+ * is gets decided on the first access and numbers are only turned into a
+ * BigDecimal when {@link #getNumber()} asks for one. {@link #getInt()},
+ * {@link #getLong()} and {@link #getDouble()} read the text directly.
+ */
 public class JSONValue extends JSONType {
 
-    private boolean isNull    = false;
-    private boolean isBoolean = false;
-    private boolean isNumber  = false;
-    private boolean isString  = false;
+    private static final int UNCLASSIFIED = -1;
+    private static final int UNKNOWN = 0;
+    private static final int NULL = 1;
+    private static final int BOOLEAN = 2;
+    private static final int NUMBER = 3;
+    private static final int STRING = 4;
 
-    private Object  value     = null;
+    // The value as written, strings with their quotes
+    private final String raw;
+    private int kind;
+
+    private BigDecimal number = null;
 
     public JSONValue(String input) {
+        this.raw = input;
+        this.kind = UNCLASSIFIED;
+    }
+
+    /**
+     * Creates a value the kind of which is already known, like it is while
+     * parsing. A string is given without its quotes but as it is written,
+     * escape sequences included.
+     *
+     * @since Version 2.4
+     *
+     * @param token
+     * @param text
+     */
+    public JSONValue(JSONToken token, String text) {
+        switch (token) {
+            case STRING:
+                this.raw = "\"" + text + "\"";
+                this.kind = STRING;
+                break;
+            case NUMBER:
+                this.raw = text;
+                this.kind = NUMBER;
+                break;
+            case BOOLEAN:
+                this.raw = text;
+                this.kind = BOOLEAN;
+                break;
+            case NULL:
+                this.raw = "null";
+                this.kind = NULL;
+                break;
+            default:
+                throw new JSONException(token + " is no JSONValue");
+        }
+    }
+
+    private int kind() {
+        int current = kind;
+        if (current == UNCLASSIFIED) {
+            current = classify(raw);
+            kind = current;
+        }
+        return current;
+    }
+
+    private static int classify(String input) {
+        if (input.length() >= 2 && input.startsWith("\"") && input.endsWith("\"")) {
+            return STRING;
+        }
         if (input.equals("true") || input.equals("false")) {
-            isBoolean = true;
-            value = input.equals("true");
+            return BOOLEAN;
         }
         if (input.equals("null")) {
-            isNull = true;
-            value = null;
-        }
-        if (input.startsWith("\"") && input.endsWith("\"")) {
-            isString = true;
-            value = input.substring(1, input.length() - 1);
+            return NULL;
         }
         try {
-            BigDecimal bigDecimal = new BigDecimal(input);
-            isNumber = true;
-            value = bigDecimal;
+            new BigDecimal(input);
+            return NUMBER;
         } catch (NumberFormatException e) {
-
+            return UNKNOWN;
         }
     }
 
     public boolean isUnknown() {
-        return !isNull && !isBoolean && !isNumber && !isString;
+        return kind() == UNKNOWN;
     }
 
     public boolean isNull() {
-        return isNull;
+        return kind() == NULL;
     }
 
     public Object getNull() {
@@ -52,36 +109,106 @@ public class JSONValue extends JSONType {
     }
 
     public boolean isBoolean() {
-        return isBoolean;
+        return kind() == BOOLEAN;
     }
 
     public Boolean getBoolean() {
-        if (isBoolean) {
-            return (boolean) value;
+        if (kind() == BOOLEAN) {
+            return raw.equals("true");
         } else {
             return null;
         }
     }
 
     public boolean isNumber() {
-        return isNumber;
+        return kind() == NUMBER;
     }
 
     public BigDecimal getNumber() {
-        if (isNumber) {
-            return (BigDecimal)value;
-        } else {
+        if (kind() != NUMBER) {
             return null;
         }
+        BigDecimal current = number;
+        if (current == null) {
+            current = new BigDecimal(raw);
+            number = current;
+        }
+        return current;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the number as an int
+     * @throws JSONException if this is no number or it has no exact int value
+     */
+    public int getInt() {
+        long l = getLong();
+        if ((int) l != l) {
+            throw new JSONException("Number out of int range: " + raw);
+        }
+        return (int) l;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the number as a long
+     * @throws JSONException if this is no number or it has no exact long value
+     */
+    public long getLong() {
+        requireNumber();
+        int length = raw.length();
+        int i = 0;
+        boolean negative = raw.charAt(0) == '-';
+        if (negative || raw.charAt(0) == '+') {
+            i++;
+        }
+        // Plain integers up to 18 digits can't overflow, everything else goes through BigDecimal
+        if (length - i > 0 && length - i <= 18) {
+            long result = 0;
+            for (; i < length; i++) {
+                int digit = raw.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                result = result * 10 + digit;
+            }
+            if (i == length) {
+                return negative ? -result : result;
+            }
+        }
+        try {
+            return getNumber().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new JSONException("No exact long value: " + raw, e);
+        }
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the number as a double
+     * @throws JSONException if this is no number
+     */
+    public double getDouble() {
+        requireNumber();
+        return Double.parseDouble(raw);
+    }
+
+    private void requireNumber() {
+        if (kind() != NUMBER) {
+            throw new JSONException("No JSON Number: " + raw);
+        }
     }
 
     public boolean isString() {
-        return isString;
+        return kind() == STRING;
     }
 
     public String getString() {
-        if (isString) {
-            return (String)value;
+        if (kind() == STRING) {
+            return raw.substring(1, raw.length() - 1);
         } else {
             return null;
         }
@@ -89,16 +216,14 @@ public class JSONValue extends JSONType {
 
     @Override
     public String toString() {
-        if (isNull) {
-            return "null";
-        } else if (isBoolean) {
-            return value.toString();
-        } else if (isString) {
-            return "\"" + value.toString() + "\"";
-        } else if (isNumber) {
-            return value.toString();
-        } else {
-            return "null";
+        switch (kind()) {
+            case BOOLEAN:
+            case STRING:
+                return raw;
+            case NUMBER:
+                return getNumber().toString();
+            default:
+                return "null";
         }
     }
 
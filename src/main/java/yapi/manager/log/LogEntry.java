@@ -6,20 +6,35 @@ package yapi.manager.log;
 
 import yapi.math.base.BaseConversion;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAccessor;
 
 public class LogEntry {
 
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // The last formatted second, entries of the same second share the String
+    private static volatile FormattedSecond lastTime = new FormattedSecond(-1, "");
+
+    private static final class FormattedSecond {
+        private final long second;
+        private final String timeString;
+
+        private FormattedSecond(long second, String timeString) {
+            this.second = second;
+            this.timeString = timeString;
+        }
+    }
+
     private LogUUID uuid;
     private int id;
     private String name = "";
 
     private String content;
 
-    private String timeString = DateTimeFormatter.ofPattern("HH:mm:ss").format(LocalDateTime.now());
-    private long timeLong = System.currentTimeMillis();
+    private final long timeLong = System.currentTimeMillis();
 
     public LogEntry(LogUUID uuid, int id, String content) {
         this.uuid = uuid;
@@ -55,8 +70,27 @@ public class LogEntry {
         return timeLong;
     }
 
+    /**
+     * The time is only formatted when the entry is printed.
+     *
+     * @since Version 2.4
+     *
+     * @return the time as 'HH:mm:ss'
+     */
+    public String getTimeString() {
+        long second = timeLong / 1000;
+        FormattedSecond cached = lastTime;
+        if (cached.second == second) {
+            return cached.timeString;
+        }
+        String timeString = TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(timeLong), ZoneId.systemDefault()));
+        lastTime = new FormattedSecond(second, timeString);
+        return timeString;
+    }
+
     @Override
     public String toString() {
+        String timeString = getTimeString();
         String uuid = " [" + getUUIDString() + "] ";
         if (!content.contains("\n")) {
             return timeString + uuid + content;
@@ -8,7 +8,9 @@ import yapi.file.FileUtils;
 import yapi.math.NumberRandom;
 import yapi.math.base.BaseConversion;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigInteger;
@@ -47,6 +49,10 @@ public class LogManager {
     private static String fileName = "";
     private static PrintStream printStream = null;
 
+    private static int bufferSize = 8192;
+    private static LogOverflowPolicy overflowPolicy = LogOverflowPolicy.BLOCK;
+    private static volatile LogWriter logWriter = null;
+
     private static Logging logging = new Logging("LogManager", 0);
 
     private LogManager() {
@@ -71,11 +77,69 @@ public class LogManager {
         File logFile = new File(logPackage + "/" + fileName + ".log");
         try {
             logFile.createNewFile();
-            printStream = new PrintStream(logFile);
+            printStream = new PrintStream(new BufferedOutputStream(new FileOutputStream(logFile), 65536), false);
             //printStream.println("[R] GLog > '" + logPackage + "'");
         } catch (IOException e) {
+            return;
+        }
+        LogWriter writer = new LogWriter(printStream, bufferSize, overflowPolicy);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "Log Writer Shutdown"));
+        logWriter = writer;
+    }
+
+    /**
+     * Sets how many entries can wait for the log writer, rounded up to a power
+     * of two. Has to be called before the first entry is written.
+     *
+     * @since Version 2.4
+     *
+     * @param bufferSize
+     */
+    public static synchronized void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize needs to be positive");
+        }
+        if (logWriter != null) {
+            throw new IllegalStateException("The log writer is already running");
+        }
+        LogManager.bufferSize = bufferSize;
+    }
 
+    /**
+     * Sets what happens to an entry when the buffer of the log writer is full.
+     * Has to be called before the first entry is written.
+     *
+     * @since Version 2.4
+     *
+     * @param overflowPolicy
+     */
+    public static synchronized void setOverflowPolicy(LogOverflowPolicy overflowPolicy) {
+        if (logWriter != null) {
+            throw new IllegalStateException("The log writer is already running");
         }
+        LogManager.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Waits until every entry logged so far is written to the log file.
+     *
+     * @since Version 2.4
+     */
+    public static void flush() {
+        LogWriter writer = logWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return how many entries were dropped because the buffer was full
+     */
+    public static long getDroppedEntries() {
+        LogWriter writer = logWriter;
+        return writer == null ? 0 : writer.droppedEntries();
     }
 
     public static void setAllowLogDefault() {
@@ -121,15 +185,23 @@ public class LogManager {
         loggingMap.put(uuid.toString(), logging);
     }
 
-    static synchronized void add(LogEntry... entries) {
+    static void add(LogEntry... entries) {
         if (logPackage == null) {
             return;
         }
-        openLog();
+        LogWriter writer = logWriter;
+        if (writer == null) {
+            synchronized (LogManager.class) {
+                openLog();
+                writer = logWriter;
+            }
+            if (writer == null) {
+                return;
+            }
+        }
         for (LogEntry entry : entries) {
-            printStream.println(entry.toString());
+            writer.add(entry);
         }
-        printStream.flush();
     }
 
     private static String fileName() {
@@ -0,0 +1,14 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.log;
+
+public enum LogOverflowPolicy {
+
+    // Entries that don't fit are counted and dropped, logging never waits
+    DROP,
+    // Logging waits until the writer made room for the entry
+    BLOCK
+
+}
\ No newline at end of file
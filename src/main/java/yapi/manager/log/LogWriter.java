@@ -0,0 +1,166 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.log;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the log file in the background. Logging threads put their entries
+ * into a bounded lock free ring buffer, every slot carries a sequence number
+ * that tells whether it is free or filled. One writer thread takes them out
+ * in order, formats them and flushes the PrintStream once per batch.
+ */
+final class LogWriter implements Runnable {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_TIME = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_TIME = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final PrintStream printStream;
+    private final LogOverflowPolicy policy;
+
+    private final LogEntry[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong droppedTotal = new AtomicLong();
+
+    private final Thread thread;
+    private volatile boolean sleeping = false;
+    private volatile boolean closed = false;
+
+    LogWriter(PrintStream printStream, int bufferSize, LogOverflowPolicy policy) {
+        this.printStream = printStream;
+        this.policy = policy;
+
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        entries = new LogEntry[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+
+        thread = new Thread(this, "Log Writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void add(LogEntry entry) {
+        while (!offer(entry)) {
+            if (closed) {
+                return;
+            }
+            if (policy == LogOverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                droppedTotal.incrementAndGet();
+                return;
+            }
+            wake();
+            LockSupport.parkNanos(this, BLOCK_TIME);
+        }
+        if (sleeping) {
+            wake();
+        }
+    }
+
+    private boolean offer(LogEntry entry) {
+        while (true) {
+            long current = tail.get();
+            int index = (int) (current & mask);
+            long sequence = sequences.get(index);
+            if (sequence < current) {
+                // The writer has not emptied this slot yet, the buffer is full
+                return false;
+            }
+            if (sequence == current && tail.compareAndSet(current, current + 1)) {
+                entries[index] = entry;
+                sequences.set(index, current + 1);
+                return true;
+            }
+        }
+    }
+
+    private void wake() {
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            if (drain() > 0) {
+                continue;
+            }
+            if (closed && head == tail.get()) {
+                return;
+            }
+            sleeping = true;
+            if (head == tail.get() && !closed) {
+                LockSupport.parkNanos(this, IDLE_TIME);
+            }
+            sleeping = false;
+        }
+    }
+
+    private int drain() {
+        long current = head;
+        int count = 0;
+        while (count < BATCH_SIZE) {
+            int index = (int) (current & mask);
+            if (sequences.get(index) != current + 1) {
+                break;
+            }
+            LogEntry entry = entries[index];
+            entries[index] = null;
+            sequences.set(index, current + mask + 1);
+            current++;
+            count++;
+            printStream.println(entry.toString());
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            printStream.println("[LogWriter] Dropped " + lost + " entries, the buffer was full");
+        }
+        if (count > 0 || lost > 0) {
+            printStream.flush();
+            head = current;
+        }
+        return count;
+    }
+
+    /**
+     * Waits until everything added before this call is written and flushed.
+     */
+    void flush() {
+        long target = tail.get();
+        while (head < target && thread.isAlive()) {
+            wake();
+            LockSupport.parkNanos(this, BLOCK_TIME);
+        }
+    }
+
+    void close() {
+        closed = true;
+        wake();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        printStream.flush();
+    }
+
+    long droppedEntries() {
+        return droppedTotal.get();
+    }
+
+}
\ No newline at end of file
@@ -4,15 +4,16 @@
 
 package yapi.manager.log;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Logging {
 
     private LogUUID uuid;
     private String name = ".".repeat(20);
-    private List<LogEntry> log = new CopyOnWriteArrayList<>();
-    private int id = 0;
+    // The last 10000 entries, entry 'id' is at 'id % 10000', a long so the slot never goes negative
+    private final AtomicReferenceArray<LogEntry> log = new AtomicReferenceArray<>(10000);
+    private final AtomicLong id = new AtomicLong();
 
     public Logging() {
         uuid = LogManager.createUUID();
@@ -48,46 +49,49 @@ public class Logging {
         return name;
     }
 
-    public synchronized void add(String logEntry) {
-        add(new LogEntry(uuid, name, id, logEntry));
+    public void add(String logEntry) {
+        append(logEntry);
     }
 
-    public synchronized void add(StringBuilder logEntry) {
-        add(new LogEntry(uuid, name, id, logEntry.toString()));
+    public void add(StringBuilder logEntry) {
+        append(logEntry.toString());
     }
 
-    public synchronized void add(Object logEntry) {
-        add(new LogEntry(uuid, name, id, logEntry.toString()));
+    public void add(Object logEntry) {
+        append(logEntry.toString());
     }
 
-    private void add(LogEntry entry) {
-        id++;
-        log.add(entry);
-        if (log.size() > 10000) {
-            log.remove(0);
-        }
+    private void append(String content) {
+        long entryId = id.getAndIncrement();
+        LogEntry entry = new LogEntry(uuid, name, (int) entryId, content);
+        log.set((int) (entryId % log.length()), entry);
         LogManager.add(entry);
     }
 
-    synchronized String getLog(int index) {
+    String getLog(int index) {
         if (true) {
             return "";
         }
-        if (index >= log.size()) {
+        long size = id.get();
+        long first = Math.max(index, size - log.length());
+        if (first >= size) {
             return "";
         }
         StringBuilder st = new StringBuilder();
-        for (int i = index; i < log.size(); i++) {
-            if (i != index) {
+        for (long i = first; i < size; i++) {
+            if (i != first) {
                 st.append("\n");
             }
-            st.append(log.get(i));
+            st.append(log.get((int) (i % log.length())));
         }
         return st.toString();
     }
 
-    public synchronized int size() {
-        return id;
+    /**
+     * @return the number of entries added, wraps around like the entry ids
+     */
+    public int size() {
+        return (int) id.get();
     }
 
 }
\ No newline at end of file
@@ -4,12 +4,12 @@
 
 package yapi.manager.resource;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class LoadingQueue {
 
-    private List<QueueEntry> queueEntries = new CopyOnWriteArrayList<>();
+    private Queue<QueueEntry> queueEntries = new ConcurrentLinkedQueue<>();
 
     /**
      *
@@ -43,7 +43,7 @@ public class LoadingQueue {
     }
 
     QueueEntry next() {
-        return queueEntries.remove(0);
+        return queueEntries.remove();
     }
 
 }
\ No newline at end of file
@@ -5,6 +5,8 @@
 package yapi.manager.resource;
 
 import yapi.manager.log.Logging;
+import yapi.manager.worker.WorkerPool;
+import yapi.manager.worker.WorkerPoolMode;
 import yapi.runtime.ThreadUtils;
 
 import javax.imageio.ImageIO;
@@ -18,13 +20,32 @@ public class ResourceManager {
     private Map<String, BufferedImage> imageMap = new ConcurrentHashMap<>();
     private Map<String, byte[]> byteMap = new ConcurrentHashMap<>();
 
-    private List<String> loading = new ArrayList<>();
+    private Set<String> loading = ConcurrentHashMap.newKeySet();
 
     private Logging log = new Logging("Resource Manager");
 
     private static ThreadGroup threadGroup = new ThreadGroup(ThreadUtils.yapiGroup, "Resource Manager");
     private ThreadGroup threadGroupCurrent = threadGroup;
 
+    private WorkerPool workerPool = null;
+
+    public ResourceManager() {
+
+    }
+
+    /**
+     * Runs every {@link #loadAsync(String, String)} as a task on virtual threads
+     * instead of starting a new platform thread per resource.
+     *
+     * @since Version 2.4
+     *
+     * @param concurrentLoads how many resources are loaded at the same time
+     */
+    public ResourceManager(int concurrentLoads) {
+        workerPool = new WorkerPool(concurrentLoads, concurrentLoads, WorkerPoolMode.VIRTUAL_THREADS);
+        workerPool.setName("Resource Manager");
+    }
+
     /**
      *
      * @since Version 1.1
@@ -71,10 +92,9 @@ public class ResourceManager {
      * @param name
      */
     private void load(String path, String name) {
-        if (loading.contains(name)) {
+        if (!loading.add(name)) {
             return;
         }
-        loading.add(name);
         log.add("Loading from Resource '" + path + "' with name '" + name + "'");
 
         if (!path.startsWith("/")) {
@@ -102,6 +122,10 @@ public class ResourceManager {
      * @param name
      */
     public void loadAsync(String path, String name) {
+        if (workerPool != null) {
+            workerPool.work(() -> load(path, name));
+            return;
+        }
         Runnable r = () -> load(path, name);
         Thread t = new Thread(threadGroupCurrent, r);
         t.setName("ResourceManager: Load > " + name);
@@ -0,0 +1,54 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.concurrent.Callable;
+
+class CallableTask<T> extends Task {
+
+    private final Callable<T> callable;
+    private final TaskFuture<T> future;
+
+    CallableTask(WorkerPool workerPool, Callable<T> callable) {
+        this.callable = callable;
+        this.future = new TaskFuture<>(workerPool, this);
+    }
+
+    TaskFuture<T> getFuture() {
+        return future;
+    }
+
+    @Override
+    public void run() {
+        if (future.isDone()) {
+            // Cancelled before a Worker picked it up
+            return;
+        }
+        try {
+            future.complete(callable.call());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } catch (Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    void discard() {
+        future.cancel(false);
+    }
+
+    @Override
+    boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    @Override
+    boolean isFailed() {
+        return future.isCompletedExceptionally() && !future.isCancelled();
+    }
+
+}
\ No newline at end of file
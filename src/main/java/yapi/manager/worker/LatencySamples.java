@@ -0,0 +1,47 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The last {@link #SIZE} durations in nanoseconds. Recording is a single
+ * increment and store, the percentiles are only computed for a snapshot.
+ */
+final class LatencySamples {
+
+    static final int SIZE = 1024;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+
+    void add(long nanos) {
+        samples.lazySet((int) (count.getAndIncrement() & (SIZE - 1)), nanos);
+    }
+
+    /**
+     * @return the sorted samples, empty if nothing was recorded yet
+     */
+    long[] snapshot() {
+        int size = (int) Math.min(count.get(), SIZE);
+        long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = samples.get(i);
+        }
+        Arrays.sort(snapshot);
+        return snapshot;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how many Workers the 'Task Manager' thread adds or freezes. The
+ * pool grows as soon as tasks queue up behind busy Workers, at most doubling
+ * per step, and shrinks by one idle Worker at a time once the utilization
+ * stayed low for a while. Only used by the Task Manager thread, so only
+ * {@link WorkerPoolMode#DISPATCHER} sizes itself this way. WORK_STEALING adds
+ * a Worker when no idle one takes a task and VIRTUAL_THREADS only caps the
+ * running tasks at maxWorkers.
+ */
+final class PoolController {
+
+    // Average time tasks may wait for a Worker before the pool grows
+    private static final long GROW_WAIT = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long GROW_COOLDOWN = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SHRINK_COOLDOWN = TimeUnit.SECONDS.toNanos(1);
+    private static final double SHRINK_UTILIZATION = 0.5;
+
+    // Weight of the newest sample in the moving averages
+    private static final double ALPHA = 0.2;
+
+    private final int minWorkers;
+    private final int maxWorkers;
+
+    private double waitAverage = 0;
+    private double utilization = 1;
+    private long lastAssigned = System.nanoTime();
+    private long lastResize = System.nanoTime();
+
+    PoolController(int minWorkers, int maxWorkers) {
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+    }
+
+    void assigned(long waitNanos, long now) {
+        waitAverage += ALPHA * (waitNanos - waitAverage);
+        lastAssigned = now;
+    }
+
+    /**
+     * @param queued
+     * @param workers
+     * @param idle
+     * @param now
+     * @return the Workers to add, or -1 to freeze one idle Worker
+     */
+    int evaluate(int queued, int workers, int idle, long now) {
+        double busy = workers == 0 ? 1 : (workers - idle) / (double) workers;
+        utilization += ALPHA * (busy - utilization);
+
+        int backlog = queued - idle;
+        if (backlog > 0 && workers < maxWorkers && now - lastResize >= GROW_COOLDOWN) {
+            if (queued >= workers || waitAverage > GROW_WAIT || now - lastAssigned > GROW_WAIT) {
+                lastResize = now;
+                return Math.min(maxWorkers - workers, Math.max(1, Math.min(backlog, workers)));
+            }
+        }
+        if (queued == 0 && idle > 0 && workers > minWorkers && utilization < SHRINK_UTILIZATION && now - lastResize >= SHRINK_COOLDOWN) {
+            lastResize = now;
+            return -1;
+        }
+        return 0;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+public class StealingWorker extends Thread {
+
+    static final int RUNNING = 0;
+    static final int FROZEN = 1;
+    static final int DELETED = 2;
+
+    final WorkStealingScheduler scheduler;
+
+    private final Deque<Task> deque = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean idle = new AtomicBoolean(false);
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private volatile long frozenSince = 0;
+
+    StealingWorker(ThreadGroup threadGroup, WorkStealingScheduler scheduler) {
+        super(threadGroup, "");
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public final void run() {
+        scheduler.runWorker(this);
+    }
+
+    /**
+     * @return false if this Worker got deleted, the task is not queued then
+     */
+    final boolean push(Task task) {
+        deque.offerLast(task);
+        // The deleting Worker drains its deque after the state flip, so a task it missed is still here
+        return state.get() != DELETED || !deque.removeLastOccurrence(task);
+    }
+
+    final Task poll() {
+        return deque.pollFirst();
+    }
+
+    final Task steal() {
+        return deque.pollLast();
+    }
+
+    final boolean hasTasks() {
+        return !deque.isEmpty();
+    }
+
+    final int queued() {
+        return deque.size();
+    }
+
+    final void markIdle() {
+        idle.set(true);
+    }
+
+    final boolean isIdle() {
+        return idle.get();
+    }
+
+    final boolean clearIdle() {
+        return idle.compareAndSet(true, false);
+    }
+
+    /**
+     * Claims this Worker if it is parked and waiting for work.
+     *
+     * @return true if this call woke the Worker up
+     */
+    final boolean wake() {
+        if (!clearIdle()) {
+            return false;
+        }
+        LockSupport.unpark(this);
+        return true;
+    }
+
+    final int state() {
+        return state.get();
+    }
+
+    final void freeze() {
+        frozenSince = System.currentTimeMillis();
+        state.set(FROZEN);
+    }
+
+    final boolean unfreeze() {
+        if (!state.compareAndSet(FROZEN, RUNNING)) {
+            return false;
+        }
+        LockSupport.unpark(this);
+        return true;
+    }
+
+    final boolean delete() {
+        return state.compareAndSet(FROZEN, DELETED);
+    }
+
+    final long frozenTime() {
+        return System.currentTimeMillis() - frozenSince;
+    }
+
+    @Override
+    public String toString() {
+        return "StealingWorker{" +
+                getName() +
+                ", queued=" + deque.size() +
+                ", idle=" + idle.get() +
+                '}';
+    }
+}
\ No newline at end of file
@@ -17,9 +17,31 @@ public class Task implements TaskRunnable {
     }
 
     private long taskID = 0;
+    private long queuedTime = 0;
 
     final void setTaskID(long id) {
         taskID = id;
+        queuedTime = System.nanoTime();
+    }
+
+    final long getQueuedTime() {
+        return queuedTime;
+    }
+
+    boolean isFailed() {
+        return false;
+    }
+
+    boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Called for a task that was still queued when the WorkerPool closed
+     * and will never run.
+     */
+    void discard() {
+
     }
 
     /**
@@ -0,0 +1,64 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Handle for a task submitted with {@link WorkerPool#submit}. Dependent
+ * stages created with the '*Async' methods without an explicit Executor
+ * run on the same WorkerPool.
+ */
+public class TaskFuture<T> extends CompletableFuture<T> {
+
+    private final WorkerPool workerPool;
+    private final Task task;
+
+    TaskFuture(WorkerPool workerPool, Task task) {
+        this.workerPool = workerPool;
+        this.task = task;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return the id the WorkerPool gave the task, 0 for dependent stages
+     */
+    public final long getTaskID() {
+        return task == null ? 0 : task.getTaskID();
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return
+     */
+    public final long getID() {
+        return getTaskID();
+    }
+
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return workerPool;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new TaskFuture<>(workerPool, null);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskFuture{" +
+                "taskID=" + getTaskID() +
+                ", " + super.toString() +
+                '}';
+    }
+}
\ No newline at end of file
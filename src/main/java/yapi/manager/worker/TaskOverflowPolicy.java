@@ -0,0 +1,20 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+/**
+ * What {@link WorkerPool#setQueueCapacity(int, TaskOverflowPolicy)} does with
+ * tasks that don't fit, only {@link WorkerPoolMode#DISPATCHER} has a bounded queue.
+ */
+public enum TaskOverflowPolicy {
+
+    // Tasks that don't fit are rejected, like on a closed WorkerPool
+    REJECT,
+    // The submitting thread runs the task itself, which slows down the producer
+    CALLER_RUNS,
+    // The submitting thread waits until the Task Manager made room for the task
+    BLOCK
+
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import yapi.datastructures.circular.MultiProducerCircularQueue;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hand-off between the threads submitting tasks and the pool thread. Tasks go
+ * into a lock-free ring, only when it is full they spill into an unbounded
+ * overflow. As long as the overflow holds anything new tasks queue up behind
+ * it and the ring is emptied first, including the slots claimed but not yet
+ * published, so every submitter still sees its tasks taken in order.
+ *
+ * Neither side takes a lock, the size is reserved with a CAS before a task
+ * is published. A consumer can therefore see a size above zero and still
+ * poll null for a moment.
+ */
+final class TaskQueue {
+
+    private static final int RING_SIZE = 1024;
+
+    private final MultiProducerCircularQueue<Task> ring = new MultiProducerCircularQueue<>(RING_SIZE);
+    private final Queue<Task> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @return false if the queue already holds 'capacity' tasks
+     */
+    boolean offer(Task task, int capacity) {
+        if (!reserve(1, capacity)) {
+            return false;
+        }
+        publish(task);
+        return true;
+    }
+
+    /**
+     * Adds all tasks or none of them.
+     *
+     * @return false if the tasks don't fit into 'capacity'
+     */
+    boolean offerAll(List<? extends Task> tasks, int capacity) {
+        if (!reserve(tasks.size(), capacity)) {
+            return false;
+        }
+        for (Task task : tasks) {
+            publish(task);
+        }
+        return true;
+    }
+
+    private boolean reserve(int count, int capacity) {
+        while (true) {
+            int current = size.get();
+            if ((long) current + count > capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    private void publish(Task task) {
+        if (!overflow.isEmpty() || !ring.offer(task)) {
+            overflow.add(task);
+        }
+    }
+
+    Task poll() {
+        Task task = ring.poll();
+        if (task == null && ring.isEmpty()) {
+            // Only when no slot is claimed, one that is not yet published may hold an older task of the same submitter
+            task = overflow.poll();
+        }
+        if (task != null) {
+            size.decrementAndGet();
+        }
+        return task;
+    }
+
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.List;
+
+interface TaskScheduler {
+
+    void start();
+
+    boolean submit(Task task);
+
+    boolean submitAll(List<? extends Task> tasks);
+
+    boolean isDone();
+
+    boolean isDoneWorker();
+
+    void await();
+
+    void awaitWorker();
+
+    void close();
+
+    int workers();
+
+    int idleWorkers();
+
+    int activeWorkers();
+
+    int frozenWorkers();
+
+    long queuedTasks();
+
+}
\ No newline at end of file
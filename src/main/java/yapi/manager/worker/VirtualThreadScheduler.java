@@ -0,0 +1,255 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler behind {@link WorkerPoolMode#VIRTUAL_THREADS}. Every task runs
+ * on its own thread, at most 'limit' of them at the same time, the rest
+ * wait in a queue without holding a thread. The threads are virtual when
+ * the JVM offers 'Thread.ofVirtual()', otherwise plain platform threads.
+ */
+class VirtualThreadScheduler implements TaskScheduler {
+
+    private static final long CLOSE_TIME = 2000;
+
+    private final WorkerPool pool;
+    private final ThreadGroup threadGroup;
+    private final int limit;
+    private final boolean daemon;
+    private final ThreadFactory virtualThreadFactory = virtualThreadFactory();
+
+    private final Queue<Task> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+
+    private final AtomicLong id = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong unfinished = new AtomicLong();
+    private final Object quiescence = new Object();
+
+    private volatile boolean run = true;
+    private volatile boolean started = false;
+
+    VirtualThreadScheduler(WorkerPool pool, ThreadGroup threadGroup, int limit, boolean daemon) {
+        this.pool = pool;
+        this.threadGroup = threadGroup;
+        this.limit = limit;
+        this.daemon = daemon;
+        this.permits = new Semaphore(limit);
+
+        if (virtualThreadFactory != null) {
+            pool.log("Using virtual threads, at most " + limit + " running");
+        } else {
+            pool.log("No virtual threads on this JVM, using platform threads, at most " + limit + " running");
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        pool.log("Started Virtual Thread Scheduler");
+        drain();
+    }
+
+    @Override
+    public boolean submit(Task task) {
+        if (!run) {
+            return false;
+        }
+        queued.incrementAndGet();
+        unfinished.incrementAndGet();
+        pending.offer(task);
+        drain();
+        if (!run) {
+            // Closed while offering, close may have missed the task
+            discardTasks();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean submitAll(List<? extends Task> tasks) {
+        if (!run) {
+            return false;
+        }
+        queued.addAndGet(tasks.size());
+        unfinished.addAndGet(tasks.size());
+        pending.addAll(tasks);
+        drain();
+        if (!run) {
+            discardTasks();
+        }
+        return true;
+    }
+
+    private void drain() {
+        while (started && run && !pending.isEmpty() && permits.tryAcquire()) {
+            Task task = pending.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            if (queued.decrementAndGet() <= 0) {
+                signalQuiescence();
+            }
+            Thread thread = newThread(() -> runTask(task));
+            running.add(thread);
+            thread.start();
+        }
+    }
+
+    private void discardTasks() {
+        Task task;
+        while ((task = pending.poll()) != null) {
+            pool.discard(task);
+        }
+    }
+
+    private Thread newThread(Runnable runnable) {
+        Thread thread;
+        if (virtualThreadFactory != null) {
+            thread = virtualThreadFactory.newThread(runnable);
+        } else {
+            thread = new Thread(threadGroup, runnable);
+            thread.setDaemon(daemon);
+        }
+        thread.setName("Worker Pool: Virtual " + id.incrementAndGet());
+        return thread;
+    }
+
+    private void runTask(Task task) {
+        Thread current = Thread.currentThread();
+        try {
+            pool.runTask(task, current.getName().substring(13));
+        } finally {
+            running.remove(current);
+            permits.release();
+            if (unfinished.decrementAndGet() <= 0) {
+                signalQuiescence();
+            }
+            drain();
+        }
+    }
+
+    private void signalQuiescence() {
+        synchronized (quiescence) {
+            quiescence.notifyAll();
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return queued.get() <= 0;
+    }
+
+    @Override
+    public boolean isDoneWorker() {
+        return unfinished.get() <= 0;
+    }
+
+    @Override
+    public void await() {
+        synchronized (quiescence) {
+            while (queued.get() > 0) {
+                try {
+                    quiescence.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void awaitWorker() {
+        synchronized (quiescence) {
+            while (unfinished.get() > 0) {
+                try {
+                    quiescence.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        run = false;
+        discardTasks();
+        long deadline = System.currentTimeMillis() + CLOSE_TIME;
+        for (Thread thread : running) {
+            long time = deadline - System.currentTimeMillis();
+            if (time <= 0) {
+                break;
+            }
+            try {
+                thread.join(time);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        pool.log("Closing > " + running.size() + " threads still running");
+        queued.set(0);
+        unfinished.set(0);
+        signalQuiescence();
+    }
+
+    @Override
+    public int workers() {
+        return running.size();
+    }
+
+    /**
+     * @return how many more tasks could start right now
+     */
+    @Override
+    public int idleWorkers() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return the tasks running right now, every one on its own thread
+     */
+    @Override
+    public int activeWorkers() {
+        return running.size();
+    }
+
+    @Override
+    public int frozenWorkers() {
+        return 0;
+    }
+
+    @Override
+    public long queuedTasks() {
+        return Math.max(queued.get(), 0);
+    }
+
+}
\ No newline at end of file
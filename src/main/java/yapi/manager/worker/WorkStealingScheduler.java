@@ -0,0 +1,416 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduler behind {@link WorkerPoolMode#WORK_STEALING}. Tasks are pushed
+ * straight into the deque of a Worker and an idle Worker is unparked, so
+ * there is no dispatcher thread in between. A Worker takes its own tasks
+ * from the head of its deque and steals from the tail of the others.
+ */
+class WorkStealingScheduler implements TaskScheduler {
+
+    private static final long PARK_TIME = TimeUnit.SECONDS.toNanos(1);
+    private static final long FREEZE_TIME = 20000;
+    private static final long DELETE_TIME = 20000;
+    private static final long CLOSE_TIME = 2000;
+
+    private final WorkerPool pool;
+    private final ThreadGroup threadGroup;
+    private final int minWorkers;
+    private final int maxWorkers;
+    private final boolean daemon;
+
+    private final Object sizeLock = new Object();
+    private volatile StealingWorker[] active = new StealingWorker[0];
+    private volatile StealingWorker[] all = new StealingWorker[0];
+    private final Queue<StealingWorker> frozen = new ConcurrentLinkedQueue<>();
+    private final Queue<StealingWorker> idle = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong unfinished = new AtomicLong();
+    private final Object quiescence = new Object();
+
+    private volatile boolean run = true;
+    private volatile boolean started = false;
+    private long id = 0;
+
+    WorkStealingScheduler(WorkerPool pool, ThreadGroup threadGroup, int minWorkers, int maxWorkers, boolean daemon) {
+        this.pool = pool;
+        this.threadGroup = threadGroup;
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.daemon = daemon;
+
+        pool.log("Create " + minWorkers + " workers");
+        synchronized (sizeLock) {
+            while (active.length < minWorkers) {
+                newWorker();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        synchronized (sizeLock) {
+            if (started) {
+                return;
+            }
+            started = true;
+            for (StealingWorker worker : all) {
+                worker.start();
+            }
+        }
+        pool.log("Started Work Stealing Workers");
+    }
+
+    @Override
+    public boolean submit(Task task) {
+        if (!run) {
+            return false;
+        }
+        queued.incrementAndGet();
+        unfinished.incrementAndGet();
+
+        Thread current = Thread.currentThread();
+        boolean own = current instanceof StealingWorker && ((StealingWorker) current).scheduler == this;
+        if (!own || !((StealingWorker) current).push(task)) {
+            push(task, nextWorker.getAndIncrement());
+        }
+        if (!run) {
+            // Closed while pushing, close may have missed the task
+            discardTasks();
+            return true;
+        }
+        signalWork();
+        return true;
+    }
+
+    @Override
+    public boolean submitAll(List<? extends Task> tasks) {
+        if (!run) {
+            return false;
+        }
+        if (tasks.isEmpty()) {
+            return true;
+        }
+        queued.addAndGet(tasks.size());
+        unfinished.addAndGet(tasks.size());
+
+        Thread current = Thread.currentThread();
+        if (current instanceof StealingWorker && ((StealingWorker) current).scheduler == this) {
+            for (Task task : tasks) {
+                if (!((StealingWorker) current).push(task)) {
+                    push(task, nextWorker.getAndIncrement());
+                }
+            }
+        } else {
+            int index = nextWorker.getAndAdd(tasks.size());
+            for (Task task : tasks) {
+                push(task, index++);
+            }
+        }
+        if (!run) {
+            discardTasks();
+            return true;
+        }
+        for (int i = Math.min(tasks.size(), maxWorkers); i > 0; i--) {
+            signalWork();
+        }
+        return true;
+    }
+
+    private void push(Task task, int index) {
+        while (true) {
+            // A stale snapshot may still hold a deleted Worker, which refuses the task
+            StealingWorker[] workers = active;
+            if (workers[Math.floorMod(index++, workers.length)].push(task)) {
+                return;
+            }
+        }
+    }
+
+    private void signalWork() {
+        StealingWorker worker;
+        while ((worker = idle.poll()) != null) {
+            if (worker.wake()) {
+                return;
+            }
+        }
+        if (active.length < maxWorkers) {
+            createWorker();
+        }
+    }
+
+    private void createWorker() {
+        synchronized (sizeLock) {
+            if (!run || !started || active.length >= maxWorkers) {
+                return;
+            }
+            StealingWorker worker;
+            while ((worker = frozen.poll()) != null) {
+                if (worker.unfreeze()) {
+                    active = append(active, worker);
+                    pool.log("Unfreeze Worker: '" + worker.getName() + "'");
+                    return;
+                }
+            }
+            worker = newWorker();
+            worker.start();
+            pool.log("Create Worker: '" + worker.getName() + "'");
+        }
+    }
+
+    private StealingWorker newWorker() {
+        StealingWorker worker = new StealingWorker(threadGroup, this);
+        worker.setDaemon(daemon);
+        worker.setName("Worker Pool: Worker " + (++id));
+        active = append(active, worker);
+        all = append(all, worker);
+        return worker;
+    }
+
+    void runWorker(StealingWorker worker) {
+        long idleSince = System.currentTimeMillis();
+        while (run) {
+            if (worker.state() == StealingWorker.FROZEN) {
+                if (!awaitUnfreeze(worker)) {
+                    return;
+                }
+                idleSince = System.currentTimeMillis();
+                continue;
+            }
+
+            Task task = findTask(worker);
+            if (task != null) {
+                runTask(worker, task);
+                idleSince = System.currentTimeMillis();
+                continue;
+            }
+
+            worker.markIdle();
+            idle.offer(worker);
+            task = findTask(worker);
+            if (task != null) {
+                if (!worker.clearIdle()) {
+                    // Somebody spent a wake up on this Worker, hand it on
+                    signalWork();
+                }
+                runTask(worker, task);
+                idleSince = System.currentTimeMillis();
+                continue;
+            }
+
+            while (run && worker.isIdle()) {
+                LockSupport.parkNanos(this, PARK_TIME);
+                if (worker.isIdle() && System.currentTimeMillis() - idleSince > FREEZE_TIME && freeze(worker)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private Task findTask(StealingWorker worker) {
+        Task task = worker.poll();
+        if (task == null) {
+            StealingWorker[] workers = all;
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length && task == null; i++) {
+                StealingWorker victim = workers[(start + i) % workers.length];
+                if (victim != worker) {
+                    task = victim.steal();
+                }
+            }
+        }
+        if (task != null && queued.decrementAndGet() <= 0) {
+            signalQuiescence();
+        }
+        return task;
+    }
+
+    private void runTask(StealingWorker worker, Task task) {
+        try {
+            pool.runTask(task, worker.getName().substring(13));
+        } finally {
+            if (unfinished.decrementAndGet() <= 0) {
+                signalQuiescence();
+            }
+        }
+    }
+
+    private boolean freeze(StealingWorker worker) {
+        synchronized (sizeLock) {
+            if (active.length <= minWorkers || !worker.clearIdle()) {
+                return false;
+            }
+            active = remove(active, worker);
+            worker.freeze();
+            frozen.offer(worker);
+            pool.log("Freeze Worker: '" + worker.getName() + "'");
+            return true;
+        }
+    }
+
+    private boolean awaitUnfreeze(StealingWorker worker) {
+        while (run && worker.state() == StealingWorker.FROZEN) {
+            LockSupport.parkNanos(this, PARK_TIME);
+            if (worker.frozenTime() > DELETE_TIME && worker.delete()) {
+                synchronized (sizeLock) {
+                    frozen.remove(worker);
+                    all = remove(all, worker);
+                }
+                pool.log("Delete Worker: '" + worker.getName() + "'");
+                Task task;
+                while ((task = worker.poll()) != null) {
+                    push(task, nextWorker.getAndIncrement());
+                    signalWork();
+                }
+                return false;
+            }
+        }
+        return run;
+    }
+
+    private void signalQuiescence() {
+        synchronized (quiescence) {
+            quiescence.notifyAll();
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return queued.get() <= 0;
+    }
+
+    @Override
+    public boolean isDoneWorker() {
+        return unfinished.get() <= 0;
+    }
+
+    @Override
+    public void await() {
+        synchronized (quiescence) {
+            while (queued.get() > 0) {
+                try {
+                    quiescence.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void awaitWorker() {
+        synchronized (quiescence) {
+            while (unfinished.get() > 0) {
+                try {
+                    quiescence.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        run = false;
+        StealingWorker[] workers = all;
+        for (StealingWorker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (StealingWorker worker : workers) {
+            if (worker.isAlive()) {
+                try {
+                    worker.join(CLOSE_TIME);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            discardTasks(worker);
+            pool.log("Closing > " + worker.getName());
+        }
+        queued.set(0);
+        unfinished.set(0);
+        signalQuiescence();
+    }
+
+    private void discardTasks() {
+        for (StealingWorker worker : all) {
+            discardTasks(worker);
+        }
+    }
+
+    private void discardTasks(StealingWorker worker) {
+        Task task;
+        while ((task = worker.poll()) != null) {
+            pool.discard(task);
+        }
+    }
+
+    @Override
+    public int workers() {
+        return active.length;
+    }
+
+    @Override
+    public int frozenWorkers() {
+        return frozen.size();
+    }
+
+    @Override
+    public int idleWorkers() {
+        int count = 0;
+        for (StealingWorker worker : active) {
+            if (worker.isIdle()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int activeWorkers() {
+        return Math.max(0, workers() - idleWorkers());
+    }
+
+    @Override
+    public long queuedTasks() {
+        return Math.max(queued.get(), 0);
+    }
+
+    private static StealingWorker[] append(StealingWorker[] workers, StealingWorker worker) {
+        StealingWorker[] result = Arrays.copyOf(workers, workers.length + 1);
+        result[workers.length] = worker;
+        return result;
+    }
+
+    private static StealingWorker[] remove(StealingWorker[] workers, StealingWorker worker) {
+        for (int i = 0; i < workers.length; i++) {
+            if (workers[i] == worker) {
+                StealingWorker[] result = new StealingWorker[workers.length - 1];
+                System.arraycopy(workers, 0, result, 0, i);
+                System.arraycopy(workers, i + 1, result, i, workers.length - i - 1);
+                return result;
+            }
+        }
+        return workers;
+    }
+
+}
\ No newline at end of file
@@ -38,11 +38,7 @@ public class Worker extends Thread {
             if (task == null) {
                 continue;
             }
-            try {
-                task.run();
-            } catch (Exception e) {
-                workerPool.log(getName().substring(13) + " > Task exited with and exception\n" + e.toString());
-            }
+            workerPool.runTask(task, getName().substring(13));
             task = null;
             workerPool.done(this);
         }
@@ -55,7 +51,7 @@ public class Worker extends Thread {
 
     final synchronized void setTask(Task task) {
         if (delete) {
-            workerPool.work(task);
+            workerPool.requeue(task);
             workerPool.delete(this);
             return;
         }
@@ -7,21 +7,33 @@ package yapi.manager.worker;
 import yapi.manager.log.Logging;
 import yapi.runtime.ThreadUtils;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
-public class WorkerPool implements Runnable {
+public class WorkerPool implements Runnable, Executor {
 
-    private List<Worker> available = new ArrayList<>();
+    // Workers add themselves when they finish a task, so this is not guarded by the pool monitor
+    private Deque<Worker> available = new ConcurrentLinkedDeque<>();
     private List<Worker> all = new ArrayList<>();
     private List<CachedWorker> cachedWorkers = new CopyOnWriteArrayList<>();
-    private boolean run = true;
+    private volatile boolean run = true;
     private boolean started = false;
+    private volatile Thread taskManager = null;
     private WorkerPool pool;
 
-    private List<Task> tasks = new CopyOnWriteArrayList<>();
+    private TaskQueue tasks = new TaskQueue();
+    private volatile int queueCapacity = Integer.MAX_VALUE;
+    private volatile TaskOverflowPolicy overflowPolicy = TaskOverflowPolicy.REJECT;
+    // Only changed while holding the monitor, read by the Task Manager without it
+    private volatile int blockedSubmitters = 0;
+    private PoolController controller;
 
     private int minWorkers;
     private int maxWorkers;
@@ -29,9 +41,14 @@ public class WorkerPool implements Runnable {
     private static long wIDGlobal = 0;
     private long wID = wIDGlobal++;
     private long id = 0;
-    private long taskID = 0;
-    private long lastTaskAssigned = 0;
-    private int wait = 0;
+    private AtomicLong taskID = new AtomicLong();
+
+    private LatencySamples waitTimes = new LatencySamples();
+    private LatencySamples runTimes = new LatencySamples();
+    private LongAdder completedTasks = new LongAdder();
+    private LongAdder failedTasks = new LongAdder();
+    private LongAdder cancelledTasks = new LongAdder();
+    private LongAdder rejectedTasks = new LongAdder();
 
     private Logging log = new Logging("Worker Pool");
     private int lastLogSize = 0;
@@ -44,6 +61,9 @@ public class WorkerPool implements Runnable {
 
     private String name;
 
+    private WorkerPoolMode mode = WorkerPoolMode.DISPATCHER;
+    private TaskScheduler scheduler = null;
+
     /**
      *
      * @since Version 1.1
@@ -138,17 +158,138 @@ public class WorkerPool implements Runnable {
         }
     }
 
-    public void setName(String name) {
-        try {
-            Field field = workerGroup.getClass().getDeclaredField("name");
-            field.setAccessible(true);
-            field.set(workerGroup, "WorkerPool[" + wID + "]: " + name);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+    /**
+     * @since Version 2.4
+     *
+     * @param workers
+     * @param mode
+     */
+    public WorkerPool(int workers, WorkerPoolMode mode) {
+        this(workers, workers, mode, false);
+    }
 
+    /**
+     * @since Version 2.4
+     *
+     * @param minWorkers
+     * @param maxWorkers
+     * @param mode
+     */
+    public WorkerPool(int minWorkers, int maxWorkers, WorkerPoolMode mode) {
+        this(minWorkers, maxWorkers, mode, false);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param minWorkers
+     * @param maxWorkers
+     * @param mode
+     * @param startLater
+     */
+    public WorkerPool(int minWorkers, int maxWorkers, WorkerPoolMode mode, boolean startLater) {
+        if (minWorkers < 1) {
+            throw new IllegalArgumentException("No negative Workers!");
         }
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException("No negative Workers!");
+        }
+        if (minWorkers > maxWorkers) {
+            minWorkers = maxWorkers;
+        }
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.mode = mode;
+
+        pool = this;
+
+        if (mode == WorkerPoolMode.WORK_STEALING) {
+            scheduler = new WorkStealingScheduler(this, workerPoolGroup, minWorkers, maxWorkers, daemon);
+        } else if (mode == WorkerPoolMode.VIRTUAL_THREADS) {
+            scheduler = new VirtualThreadScheduler(this, workerPoolGroup, maxWorkers, daemon);
+        }
+        if (scheduler != null) {
+            if (!startLater) {
+                scheduler.start();
+            }
+            return;
+        }
+
+        createWorkers();
+        if (!startLater) {
+            taskManager();
+        }
+    }
+
+    public WorkerPoolMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Limits the tasks waiting for a Worker. Only {@link WorkerPoolMode#DISPATCHER}
+     * has a bounded queue, the other modes always accept tasks until closed. A
+     * rejected task throws from {@link #work(Task)} and {@link #execute(Runnable)},
+     * fails the future of {@link #submit(Callable)} and is counted in
+     * {@link WorkerPoolMetrics#getRejectedTasks()}.
+     *
+     * @since Version 2.4
+     *
+     * @param queueCapacity
+     * @param overflowPolicy what happens to tasks that don't fit
+     * @throws IllegalStateException if the mode is not {@link WorkerPoolMode#DISPATCHER}
+     */
+    public synchronized void setQueueCapacity(int queueCapacity, TaskOverflowPolicy overflowPolicy) {
+        if (scheduler != null) {
+            throw new IllegalStateException("The queue capacity only applies to " + WorkerPoolMode.DISPATCHER + ", not " + mode);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity needs to be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        notifyAll();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public TaskOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @return
+     */
+    public WorkerPoolMetrics getMetrics() {
+        long[] waits = waitTimes.snapshot();
+        long[] runs = runTimes.snapshot();
+        if (scheduler != null) {
+            return new WorkerPoolMetrics(scheduler.queuedTasks(), scheduler.activeWorkers(), scheduler.idleWorkers(), scheduler.frozenWorkers(), waits, runs, completedTasks.sum(), failedTasks.sum(), cancelledTasks.sum(), rejectedTasks.sum());
+        }
+        int idle = available.size();
+        return new WorkerPoolMetrics(tasks.size(), Math.max(0, all.size() - idle), idle, cachedWorkers.size(), waits, runs, completedTasks.sum(), failedTasks.sum(), cancelledTasks.sum(), rejectedTasks.sum());
+    }
+
+    /**
+     * The name only shows up in the log and {@link #toString()}, the name of
+     * the ThreadGroup is final and can't be changed on newer JVMs.
+     *
+     * @param name
+     */
+    public void setName(String name) {
+        this.name = name;
+        log.add("Renamed to 'WorkerPool[" + wID + "]: " + name + "'");
+    }
+
+    public String getName() {
+        return name;
     }
 
     private void createWorkers() {
+        controller = new PoolController(minWorkers, maxWorkers);
         log.add("Create " + minWorkers + " workers");
         while (all.size() < minWorkers) {
             Worker t = new Worker(workerPoolGroup, this);
@@ -190,48 +331,27 @@ public class WorkerPool implements Runnable {
         }
     }
 
-    private boolean poolManager() {
-        if (maxWorkers != minWorkers) {
-            wait--;
-            if (wait > 0) {
-                return false;
-            }
-            if (!tasks.isEmpty() && System.currentTimeMillis() - lastTaskAssigned > 2000) {
-                createWorker();
-                wait = 2;
-                return true;
-            }
-        }
-        return false;
-    }
-
     private void logWorkerPoolInfo() {
         if (lastLogSize == log.size()) {
             return;
         }
-        log.add(  "    WorkerPool Info:" +
-                "\n    Worker: " + all.size() + "/" + available.size() + "" +
-                "\n    Cached: " + cachedWorkers.size() + "   Cached Time: " + (cachedWorkers.isEmpty() ? "---" : (cachedWorkers.get(0).cachedTime() / 1000.0) + "s") + "" +
-                "\n    MinWorker: " + minWorkers + "   MaxWorker: " + maxWorkers + "" +
-                "\n    Tasks: " + +tasks.size() + "" +
-                "\n    LastAssignedTaskTime: " + lastTaskAssigned + "   " + ((lastTaskAssigned - System.currentTimeMillis()) / 1000.0) + "s");
+        log.add("WorkerPool Info: " + getMetrics());
         lastLogSize = log.size();
     }
 
     @Override
-    public synchronized void run() {
+    public void run() {
         long workerPoolInfo = System.currentTimeMillis();
         while (run) {
             while (tasks.isEmpty() || available.isEmpty()) {
-                try {
-                    wait(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                // Submitters unpark this thread, finishing Workers don't, so look again soon while tasks are waiting
+                LockSupport.parkNanos(this, tasks.isEmpty() ? 100000000 : 5000000);
                 if (!run) {
                     break;
                 }
-                delegatePool();
+                synchronized (this) {
+                    delegatePool();
+                }
                 if (System.currentTimeMillis() - workerPoolInfo > 10000) {
                     workerPoolInfo = System.currentTimeMillis();
                     logWorkerPoolInfo();
@@ -242,9 +362,17 @@ public class WorkerPool implements Runnable {
     }
 
     private void delegatePool() {
-        boolean b = poolManager();
-        if (!b && tasks.isEmpty() && all.size() > minWorkers && System.currentTimeMillis() - lastTaskAssigned > 20000) {
-            deleteWorker(all.get(0));
+        if (maxWorkers != minWorkers) {
+            int change = controller.evaluate(tasks.size(), all.size(), available.size(), System.nanoTime());
+            for (int i = 0; i < change; i++) {
+                createWorker();
+            }
+            if (change < 0) {
+                Worker worker = available.pollLast();
+                if (worker != null) {
+                    deleteWorker(worker);
+                }
+            }
         }
         if (!cachedWorkers.isEmpty()) {
             if (cachedWorkers.get(0).cachedTime() > 20000) {
@@ -254,18 +382,27 @@ public class WorkerPool implements Runnable {
         }
     }
 
-    private synchronized void delegateTask() {
-        if (tasks.isEmpty() || available.isEmpty()) {
+    private void delegateTask() {
+        if (tasks.isEmpty()) {
             return;
         }
-        Worker worker = available.remove(0);
-        Task task = tasks.remove(0);
+        Worker worker = available.pollFirst();
         if (worker == null) {
-            tasks.add(task);
             return;
         }
-        log.add("Tasks: " + tasks.size());
-        lastTaskAssigned = System.currentTimeMillis();
+        Task task = tasks.poll();
+        if (task == null) {
+            // A submitter reserved its place in the queue but did not publish the task yet
+            available.addFirst(worker);
+            return;
+        }
+        long now = System.nanoTime();
+        controller.assigned(now - task.getQueuedTime(), now);
+        if (blockedSubmitters > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
         worker.setTask(task);
     }
 
@@ -276,49 +413,300 @@ public class WorkerPool implements Runnable {
         started = true;
         Thread t = new Thread(workerGroup, this);
         t.setName("Worker Pool: Task Manager");
+        taskManager = t;
         t.start();
         log.add("Started Task Manager Thread");
     }
 
     public void start() {
+        if (scheduler != null) {
+            scheduler.start();
+            return;
+        }
         taskManager();
     }
 
     void done(Worker worker) {
-        if ((System.currentTimeMillis() - lastTaskAssigned < 1500 || tasks.isEmpty()) && all.size() > minWorkers) {
-            deleteWorker(worker);
-        } else {
-            available.add(worker);
-        }
+        available.add(worker);
     }
 
     void delete(Worker worker) {
         all.remove(worker);
     }
 
+    void requeue(Task task) {
+        if (!enqueue(task)) {
+            discard(task);
+        }
+    }
+
+    void discard(Task task) {
+        cancelledTasks.increment();
+        task.discard();
+    }
+
     /**
+     * A closed WorkerPool ignores the task.
      *
      * @since Version 1.1
      *
      * @param task
+     * @throws RejectedExecutionException if the queue is full and the {@link TaskOverflowPolicy} is REJECT
+     */
+    public void work(Task task) {
+        if (!enqueue(task) && run) {
+            throw rejected();
+        }
+    }
+
+    public void work(TaskRunnable runnable) {
+        work(new Task(runnable));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!enqueue(new Task(command::run))) {
+            throw rejected();
+        }
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param callable
+     * @return
      */
-    public synchronized void work(Task task) {
+    public <T> TaskFuture<T> submit(Callable<T> callable) {
+        CallableTask<T> task = new CallableTask<>(this, callable);
+        if (!enqueue(task)) {
+            task.getFuture().completeExceptionally(rejected());
+        }
+        return task.getFuture();
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param runnable
+     * @return
+     */
+    public TaskFuture<Void> submit(TaskRunnable runnable) {
+        return submit(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Submits all callables at once, the task list is only touched a single time.
+     *
+     * @since Version 2.4
+     *
+     * @param callables
+     * @return the handles in the order of the callables
+     */
+    public <T> List<TaskFuture<T>> submitAll(Collection<? extends Callable<T>> callables) {
+        List<CallableTask<T>> batch = new ArrayList<>(callables.size());
+        List<TaskFuture<T>> futures = new ArrayList<>(callables.size());
+        for (Callable<T> callable : callables) {
+            CallableTask<T> task = new CallableTask<>(this, callable);
+            batch.add(task);
+            futures.add(task.getFuture());
+        }
+        if (!enqueueAll(batch)) {
+            RejectedExecutionException exception = rejected();
+            for (TaskFuture<T> future : futures) {
+                future.completeExceptionally(exception);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param callables
+     * @return the completed handles in the order of the callables
+     * @throws InterruptedException if interrupted while waiting, unfinished tasks are cancelled
+     */
+    public <T> List<TaskFuture<T>> invokeAll(Collection<? extends Callable<T>> callables) throws InterruptedException {
+        List<TaskFuture<T>> futures = submitAll(callables);
+        try {
+            for (TaskFuture<T> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // The failure stays in the returned handle
+                }
+            }
+        } catch (InterruptedException e) {
+            for (TaskFuture<T> future : futures) {
+                future.cancel(false);
+            }
+            throw e;
+        }
+        return futures;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param callables
+     * @return the result of the first task that completed without an exception
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if every task failed
+     */
+    public <T> T invokeAny(Collection<? extends Callable<T>> callables) throws InterruptedException, ExecutionException {
+        if (callables.isEmpty()) {
+            throw new IllegalArgumentException("No tasks to invoke");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        List<TaskFuture<T>> futures = submitAll(callables);
+        for (TaskFuture<T> future : futures) {
+            future.whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    result.complete(value);
+                } else if (failed.incrementAndGet() == futures.size()) {
+                    result.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                }
+            });
+        }
+        try {
+            return result.get();
+        } finally {
+            for (TaskFuture<T> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private boolean enqueue(Task task) {
+        if (scheduler != null) {
+            task.setTaskID(taskID.incrementAndGet());
+            return scheduler.submit(task);
+        }
+        return dispatch(task);
+    }
+
+    private boolean enqueueAll(List<? extends Task> batch) {
+        if (scheduler != null) {
+            for (Task task : batch) {
+                task.setTaskID(taskID.incrementAndGet());
+            }
+            return scheduler.submitAll(batch);
+        }
+        return dispatchAll(batch);
+    }
+
+    private boolean dispatch(Task task) {
+        task.setTaskID(taskID.incrementAndGet());
+        while (run) {
+            if (tasks.offer(task, queueCapacity)) {
+                published();
+                return true;
+            }
+            if (overflowPolicy == TaskOverflowPolicy.REJECT) {
+                rejectedTasks.increment();
+                return false;
+            }
+            if (overflowPolicy == TaskOverflowPolicy.CALLER_RUNS) {
+                runTask(task, Thread.currentThread().getName());
+                return true;
+            }
+            synchronized (this) {
+                if (!awaitCapacity()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean dispatchAll(List<? extends Task> batch) {
         if (!run) {
-            return;
+            return false;
         }
-        task.setTaskID(++taskID);
-        tasks.add(task);
-        notifyAll();
+        for (Task task : batch) {
+            task.setTaskID(taskID.incrementAndGet());
+        }
+        if (tasks.offerAll(batch, queueCapacity)) {
+            published();
+            return true;
+        }
+        if (overflowPolicy == TaskOverflowPolicy.REJECT) {
+            rejectedTasks.add(batch.size());
+            return false;
+        }
+        for (Task task : batch) {
+            if (!dispatch(task)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public synchronized void work(TaskRunnable runnable) {
+    private void published() {
         if (!run) {
+            // Closed while publishing, close may have drained the queue before the task arrived
+            discardQueued();
             return;
         }
-        Task task = new Task(runnable);
-        task.setTaskID(++taskID);
-        tasks.add(task);
-        notifyAll();
+        LockSupport.unpark(taskManager);
+    }
+
+    private void discardQueued() {
+        Task task;
+        while ((task = tasks.poll()) != null) {
+            discard(task);
+        }
+    }
+
+    /**
+     * Waits while the task list is full, the caller needs to hold the monitor.
+     *
+     * @return false if interrupted while waiting
+     */
+    private boolean awaitCapacity() {
+        blockedSubmitters++;
+        try {
+            while (run && tasks.size() >= queueCapacity) {
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            blockedSubmitters--;
+        }
+    }
+
+    private RejectedExecutionException rejected() {
+        return new RejectedExecutionException(run ? "WorkerPool queue is full" : "WorkerPool is closed");
+    }
+
+    void runTask(Task task, String name) {
+        long start = System.nanoTime();
+        waitTimes.add(start - task.getQueuedTime());
+        boolean failed = true;
+        try {
+            task.run();
+            failed = task.isFailed();
+        } catch (Exception e) {
+            log(name + " > Task exited with and exception\n" + e.toString());
+        } finally {
+            runTimes.add(System.nanoTime() - start);
+            if (task.isCancelled()) {
+                cancelledTasks.increment();
+            } else if (failed) {
+                failedTasks.increment();
+            } else {
+                completedTasks.increment();
+            }
+        }
     }
 
     /**
@@ -327,6 +715,19 @@ public class WorkerPool implements Runnable {
     public synchronized void close() {
         log.add("Starting to close");
         run = false;
+        notifyAll();
+        LockSupport.unpark(taskManager);
+        if (scheduler != null) {
+            scheduler.close();
+            try {
+                workerGroup.destroy();
+            } catch (IllegalThreadStateException e) {
+
+            }
+            log.add("Finished to close");
+            return;
+        }
+        discardQueued();
         int tries = 0;
         while (!all.isEmpty()) {
             while (available.isEmpty()) {
@@ -343,7 +744,7 @@ public class WorkerPool implements Runnable {
                 break;
             }
             tries = 0;
-            Worker worker = available.remove(0);
+            Worker worker = available.pollFirst();
             if (worker == null) {
                 continue;
             }
@@ -370,6 +771,9 @@ public class WorkerPool implements Runnable {
      * @return
      */
     public boolean isDoneWorker() {
+        if (scheduler != null) {
+            return scheduler.isDoneWorker();
+        }
         return all.size() == available.size();
     }
 
@@ -377,6 +781,10 @@ public class WorkerPool implements Runnable {
      * @since Version 1.2
      */
     public void awaitWorker() {
+        if (scheduler != null) {
+            scheduler.awaitWorker();
+            return;
+        }
         synchronized (this) {
             while (all.size() != available.size()) {
                 try {
@@ -394,6 +802,9 @@ public class WorkerPool implements Runnable {
      * @return
      */
     public boolean isDone() {
+        if (scheduler != null) {
+            return scheduler.isDone();
+        }
         return tasks.isEmpty();
     }
 
@@ -401,6 +812,10 @@ public class WorkerPool implements Runnable {
      * @since Version 1.1
      */
     public void await() {
+        if (scheduler != null) {
+            scheduler.await();
+            return;
+        }
         synchronized(this) {
             while (!tasks.isEmpty()) {
                 try {
@@ -416,6 +831,13 @@ public class WorkerPool implements Runnable {
      * @since Version 1.1
      */
     public void awaitClose() {
+        if (scheduler != null) {
+            log.add("Starting to wait on finishing all tasks");
+            scheduler.awaitWorker();
+            log.add("Finished with all tasks");
+            close();
+            return;
+        }
         synchronized (this) {
             log.add("Starting to wait on finishing all tasks");
             while (!tasks.isEmpty()) {
@@ -455,8 +877,21 @@ public class WorkerPool implements Runnable {
 
     @Override
     public String toString() {
+        if (scheduler != null) {
+            return "WorkerPool{" +
+                    "name=" + name +
+                    ", mode=" + mode +
+                    ", idle=" + scheduler.idleWorkers() +
+                    ", minWorkers=" + minWorkers +
+                    ", maxWorkers=" + maxWorkers +
+                    ", currentWorkers=" + scheduler.workers() +
+                    ", frozenWorkers=" + scheduler.frozenWorkers() +
+                    ", tasks=" + scheduler.queuedTasks() +
+                    '}';
+        }
         return "WorkerPool{" +
-                "available=" + available.size() +
+                "name=" + name +
+                ", available=" + available.size() +
                 ", minWorkers=" + minWorkers +
                 ", maxWorkers=" + maxWorkers +
                 ", currentWorkers=" + all.size() +
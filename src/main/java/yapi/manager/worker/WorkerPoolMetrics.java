@@ -0,0 +1,119 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+/**
+ * Snapshot of a {@link WorkerPool}. The wait and run times are taken from the
+ * last {@value LatencySamples#SIZE} tasks and are in nanoseconds.
+ *
+ * @since Version 2.4
+ */
+public final class WorkerPoolMetrics {
+
+    private final long queueDepth;
+    private final int activeWorkers;
+    private final int idleWorkers;
+    private final int frozenWorkers;
+    private final long waitTimeP50;
+    private final long waitTimeP99;
+    private final long runTimeP50;
+    private final long runTimeP99;
+    private final long completedTasks;
+    private final long failedTasks;
+    private final long cancelledTasks;
+    private final long rejectedTasks;
+
+    WorkerPoolMetrics(long queueDepth, int activeWorkers, int idleWorkers, int frozenWorkers, long[] waitTimes, long[] runTimes, long completedTasks, long failedTasks, long cancelledTasks, long rejectedTasks) {
+        this.queueDepth = queueDepth;
+        this.activeWorkers = activeWorkers;
+        this.idleWorkers = idleWorkers;
+        this.frozenWorkers = frozenWorkers;
+        this.waitTimeP50 = LatencySamples.percentile(waitTimes, 50);
+        this.waitTimeP99 = LatencySamples.percentile(waitTimes, 99);
+        this.runTimeP50 = LatencySamples.percentile(runTimes, 50);
+        this.runTimeP99 = LatencySamples.percentile(runTimes, 99);
+        this.completedTasks = completedTasks;
+        this.failedTasks = failedTasks;
+        this.cancelledTasks = cancelledTasks;
+        this.rejectedTasks = rejectedTasks;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public int getIdleWorkers() {
+        return idleWorkers;
+    }
+
+    public int getFrozenWorkers() {
+        return frozenWorkers;
+    }
+
+    public long getWaitTimeP50() {
+        return waitTimeP50;
+    }
+
+    public long getWaitTimeP99() {
+        return waitTimeP99;
+    }
+
+    public long getRunTimeP50() {
+        return runTimeP50;
+    }
+
+    public long getRunTimeP99() {
+        return runTimeP99;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public long getFailedTasks() {
+        return failedTasks;
+    }
+
+    /**
+     * @return the tasks that were cancelled before they ran or dropped by a close
+     */
+    public long getCancelledTasks() {
+        return cancelledTasks;
+    }
+
+    /**
+     * @return the tasks a full queue refused with {@link TaskOverflowPolicy#REJECT}
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks;
+    }
+
+    private static String millis(long nanos) {
+        return (nanos / 1000) / 1000.0 + "ms";
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerPoolMetrics{" +
+                "queueDepth=" + queueDepth +
+                ", activeWorkers=" + activeWorkers +
+                ", idleWorkers=" + idleWorkers +
+                ", frozenWorkers=" + frozenWorkers +
+                ", waitTimeP50=" + millis(waitTimeP50) +
+                ", waitTimeP99=" + millis(waitTimeP99) +
+                ", runTimeP50=" + millis(runTimeP50) +
+                ", runTimeP99=" + millis(runTimeP99) +
+                ", completedTasks=" + completedTasks +
+                ", failedTasks=" + failedTasks +
+                ", cancelledTasks=" + cancelledTasks +
+                ", rejectedTasks=" + rejectedTasks +
+                '}';
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.manager.worker;
+
+public enum WorkerPoolMode {
+
+    // One shared task list, handed out to the Workers by the 'Task Manager' thread, which also grows and shrinks the pool between minWorkers and maxWorkers
+    DISPATCHER,
+    // Every Worker owns a deque, idle Workers steal from busy ones, no dispatcher thread
+    WORK_STEALING,
+    // Every task gets its own virtual thread, at most maxWorkers run at once
+    VIRTUAL_THREADS
+
+}
\ No newline at end of file
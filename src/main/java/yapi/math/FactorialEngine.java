@@ -0,0 +1,196 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.math;
+
+import yapi.internal.runtimeexceptions.MathException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Factorials and binomial coefficients from their prime factorization. The
+ * exponent of every prime comes from Legendre's formula, the result is built
+ * from the highest exponent bit down: square, then multiply with the product
+ * of all primes having that bit set. The powers of two are a single shift.
+ * All products are balanced product trees, so BigInteger only multiplies
+ * operands of similar size, and they run on the common {@link ForkJoinPool}.
+ */
+final class FactorialEngine {
+
+    // Below this many factors a product is multiplied by the current thread
+    private static final int PARALLEL_THRESHOLD = 1 << 10;
+    private static final int LEAF_SIZE = 16;
+    // Up to this 'n' the primes are sieved, binomials above multiply the range instead
+    private static final long SIEVE_LIMIT = Integer.MAX_VALUE;
+    // Binomials with a smaller 'k' multiply the range instead
+    private static final long SMALL_K = 64;
+
+    private FactorialEngine() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static BigInteger factorial(long n) {
+        if (n < 0) {
+            throw new MathException("Factorial of negatives is not defined");
+        }
+        if (n > SIEVE_LIMIT) {
+            throw new MathException("Factorial of " + n + " is too big");
+        }
+        if (n < 2) {
+            return BigInteger.ONE;
+        }
+        long[] primes = new PrimeSieve(n).toArray();
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            exponents[i] = legendre(n, primes[i]);
+        }
+        return fromExponents(primes, exponents);
+    }
+
+    static BigInteger binomial(long n, long k) {
+        if (k < 0 || k > n) {
+            throw new MathException("Binomial coefficient needs 0 <= k <= n");
+        }
+        k = Math.min(k, n - k);
+        if (k == 0) {
+            return BigInteger.ONE;
+        }
+        if (n > SIEVE_LIMIT || k <= SMALL_K) {
+            if (k > SIEVE_LIMIT) {
+                throw new MathException("Binomial coefficient of " + n + " over " + k + " is too big");
+            }
+            long[] range = new long[(int) k];
+            for (int i = 0; i < k; i++) {
+                range[i] = n - i;
+            }
+            return product(range, 0, range.length).divide(factorial(k));
+        }
+        long[] primes = new PrimeSieve(n).toArray();
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            long prime = primes[i];
+            exponents[i] = legendre(n, prime) - legendre(k, prime) - legendre(n - k, prime);
+        }
+        return fromExponents(primes, exponents);
+    }
+
+    /**
+     * @return the exponent of 'prime' in n!
+     */
+    private static int legendre(long n, long prime) {
+        long exponent = 0;
+        while (n >= prime) {
+            n /= prime;
+            exponent += n;
+        }
+        return Math.toIntExact(exponent);
+    }
+
+    /**
+     * @param primes ascending, starting with 2
+     * @param exponents
+     * @return the product of every prime to its exponent
+     */
+    private static BigInteger fromExponents(long[] primes, int[] exponents) {
+        int highest = 0;
+        for (int i = 1; i < exponents.length; i++) {
+            highest |= exponents[i];
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(highest);
+
+        List<Product> products = new ArrayList<>(bits);
+        long[] selected = new long[primes.length];
+        for (int bit = 0; bit < bits; bit++) {
+            int count = 0;
+            for (int i = 1; i < primes.length; i++) {
+                if (((exponents[i] >>> bit) & 1) != 0) {
+                    selected[count++] = primes[i];
+                }
+            }
+            long[] factors = new long[count];
+            System.arraycopy(selected, 0, factors, 0, count);
+            products.add(new Product(factors, 0, count));
+        }
+        ForkJoinPool.commonPool().invoke(new ForkAll(products));
+
+        BigInteger result = BigInteger.ONE;
+        for (int bit = bits - 1; bit >= 0; bit--) {
+            result = result.multiply(result).multiply(products.get(bit).join());
+        }
+        return result.shiftLeft(exponents[0]);
+    }
+
+    static BigInteger product(long[] factors, int from, int to) {
+        if (to - from <= PARALLEL_THRESHOLD) {
+            return sequentialProduct(factors, from, to);
+        }
+        return ForkJoinPool.commonPool().invoke(new Product(factors, from, to));
+    }
+
+    private static BigInteger sequentialProduct(long[] factors, int from, int to) {
+        if (to - from <= LEAF_SIZE) {
+            BigInteger result = BigInteger.ONE;
+            long current = 1;
+            for (int i = from; i < to; i++) {
+                long factor = factors[i];
+                if (current > Long.MAX_VALUE / factor) {
+                    result = result.multiply(BigInteger.valueOf(current));
+                    current = factor;
+                } else {
+                    current *= factor;
+                }
+            }
+            return result.multiply(BigInteger.valueOf(current));
+        }
+        int middle = (from + to) >>> 1;
+        return sequentialProduct(factors, from, middle).multiply(sequentialProduct(factors, middle, to));
+    }
+
+    private static class Product extends RecursiveTask<BigInteger> {
+
+        private final long[] factors;
+        private final int from;
+        private final int to;
+
+        private Product(long[] factors, int from, int to) {
+            this.factors = factors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return sequentialProduct(factors, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Product right = new Product(factors, middle, to);
+            right.fork();
+            BigInteger left = new Product(factors, from, middle).compute();
+            return left.multiply(right.join());
+        }
+
+    }
+
+    private static class ForkAll extends RecursiveAction {
+
+        private final List<Product> products;
+
+        private ForkAll(List<Product> products) {
+            this.products = products;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(products);
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -99,7 +99,9 @@ public class NumberUtils {
     }
 
     /**
-     * Time Complexity: O(√n)
+     * Deterministic Miller-Rabin for every long.
+     *
+     * Time Complexity: O(log(n))
      *
      * @since Version 1
      *
@@ -107,18 +109,7 @@ public class NumberUtils {
      * @return is prime yes or no.
      */
     public static boolean isPrime(long n) {
-        if (n < 2) return false;
-        if (n == 2 || n == 3) return true;
-        if (n % 2 == 0 || n % 3 == 0) return false;
-
-        long limit = (long) Math.sqrt(n);
-
-        for (long i = 5; i <= limit; i += 6) {
-            if (n % i == 0 || n % (i + 2) == 0) {
-                return false;
-            }
-        }
-        return true;
+        return Primes.isPrime(n);
     }
 
     public static boolean isFibonacci(long number) {
@@ -136,7 +127,7 @@ public class NumberUtils {
     }
 
     /**
-     * Time Complexity: O(n+n*√n)
+     * Time Complexity: O(n*log(log(n)))
      *
      * @since Version 1
      *
@@ -144,21 +135,29 @@ public class NumberUtils {
      * @return all primes between 0 and {@param n}
      */
     public static List<Long> getPrimes(long n) {
-        List<Long> primes = new ArrayList<>();
-        if (n < 1) {
-            return primes;
-        }
-        if (n > 1) {
-            primes.add(2L);
+        if (n < 2) {
+            return new ArrayList<>();
         }
-        for (long i = 1; i <= n; i += 2) {
-            if (isPrime(i)) {
-                primes.add(i);
-            }
+        long[] sieved = sieve(n).toArray();
+        List<Long> primes = new ArrayList<>(sieved.length);
+        for (long prime : sieved) {
+            primes.add(prime);
         }
         return primes;
     }
 
+    /**
+     * Time Complexity: O(n*log(log(n)))
+     *
+     * @since Version 2.4
+     *
+     * @param n the upper limit to the Primes sieved.
+     * @return all primes between 0 and {@param n} as a bitset
+     */
+    public static PrimeSieve sieve(long n) {
+        return new PrimeSieve(n);
+    }
+
     /**
      * Time Complexity: ~O(log(a + b))
      *
@@ -208,77 +207,29 @@ public class NumberUtils {
     }
 
     /**
-     * Time Complexity: O()
+     * Time Complexity: O(log(n)^2)
      *
      * @since Version 1
      *
      * @param n
-     * @return
+     * @return the smallest prime bigger than {@param n} or -1 if it does not fit into a long
      */
     public static long nextPrime(long n) {
-        if (isPrime(n)) {
-            long l = lowPrimes(n);
-            if (l != -1) {
-                return l;
-            }
-            n += 2;
-            if (n % 3 != 0 && isPrime(n)) {
-                return n;
-            }
-            n += 2;
-            if (n % 3 != 0 && isPrime(n)) {
-                return n;
-            }
-            for (long i = n + 2; i < Long.MAX_VALUE; i += 6) {
-                if (isPrime(i)) {
-                    return i;
-                }
-                if (isPrime(i + 2)) {
-                    return i + 2;
-                }
-            }
-        } else {
-            if (n < 2) {
-                return 2;
-            }
-            if (n % 2 == 0) {
-                n++;
-            }
-            if (n % 3 != 0 && isPrime(n)) {
-                return n;
-            }
-            n += 2;
-            if (n % 3 != 0 && isPrime(n)) {
-                return n;
-            }
-            n += 2;
-            for (long i = n; i < Long.MAX_VALUE; i += 6) {
-                if (isPrime(i)) {
-                    return i;
-                }
-                if (isPrime(i + 2)) {
-                    return i + 2;
-                }
-            }
+        if (n < 2) {
+            return 2;
         }
-        return -1;
-    }
-
-    private static int lowPrimes(long n) {
-        if (n == 2) {
-            return 3;
-        } else if (n == 3) {
-            return 5;
-        } else if (n == 5) {
-            return 7;
-        } else if (n == 7) {
-            return 11;
+        for (long i = (n + 1) | 1; i > 0; i += 2) {
+            if (isPrime(i)) {
+                return i;
+            }
         }
         return -1;
     }
 
     /**
-     * Time Complexity: O()
+     * Trial division by small primes, then pollard rho.
+     *
+     * Time Complexity: O(n^(1/4))
      *
      * @since Version 1
      *
@@ -286,33 +237,11 @@ public class NumberUtils {
      * @return
      */
     public static List<Long> primeFactorization(long n) {
-        if (n < 2) {
-            return new ArrayList<>();
-        }
         List<Long> primes = new ArrayList<>();
-        if (isPrime(n)) {
-            primes.add(n);
+        if (n < 2) {
             return primes;
         }
-
-        long currentPrime = 2;
-        while (!isPrime(n)) {
-            if (n < currentPrime) {
-                if (n != 1) {
-                    primes.add(n);
-                }
-                return primes;
-            }
-            while (n % currentPrime == 0) {
-                primes.add(currentPrime);
-                n = n / currentPrime;
-            }
-            currentPrime = nextPrime(currentPrime);
-        }
-
-        if (n != 1) {
-            primes.add(n);
-        }
+        Primes.factor(n, primes);
         return primes;
     }
 
@@ -584,9 +513,7 @@ public class NumberUtils {
     }
 
     /**
-     * Inputs bigger than   100.000 can need more than    20 seconds
-     * Inputs bigger than   400.000 can need more than  1:00 minute
-     * Inputs bigger than 1.000.000 can need more than 10:00 minutes
+     * Same as {@link #fastFactorial(BigInteger)}.
      *
      * @since Version 1.2
      *
@@ -601,16 +528,7 @@ public class NumberUtils {
         if (bigInteger.compareTo(BigInteger.ZERO) < 0) {
             throw new MathException("factorial of negatives is not defined");
         }
-        if (bigInteger.compareTo(BigInteger.ZERO) == 0) {
-            return BigInteger.ONE;
-        }
-        BigInteger num = BigInteger.ONE;
-        BigInteger b = bigInteger.add(BigInteger.ZERO);
-        while (b.compareTo(BigInteger.ZERO) > 0) {
-            num = num.multiply(b);
-            b = b.subtract(BigInteger.ONE);
-        }
-        return num;
+        return FactorialEngine.factorial(bigInteger.longValueExact());
     }
 
     // TODO: Check reduce out
@@ -649,9 +567,8 @@ public class NumberUtils {
     }
 
     /**
-     * Inputs bigger than   100.000 can need more than 13 seconds
-     * Inputs bigger than   400.000 can need more than 20 seconds
-     * Inputs bigger than 1.000.000 can need more than 30 seconds
+     * Builds the result from the prime factorization on the common ForkJoinPool.
+     * Inputs bigger than 1.000.000 can need more than 5 seconds
      *
      * @since Version 1.2
      *
@@ -663,13 +580,14 @@ public class NumberUtils {
      * @return
      */
     public static BigInteger fastFactorial(BigInteger bigInteger) {
-        return fastFactorial(bigInteger, BigInteger.valueOf(100000));
+        if (bigInteger.compareTo(BigInteger.ZERO) < 0) {
+            throw new ArithmeticException("factorial of negatives is not defined");
+        }
+        return FactorialEngine.factorial(bigInteger.longValueExact());
     }
 
     /**
-     * Inputs bigger than   100.000 can need more than 13 seconds
-     * Inputs bigger than   400.000 can need more than 20 seconds
-     * Inputs bigger than 1.000.000 can need more than 30 seconds
+     * The blocks are not needed anymore, same as {@link #fastFactorial(BigInteger)}.
      *
      * @since Version 1.2
      *
@@ -682,6 +600,15 @@ public class NumberUtils {
      * @return
      */
     public static BigInteger fastFactorial(BigInteger bigInteger, BigInteger blocks) {
+        return fastFactorial(bigInteger);
+    }
+
+    /**
+     * The former fastFactorial, the product of every block is computed on a
+     * new WorkerPool and the results are multiplied in rounds. Kept to compare
+     * with the factorization.
+     */
+    static BigInteger blockFactorial(BigInteger bigInteger, BigInteger blocks) {
         if (bigInteger.compareTo(BigInteger.ZERO) < 0) {
             throw new ArithmeticException("factorial of negatives is not defined");
         }
@@ -767,12 +694,13 @@ public class NumberUtils {
      * @param n
      * @param r
      * @return n over r or -1 if r < 0 or r > n
+     * @throws ArithmeticException if the result does not fit into a long
      */
     public static long over(long n, long r) {
         if (r < 0 || r > n) {
             return -1;
         }
-        return factorial(n) / (factorial(r) * factorial(n - r));
+        return FactorialEngine.binomial(n, r).longValueExact();
     }
 
     public static BigInteger over(long n, BigInteger r) {
@@ -797,38 +725,20 @@ public class NumberUtils {
         if (r.compareTo(BigInteger.ZERO) < 0 || r.compareTo(n) > 0) {
             return BigInteger.valueOf(-1);
         }
-
-        if (r.compareTo(BigInteger.ZERO) == 0) {
-            return BigInteger.ONE;
-        }
-
-        BigInteger a = BigInteger.ONE;
-        BigInteger b = BigInteger.ONE;
-        BigInteger c = n.subtract(r);
-
-        if (n.compareTo(r) > 0) {
-            if (c.compareTo(r) > 0) {
-                //System.out.println("a > " + a + " b > " + b + " c > " + c + " r > " + r + " n > " + n);
-                BigInteger i = c.subtract(r);
-                // not done yet
-            }
-            a = factorial(n, r);
-        } else if (n.compareTo(r) < 0) {
-            b = factorial(r, n);
-        } else {
-            a = fastFactorial(n);
-            b = fastFactorial(r);
-        }
-
-        return a.divide(b.multiply(fastFactorial(c)));
+        return FactorialEngine.binomial(n.longValueExact(), r.longValueExact());
     }
 
+    /**
+     * Same as {@link #over(BigInteger, BigInteger)}.
+     *
+     * @since Version 1.2
+     *
+     * @param n
+     * @param r
+     * @return n over r or -1 if r < 0 or r > n
+     */
     public static BigInteger fastOver(BigInteger n, BigInteger r) {
-        BigInteger blocks = n.divide(BigInteger.TEN);
-        if (blocks.compareTo(BigInteger.ZERO) == 0) {
-            blocks = BigInteger.TEN;
-        }
-        return fastFactorial(n, blocks).divide(fastFactorial(r, blocks).multiply(fastFactorial(n.subtract(r), blocks)));
+        return over(n, r);
     }
 
     public static long square(long n) {
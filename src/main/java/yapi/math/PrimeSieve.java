@@ -0,0 +1,190 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.math;
+
+import yapi.internal.runtimeexceptions.math.RangeException;
+
+import java.util.stream.IntStream;
+
+/**
+ * All primes up to a limit as a bitset over the odd numbers, one bit per odd
+ * number, so 10^9 takes about 60 MB. The sieve of Eratosthenes runs on
+ * segments that fit into the L1 cache, the segments are sieved in parallel
+ * and each one only writes its own words.
+ *
+ * @since Version 2.4
+ */
+public final class PrimeSieve {
+
+    // 32 KB of bits per segment
+    private static final int SEGMENT_WORDS = 1 << 12;
+    private static final long MAX_LIMIT = ((long) Integer.MAX_VALUE - 1) * 128;
+
+    private final long limit;
+    // Bit i stands for the odd number 2i + 1
+    private final long[] bits;
+
+    /**
+     * @since Version 2.4
+     *
+     * @param limit the biggest number to sieve, at most about 2.7 * 10^11
+     */
+    public PrimeSieve(long limit) {
+        if (limit > MAX_LIMIT) {
+            throw new RangeException("limit needs to be at most " + MAX_LIMIT);
+        }
+        this.limit = Math.max(limit, 1);
+        long oddNumbers = (this.limit + 1) / 2;
+        bits = new long[(int) ((oddNumbers + 63) / 64)];
+
+        int[] basePrimes = basePrimes((int) Math.sqrt(this.limit));
+        int segments = (bits.length + SEGMENT_WORDS - 1) / SEGMENT_WORDS;
+        IntStream.range(0, segments).parallel().forEach(segment -> sieve(segment, basePrimes));
+
+        // 1 is not a prime, and nothing above the limit
+        bits[0] &= ~1L;
+        int tail = (int) (oddNumbers % 64);
+        if (tail != 0) {
+            bits[bits.length - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    /**
+     * @return the odd primes up to 'limit' with a simple sieve
+     */
+    private static int[] basePrimes(int limit) {
+        boolean[] composite = new boolean[limit + 1];
+        int count = 0;
+        for (int i = 3; i <= limit; i += 2) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j <= limit; j += 2 * i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+        int[] primes = new int[count];
+        count = 0;
+        for (int i = 3; i <= limit; i += 2) {
+            if (!composite[i]) {
+                primes[count++] = i;
+            }
+        }
+        return primes;
+    }
+
+    private void sieve(int segment, int[] basePrimes) {
+        int fromWord = segment * SEGMENT_WORDS;
+        int toWord = Math.min(fromWord + SEGMENT_WORDS, bits.length);
+        for (int i = fromWord; i < toWord; i++) {
+            bits[i] = -1L;
+        }
+        long from = (long) fromWord * 64;
+        long to = (long) toWord * 64;
+        for (int p : basePrimes) {
+            long index = ((long) p * p - 1) / 2;
+            if (index >= to) {
+                break;
+            }
+            if (index < from) {
+                // First odd multiple of p at or after the number 2 * from + 1
+                long multiple = (2 * from + 1 + p - 1) / p;
+                if ((multiple & 1) == 0) {
+                    multiple++;
+                }
+                index = (multiple * p - 1) / 2;
+            }
+            for (; index < to; index += p) {
+                bits[(int) (index >>> 6)] &= ~(1L << index);
+            }
+        }
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param n
+     * @return is prime yes or no.
+     */
+    public boolean isPrime(long n) {
+        if (n > limit) {
+            throw new RangeException(n + " is above the limit " + limit);
+        }
+        if (n < 3) {
+            return n == 2;
+        }
+        if ((n & 1) == 0) {
+            return false;
+        }
+        long index = n >>> 1;
+        return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the smallest prime bigger than 'n' or -1 if there is none up to the limit
+     */
+    public long nextPrime(long n) {
+        if (n < 2) {
+            return limit >= 2 ? 2 : -1;
+        }
+        long index = (n + 1) >>> 1;
+        if ((index >>> 6) >= bits.length) {
+            return -1;
+        }
+        int word = (int) (index >>> 6);
+        long current = bits[word] & (-1L << index);
+        while (current == 0) {
+            if (++word >= bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        return ((long) word * 64 + Long.numberOfTrailingZeros(current)) * 2 + 1;
+    }
+
+    /**
+     * @return the amount of primes up to the limit
+     */
+    public long count() {
+        long count = limit >= 2 ? 1 : 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return the primes up to the limit in ascending order
+     */
+    public long[] toArray() {
+        long count = count();
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new RangeException("Too many primes for an array: " + count);
+        }
+        long[] primes = new long[(int) count];
+        int i = 0;
+        if (limit >= 2) {
+            primes[i++] = 2;
+        }
+        for (int word = 0; word < bits.length; word++) {
+            long current = bits[word];
+            while (current != 0) {
+                primes[i++] = ((long) word * 64 + Long.numberOfTrailingZeros(current)) * 2 + 1;
+                current &= current - 1;
+            }
+        }
+        return primes;
+    }
+
+    @Override
+    public String toString() {
+        return "PrimeSieve{" +
+                "limit=" + limit +
+                '}';
+    }
+
+}
\ No newline at end of file
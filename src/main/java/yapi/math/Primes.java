@@ -0,0 +1,213 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.math;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Primality test and factorization for 64 bit numbers. All modular
+ * arithmetic for bigger numbers runs in Montgomery form, so there is no
+ * division and no BigInteger in the inner loops.
+ */
+final class Primes {
+
+    // Testing these bases is deterministic for every n < 3.18 * 10^23, which covers every long
+    private static final long[] BASES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+
+    private static final int[] SMALL_PRIMES = {
+            2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71, 73, 79, 83, 89, 97,
+            101, 103, 107, 109, 113, 127, 131, 137, 139, 149, 151, 157, 163, 167, 173, 179, 181, 191, 193,
+            197, 199, 211, 223, 227, 229, 233, 239, 241, 251
+    };
+    // Every composite below this has a factor in SMALL_PRIMES
+    private static final long SMALL_LIMIT = 257L * 257L;
+
+    private Primes() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static boolean isPrime(long n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int p : SMALL_PRIMES) {
+            if (n % p == 0) {
+                return n == p;
+            }
+        }
+        if (n < SMALL_LIMIT) {
+            return true;
+        }
+
+        Montgomery montgomery = new Montgomery(n);
+        long minusOne = montgomery.to(n - 1);
+        int s = Long.numberOfTrailingZeros(n - 1);
+        long d = (n - 1) >>> s;
+        for (long base : BASES) {
+            long x = montgomery.pow(montgomery.to(base), d);
+            if (x == montgomery.one || x == minusOne) {
+                continue;
+            }
+            boolean composite = true;
+            for (int i = 1; i < s; i++) {
+                x = montgomery.multiply(x, x);
+                if (x == minusOne) {
+                    composite = false;
+                    break;
+                }
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the prime factors of 'n' in ascending order.
+     */
+    static void factor(long n, List<Long> factors) {
+        int start = factors.size();
+        for (int p : SMALL_PRIMES) {
+            while (n % p == 0) {
+                factors.add((long) p);
+                n /= p;
+            }
+        }
+        factorLarge(n, factors);
+        Collections.sort(factors.subList(start, factors.size()));
+    }
+
+    private static void factorLarge(long n, List<Long> factors) {
+        if (n == 1) {
+            return;
+        }
+        if (isPrime(n)) {
+            factors.add(n);
+            return;
+        }
+        long divisor = pollardRho(n);
+        factorLarge(divisor, factors);
+        factorLarge(n / divisor, factors);
+    }
+
+    /**
+     * Brent's variant, the differences are multiplied up and only every
+     * 128 steps checked with a gcd.
+     *
+     * @return a non trivial divisor of the composite 'n'
+     */
+    private static long pollardRho(long n) {
+        Montgomery montgomery = new Montgomery(n);
+        for (long c = 1; ; c++) {
+            long y = montgomery.to(2);
+            long x = y;
+            long saved = y;
+            long product = montgomery.one;
+            long divisor = 1;
+            for (int r = 1; divisor == 1; r <<= 1) {
+                x = y;
+                for (int i = 0; i < r; i++) {
+                    y = montgomery.next(y, c);
+                }
+                for (int k = 0; k < r && divisor == 1; k += 128) {
+                    saved = y;
+                    for (int i = 0; i < Math.min(128, r - k); i++) {
+                        y = montgomery.next(y, c);
+                        product = montgomery.multiply(product, Math.abs(x - y));
+                    }
+                    divisor = gcd(product, n);
+                }
+            }
+            if (divisor == n) {
+                // The batch overshot, redo it one step at a time
+                do {
+                    saved = montgomery.next(saved, c);
+                    divisor = gcd(Math.abs(x - saved), n);
+                } while (divisor == 1);
+            }
+            if (divisor != n) {
+                return divisor;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Arithmetic modulo an odd 'n' < 2^63 on numbers multiplied by R = 2^64.
+     */
+    private static final class Montgomery {
+
+        private final long n;
+        // -n^-1 mod 2^64
+        private final long nInverse;
+        // R^2 mod n, to move numbers into Montgomery form
+        private final long r2;
+        // 1 in Montgomery form
+        private final long one;
+
+        private Montgomery(long n) {
+            this.n = n;
+            long inverse = n;
+            for (int i = 0; i < 5; i++) {
+                inverse *= 2 - n * inverse;
+            }
+            nInverse = -inverse;
+            long r = Long.remainderUnsigned(-n, n);
+            one = r;
+            long square = r;
+            for (int i = 0; i < 64; i++) {
+                square = add(square, square);
+            }
+            r2 = square;
+        }
+
+        private long add(long a, long b) {
+            long sum = a + b;
+            return Long.compareUnsigned(sum, n) >= 0 ? sum - n : sum;
+        }
+
+        private long multiply(long a, long b) {
+            long low = a * b;
+            long high = Math.multiplyHigh(a, b);
+            long m = low * nInverse;
+            long mn = Math.multiplyHigh(m, n) + ((m >> 63) & n);
+            long result = high + mn + (low != 0 ? 1 : 0);
+            return Long.compareUnsigned(result, n) >= 0 ? result - n : result;
+        }
+
+        private long to(long a) {
+            return multiply(a % n, r2);
+        }
+
+        private long pow(long base, long exponent) {
+            long result = one;
+            while (exponent > 0) {
+                if ((exponent & 1) != 0) {
+                    result = multiply(result, base);
+                }
+                base = multiply(base, base);
+                exponent >>>= 1;
+            }
+            return result;
+        }
+
+        // The pseudo random step x^2 + c of pollard rho
+        private long next(long x, long c) {
+            return add(multiply(x, x), c);
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.runtime;
+
+import org.fusesource.jansi.internal.WindowsSupport;
+import yapi.os.OSCheck;
+import yapi.os.OSType;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Starts the processes that read the terminal size. It holds no state, so
+ * {@link TerminalSize} can probe from its static initializer without
+ * initializing {@link TerminalUtils}, which reads the size back.
+ */
+final class TerminalProbe {
+
+    private TerminalProbe() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static Dimension probe() {
+        OSType type = OSCheck.getType();
+
+        switch (type) {
+            case MAC_OS:
+                return sttySize(getDefaultSizeMacOS());
+            case LINUX:
+                return sttySize(getDefaultSizeLinux());
+            case WINDOWS:
+                return getSizeWindows();
+            default:
+                break;
+        }
+
+        return new Dimension(-1, -1);
+    }
+
+    static Dimension getDefaultSizeMacOS() {
+        return new Dimension(80, 24);
+    }
+
+    static Dimension getDefaultSizeLinux() {
+        return new Dimension(80, 32);
+    }
+
+    private static Dimension sttySize(Dimension defaultSize) {
+        try {
+            // One process for both values, 'stty size' prints the rows and then the columns
+            String[] size = getString(RuntimeUtils.exec("bash", "-c", "stty size 2> /dev/null < /dev/tty").getInputStream()).split(" ");
+            int width = size.length == 2 ? getInt(size[1]) : -1;
+            int height = size.length == 2 ? getInt(size[0]) : -1;
+            if (width == -1 || height == -1) {
+                throw new IOException();
+            }
+            return new Dimension(width, height);
+        } catch (IOException e) {
+
+        }
+        return defaultSize;
+    }
+
+    static Dimension getDefaultSizeWindows() {
+        return new Dimension(120, 30);
+    }
+
+    private static Dimension getSizeWindows() {
+        try {
+            int width = WindowsSupport.getWindowsTerminalWidth();
+            int height = WindowsSupport.getWindowsTerminalHeight();
+            if (width == -1 || height == -1) {
+                throw new IOException();
+            }
+            return new Dimension(width, height);
+        } catch (Exception e) {
+
+        }
+        return getDefaultSizeWindows();
+    }
+
+    private static String getString(InputStream inputStream) throws IOException {
+        int c;
+        StringBuilder st = new StringBuilder();
+        while ((c = inputStream.read()) != -1) {
+            st.append((char)c);
+        }
+        inputStream.close();
+        return st.toString().trim();
+    }
+
+    private static int getInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.runtime;
+
+import sun.misc.Signal;
+import yapi.os.OSCheck;
+import yapi.os.OSType;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caches the size of the terminal, so reading it costs a volatile read
+ * instead of starting processes. The size is probed again when the terminal
+ * sends SIGWINCH and, for terminals or systems without that signal, when a
+ * read finds the last probe older than {@link #getInterval()}. Probing
+ * happens on a background thread, a read never waits for it.
+ *
+ * @since Version 2.4
+ */
+public final class TerminalSize {
+
+    private TerminalSize() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    // Width in the upper and height in the lower 32 bit, written at once so readers never see a mix
+    private static volatile long size;
+    private static volatile long lastProbe;
+    private static volatile long interval = TimeUnit.SECONDS.toNanos(1);
+
+    private static final AtomicBoolean requested = new AtomicBoolean(false);
+    private static Thread refresher = null;
+    private static boolean signalHandler = false;
+
+    static {
+        probe();
+        OSType osType = OSCheck.getType();
+        if (osType == OSType.LINUX || osType == OSType.MAC_OS) {
+            try {
+                Signal.handle(new Signal("WINCH"), sig -> {
+                    request();
+                    TerminalUtils.resizing();
+                });
+                signalHandler = true;
+            } catch (IllegalArgumentException | UnsupportedOperationException e) {
+                // The bounded interval still picks up changes
+            }
+        }
+    }
+
+    /**
+     * @return the cached width or -1 if the OSType is unknown
+     */
+    public static int getWidth() {
+        return (int) (current() >> 32);
+    }
+
+    /**
+     * @return the cached height or -1 if the OSType is unknown
+     */
+    public static int getHeight() {
+        return (int) current();
+    }
+
+    public static Dimension getDimensions() {
+        long current = current();
+        return new Dimension((int) (current >> 32), (int) current);
+    }
+
+    /**
+     * Probes the size now on the calling thread.
+     *
+     * @return the new size
+     */
+    public static Dimension refresh() {
+        probe();
+        return getDimensions();
+    }
+
+    /**
+     * @return if SIGWINCH updates the size as soon as the terminal is resized
+     */
+    public static boolean hasSignalHandler() {
+        return signalHandler;
+    }
+
+    /**
+     * @return the age in milliseconds after which a read probes the size again
+     */
+    public static long getInterval() {
+        return TimeUnit.NANOSECONDS.toMillis(interval);
+    }
+
+    public static void setInterval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        interval = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static long current() {
+        if (System.nanoTime() - lastProbe > interval) {
+            request();
+        }
+        return size;
+    }
+
+    private static void probe() {
+        Dimension dimension = TerminalProbe.probe();
+        size = (long) dimension.width << 32 | (dimension.height & 0xFFFFFFFFL);
+        lastProbe = System.nanoTime();
+    }
+
+    private static void request() {
+        if (requested.compareAndSet(false, true)) {
+            LockSupport.unpark(refresher());
+        }
+    }
+
+    private static synchronized Thread refresher() {
+        if (refresher == null) {
+            refresher = new Thread(ThreadUtils.yapiGroup, () -> {
+                while (true) {
+                    // Spurious wake ups only cost one more loop
+                    LockSupport.park();
+                    if (requested.getAndSet(false)) {
+                        probe();
+                    }
+                }
+            });
+            refresher.setName("Terminal Size");
+            refresher.setDaemon(true);
+            refresher.start();
+        }
+        return refresher;
+    }
+
+}
\ No newline at end of file
@@ -4,15 +4,10 @@
 
 package yapi.runtime;
 
-import org.fusesource.jansi.internal.WindowsSupport;
-import sun.misc.Signal;
-import sun.misc.SignalHandler;
 import yapi.os.OSCheck;
 import yapi.os.OSType;
 
 import java.awt.*;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,7 +18,7 @@ public class TerminalUtils {
     }
 
     private static Map<Long, Hook> resizeHooks = new HashMap<>();
-    private static Dimension lastDimensions = getDimensions();
+    private static Dimension lastDimensions = null;
 
     private static boolean handler = false;
     private static boolean running = true;
@@ -70,11 +65,12 @@ public class TerminalUtils {
     }
 
     private static void createResizeEventThread() {
+        lastDimensions = getDimensions();
         Thread eventThread = new Thread(() -> {
             while (running) {
                 ThreadUtils.sleep(10);
 
-                Dimension dim = getDimensions();
+                Dimension dim = TerminalSize.refresh();
                 if (dim.width != lastDimensions.width || dim.height != lastDimensions.height) {
                     resizing();
                 }
@@ -87,17 +83,14 @@ public class TerminalUtils {
         eventThread.start();
     }
 
-    private static void createResizeEventHandle() throws Exception {
-        SignalHandler signalHandler = (Signal sig) -> {
-            if (!sig.getName().equals("WINCH")) {
-                return;
-            }
-            resizing();
-        };
-        Signal.handle(new Signal("WINCH"), signalHandler);
+    private static void createResizeEventHandle() {
+        // The handler of TerminalSize calls resizing()
+        if (!TerminalSize.hasSignalHandler()) {
+            throw new UnsupportedOperationException("SIGWINCH is not available");
+        }
     }
 
-    private static void resizing() {
+    static void resizing() {
         lastResize = System.currentTimeMillis();
     }
 
@@ -126,21 +119,11 @@ public class TerminalUtils {
         return OSCheck.getType();
     }
 
+    /**
+     * @return the cached width, see {@link TerminalSize}
+     */
     public static int getWidth() {
-        OSType type = getOSType();
-
-        switch (type) {
-            case MAC_OS:
-                return getSizeMacOS().width;
-            case LINUX:
-                return getSizeLinux().width;
-            case WINDOWS:
-                return getSizeWindows().width;
-            default:
-                break;
-        }
-
-        return -1;
+        return TerminalSize.getWidth();
     }
 
     public static int getWidthOrDefault() {
@@ -151,21 +134,11 @@ public class TerminalUtils {
         return i;
     }
 
+    /**
+     * @return the cached height, see {@link TerminalSize}
+     */
     public static int getHeight() {
-        OSType type = getOSType();
-
-        switch (type) {
-            case MAC_OS:
-                return getSizeMacOS().height;
-            case LINUX:
-                return getSizeLinux().height;
-            case WINDOWS:
-                return getSizeWindows().height;
-            default:
-                break;
-        }
-
-        return -1;
+        return TerminalSize.getHeight();
     }
 
     public static int getHeightOrDefault() {
@@ -176,21 +149,11 @@ public class TerminalUtils {
         return i;
     }
 
+    /**
+     * @return the cached size, see {@link TerminalSize}
+     */
     public static Dimension getDimensions() {
-        OSType type = getOSType();
-
-        switch (type) {
-            case MAC_OS:
-                return getSizeMacOS();
-            case LINUX:
-                return getSizeLinux();
-            case WINDOWS:
-                return getSizeWindows();
-            default:
-                break;
-        }
-
-        return new Dimension(-1, -1);
+        return TerminalSize.getDimensions();
     }
 
     public static Dimension getDimensionsOrDefault() {
@@ -202,75 +165,15 @@ public class TerminalUtils {
     }
 
     public static Dimension getDefaultSizeMacOS() {
-        return new Dimension(80, 24);
-    }
-
-    private static Dimension getSizeMacOS() {
-        try {
-            int width = getInt(RuntimeUtils.exec("bash", "-c", "tput cols 2> /dev/tty").getInputStream());
-            int height = getInt(RuntimeUtils.exec("bash", "-c", "tput lines 2> /dev/tty").getInputStream());
-            if (width == -1 || height == -1) {
-                throw new IOException();
-            }
-            return new Dimension(width, height);
-        } catch (IOException e) {
-
-        }
-        return getDefaultSizeMacOS();
+        return TerminalProbe.getDefaultSizeMacOS();
     }
 
     public static Dimension getDefaultSizeLinux() {
-        return new Dimension(80, 32);
-    }
-
-    private static Dimension getSizeLinux() {
-        try {
-            // bash -c "stty size 2> /dev/tty"
-            int width = getInt(RuntimeUtils.exec("bash", "-c", "tput cols 2> /dev/tty").getInputStream());
-            int height = getInt(RuntimeUtils.exec("bash", "-c", "tput lines 2> /dev/tty").getInputStream());
-            if (width == -1 || height == -1) {
-                throw new IOException();
-            }
-            return new Dimension(width, height);
-        } catch (IOException e) {
-
-        }
-        return getDefaultSizeLinux();
+        return TerminalProbe.getDefaultSizeLinux();
     }
 
     public static Dimension getDefaultSizeWindows() {
-        return new Dimension(120, 30);
-    }
-
-    private static Dimension getSizeWindows() {
-        try {
-            int width = WindowsSupport.getWindowsTerminalWidth();
-            int height = WindowsSupport.getWindowsTerminalHeight();
-            if (width == -1 || height == -1) {
-                throw new IOException();
-            }
-            return new Dimension(width, height);
-        } catch (Exception e) {
-
-        }
-        return getDefaultSizeWindows();
-    }
-
-    private static int getInt(InputStream inputStream) throws IOException {
-        int c;
-        StringBuilder st = new StringBuilder();
-        while ((c = inputStream.read()) != -1) {
-            st.append((char)c);
-        }
-        return getInt(st.toString().trim());
-    }
-
-    private static int getInt(String s) {
-        try {
-            return Integer.parseInt(s);
-        } catch (NumberFormatException e) {
-            return -1;
-        }
+        return TerminalProbe.getDefaultSizeWindows();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.runtime.taskmanager;
+
+import org.jutils.jprocesses.model.ProcessInfo;
+
+/**
+ * One process as seen by the last {@link ProcessSampler#sample()}. The
+ * sampler updates the same object on every sample, so it should only be
+ * read inside {@link ProcessSampler#forEach(java.util.function.Consumer)}
+ * or copied with {@link #toProcessInfo()}. The units follow the ones of
+ * jProcesses on Linux: memory in KB and the priority as nice value.
+ *
+ * @since Version 2.4
+ */
+public final class ProcessSample {
+
+    final int pid;
+
+    String name;
+    String command;
+    String user;
+
+    double cpuUsage;
+    long physicalMemory;
+    long virtualMemory;
+    int priority;
+
+    // Jiffies since boot
+    long startTime;
+    // Jiffies spent in user and kernel mode
+    long cpuTime;
+
+    // Sample the process was last seen in
+    long generation;
+
+    ProcessSample(int pid) {
+        this.pid = pid;
+    }
+
+    public int getPID() {
+        return pid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * @return the usage since the last sample in percent of one core, since the start for a new process
+     */
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    public long getPhysicalMemory() {
+        return physicalMemory;
+    }
+
+    public long getVirtualMemory() {
+        return virtualMemory;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the cpu time as '[DD-]HH:MM:SS'
+     */
+    public String getTime() {
+        return ProcessSampler.formatCpuTime(cpuTime);
+    }
+
+    /**
+     * @return the start as 'HH:mm:ss'
+     */
+    public String getStartTime() {
+        return ProcessSampler.formatStartTime(startTime);
+    }
+
+    public ProcessInfo toProcessInfo() {
+        return new ProcessInfo(Integer.toString(pid), getTime(), name, user, Long.toString(virtualMemory), Long.toString(physicalMemory),
+                Double.toString(Math.round(cpuUsage * 10) / 10.0), getStartTime(), Integer.toString(priority), command);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessSample{" +
+                "pid=" + pid +
+                ", name='" + name + '\'' +
+                ", user='" + user + '\'' +
+                ", cpuUsage=" + cpuUsage +
+                ", physicalMemory=" + physicalMemory +
+                '}';
+    }
+
+}
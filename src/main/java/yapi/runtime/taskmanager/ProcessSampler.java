@@ -0,0 +1,349 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.runtime.taskmanager;
+
+import org.jutils.jprocesses.model.ProcessInfo;
+import yapi.os.OSCheck;
+import yapi.os.OSType;
+import yapi.runtime.RuntimeUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Samples the process table on Linux from '/proc' instead of starting 'ps'.
+ * Every sample reads '/proc/[pid]/stat' into one reusable buffer, only new
+ * processes also read 'status' and 'cmdline'. The processes are kept in a
+ * map by PID and updated in place, the cpu usage is the difference of the
+ * used jiffies to the last sample.
+ *
+ * @since Version 2.4
+ */
+public final class ProcessSampler {
+
+    private static final File PROC = new File("/proc");
+    private static final DateTimeFormatter START_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final long CLOCK_TICKS;
+    private static final long PAGE_SIZE;
+    // Seconds since the epoch
+    private static final long BOOT_TIME;
+
+    static {
+        CLOCK_TICKS = getconf("CLK_TCK", 100);
+        PAGE_SIZE = getconf("PAGESIZE", 4096);
+        long bootTime = 0;
+        if (isSupported()) {
+            try {
+                for (String line : Files.readAllLines(Paths.get("/proc/stat"))) {
+                    if (line.startsWith("btime ")) {
+                        bootTime = Long.parseLong(line.substring(6).trim());
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Start times are relative to the epoch then
+            }
+        }
+        BOOT_TIME = bootTime;
+    }
+
+    private static Map<Integer, String> users = null;
+
+    private final Map<Integer, ProcessSample> processes = new HashMap<>();
+    private final byte[] buffer = new byte[4096];
+    private final long[] fields = new long[24];
+    private long generation = 0;
+    private long lastSample = 0;
+
+    /**
+     * @return if '/proc' can be read, only on Linux
+     */
+    public static boolean isSupported() {
+        return OSCheck.getType() == OSType.LINUX && new File(PROC, "self/stat").canRead();
+    }
+
+    /**
+     * Reads the process table and updates the samples.
+     *
+     * @since Version 2.4
+     *
+     * @return the number of processes
+     */
+    public synchronized int sample() {
+        long now = System.nanoTime();
+        double elapsedTicks = lastSample == 0 ? 0 : (now - lastSample) / 1e9 * CLOCK_TICKS;
+        long uptimeTicks = uptimeTicks();
+        generation++;
+
+        String[] entries = PROC.list();
+        if (entries == null) {
+            return 0;
+        }
+        for (String entry : entries) {
+            int pid = parsePID(entry);
+            if (pid >= 0) {
+                update(pid, uptimeTicks, elapsedTicks);
+            }
+        }
+        processes.values().removeIf(process -> process.generation != generation);
+        lastSample = now;
+        return processes.size();
+    }
+
+    /**
+     * Reads only the files of 'pid' instead of the whole table. A process
+     * seen for the first time gets its average cpu usage since it started.
+     *
+     * @since Version 2.4
+     *
+     * @return the sample of 'pid' or null if there is no such process
+     */
+    public synchronized ProcessSample sample(int pid) {
+        ProcessSample process = update(pid, uptimeTicks(), 0);
+        if (process == null) {
+            processes.remove(pid);
+        }
+        return process;
+    }
+
+    private ProcessSample update(int pid, long uptimeTicks, double elapsedTicks) {
+        int length = read("/proc/" + pid + "/stat");
+        if (length <= 0 || !parseStat(length)) {
+            return null;
+        }
+        // fields[i] is field i + 3 of stat, the first two are the PID and the name
+        long startTime = fields[19];
+        long cpuTime = fields[11] + fields[12];
+
+        ProcessSample process = processes.get(pid);
+        if (process == null || process.startTime != startTime) {
+            process = new ProcessSample(pid);
+            process.startTime = startTime;
+            process.name = parseName(length);
+            readDetails(process);
+            processes.put(pid, process);
+            long lifetime = uptimeTicks - startTime;
+            process.cpuUsage = lifetime > 0 ? cpuTime * 100.0 / lifetime : 0;
+        } else if (elapsedTicks > 0) {
+            process.cpuUsage = (cpuTime - process.cpuTime) * 100.0 / elapsedTicks;
+        }
+        process.cpuTime = cpuTime;
+        process.priority = (int) fields[16];
+        process.virtualMemory = fields[20] / 1024;
+        process.physicalMemory = fields[21] * PAGE_SIZE / 1024;
+        process.generation = generation;
+        return process;
+    }
+
+    /**
+     * @return the last sample of 'pid' or null
+     */
+    public synchronized ProcessSample get(int pid) {
+        return processes.get(pid);
+    }
+
+    /**
+     * Runs 'consumer' for every process of the last sample, no sample can happen meanwhile.
+     */
+    public synchronized void forEach(Consumer<ProcessSample> consumer) {
+        processes.values().forEach(consumer);
+    }
+
+    public synchronized List<ProcessInfo> getProcessInfos() {
+        List<ProcessInfo> processInfos = new ArrayList<>(processes.size());
+        List<Integer> pids = new ArrayList<>(processes.keySet());
+        Collections.sort(pids);
+        for (int pid : pids) {
+            processInfos.add(processes.get(pid).toProcessInfo());
+        }
+        return processInfos;
+    }
+
+    public synchronized int size() {
+        return processes.size();
+    }
+
+    private static int parsePID(String s) {
+        int pid = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || i > 9) {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return s.isEmpty() ? -1 : pid;
+    }
+
+    /**
+     * @return the bytes read into the buffer or -1 if the file is gone
+     */
+    private int read(String path) {
+        try (FileInputStream in = new FileInputStream(path)) {
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            return length;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the numbers after the name, which is in brackets and can
+     * contain spaces and brackets itself, so it ends at the last ')'.
+     */
+    private boolean parseStat(int length) {
+        int i = length - 1;
+        while (i >= 0 && buffer[i] != ')') {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        i += 2;
+        int field = 0;
+        while (i < length && field < fields.length) {
+            long value = 0;
+            boolean negative = false;
+            if (buffer[i] == '-') {
+                negative = true;
+                i++;
+            }
+            while (i < length && buffer[i] >= '0' && buffer[i] <= '9') {
+                value = value * 10 + (buffer[i] - '0');
+                i++;
+            }
+            // The state is a letter and stays 0
+            while (i < length && buffer[i] != ' ' && buffer[i] != '\n') {
+                i++;
+            }
+            fields[field++] = negative ? -value : value;
+            i++;
+        }
+        return field == fields.length;
+    }
+
+    private String parseName(int length) {
+        int from = 0;
+        while (from < length && buffer[from] != '(') {
+            from++;
+        }
+        int to = length - 1;
+        while (to > from && buffer[to] != ')') {
+            to--;
+        }
+        return new String(buffer, from + 1, Math.max(0, to - from - 1), StandardCharsets.UTF_8);
+    }
+
+    private void readDetails(ProcessSample process) {
+        String directory = "/proc/" + process.pid;
+        process.user = "?";
+        int length = read(directory + "/status");
+        if (length > 0) {
+            String status = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            int uid = status.indexOf("\nUid:");
+            if (uid >= 0) {
+                int from = uid + 5;
+                while (from < status.length() && Character.isWhitespace(status.charAt(from))) {
+                    from++;
+                }
+                int to = from;
+                while (to < status.length() && Character.isDigit(status.charAt(to))) {
+                    to++;
+                }
+                process.user = user(status.substring(from, to));
+            }
+        }
+
+        length = read(directory + "/cmdline");
+        if (length > 0) {
+            while (length > 0 && buffer[length - 1] == 0) {
+                length--;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == 0) {
+                    buffer[i] = ' ';
+                }
+            }
+            process.command = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        } else {
+            // Kernel threads have no command line, 'ps' shows their name in brackets
+            process.command = "[" + process.name + "]";
+        }
+    }
+
+    private static synchronized String user(String uid) {
+        if (users == null) {
+            users = new HashMap<>();
+            try {
+                for (String line : Files.readAllLines(Paths.get("/etc/passwd"))) {
+                    String[] parts = line.split(":");
+                    if (parts.length > 2) {
+                        users.put(Integer.parseInt(parts[2]), parts[0]);
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Unknown users are shown by their uid
+            }
+        }
+        try {
+            return users.getOrDefault(Integer.parseInt(uid), uid);
+        } catch (NumberFormatException e) {
+            return uid;
+        }
+    }
+
+    private long uptimeTicks() {
+        int length = read("/proc/uptime");
+        int end = 0;
+        while (end < length && buffer[end] != ' ') {
+            end++;
+        }
+        try {
+            return (long) (Double.parseDouble(new String(buffer, 0, end, StandardCharsets.US_ASCII)) * CLOCK_TICKS);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String formatCpuTime(long ticks) {
+        long seconds = ticks / CLOCK_TICKS;
+        long days = seconds / 86400;
+        String time = String.format("%02d:%02d:%02d", seconds / 3600 % 24, seconds / 60 % 60, seconds % 60);
+        return days > 0 ? days + "-" + time : time;
+    }
+
+    static String formatStartTime(long ticks) {
+        long millis = BOOT_TIME * 1000 + ticks * 1000 / CLOCK_TICKS;
+        return LocalTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).format(START_TIME);
+    }
+
+    private static long getconf(String name, long fallback) {
+        if (OSCheck.getType() != OSType.LINUX) {
+            return fallback;
+        }
+        try {
+            Process process = RuntimeUtils.exec("getconf", name);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line = reader.readLine();
+                return line == null ? fallback : Long.parseLong(line.trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+}
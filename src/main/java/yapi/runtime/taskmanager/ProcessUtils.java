@@ -17,7 +17,15 @@ public class ProcessUtils {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * On Linux the processes are read from '/proc', see {@link ProcessSampler}.
+     */
     public static List<ProcessInfo> getProcesses() {
+        if (ProcessSampler.isSupported()) {
+            ProcessSampler sampler = new ProcessSampler();
+            sampler.sample();
+            return sampler.getProcessInfos();
+        }
         return JProcesses.getProcessList();
     }
 
@@ -31,6 +39,11 @@ public class ProcessUtils {
     }
 
     public static List<ProcessInfo> getProcesses(String name) {
+        if (ProcessSampler.isSupported()) {
+            List<ProcessInfo> processInfos = getProcesses();
+            processInfos.removeIf(processInfo -> !processInfo.getName().equals(name));
+            return processInfos;
+        }
         return JProcesses.getProcessList(name);
     }
 
@@ -44,6 +57,10 @@ public class ProcessUtils {
     }
 
     public static ProcessInfo getProcess(int pid) {
+        if (ProcessSampler.isSupported()) {
+            ProcessSample sample = new ProcessSampler().sample(pid);
+            return sample == null ? null : sample.toProcessInfo();
+        }
         return JProcesses.getProcess(pid);
     }
 
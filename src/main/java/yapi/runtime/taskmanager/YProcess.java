@@ -14,9 +14,11 @@ import yapi.runtime.ThreadUtils;
 import yapi.string.StringFormatting;
 import yapi.ui.console.*;
 
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class YProcess {
 
@@ -40,31 +42,24 @@ public class YProcess {
     }
 
     private static Thread updater;
-    private static List<YProcess> allProcesses = new LinkedList<>();
+    private static Map<Integer, YProcess> allProcesses = new ConcurrentHashMap<>();
+    private static volatile long updateInterval = 500;
 
-    private static void createUpdater() {
+    private static synchronized void createUpdater() {
         if (updater != null) {
             return;
         }
 
         updater = new Thread(ThreadUtils.yapiGroup, () -> {
+            // jProcesses starts 'ps' for every update, on Linux '/proc' is read directly
+            ProcessSampler sampler = ProcessSampler.isSupported() ? new ProcessSampler() : null;
             while (true) {
-                List<ProcessInfo> processInfos = ProcessUtils.getProcesses();
-                List<Integer> pids = createPIDList(processInfos);
-
-                for (int i = allProcesses.size() - 1; i >= 0; i--) {
-                    YProcess process = allProcesses.get(i);
-                    if (!pids.contains(process.getPID())) {
-                        allProcesses.remove(i);
-                        continue;
-                    }
-                    if (!processInfos.get(pids.indexOf(process.getPID())).getCommand().equals(allProcesses.get(i).getCommand())) {
-                        allProcesses.remove(i);
-                        continue;
-                    }
-                    process.assemble(processInfos.get(pids.indexOf(process.getPID())));
+                if (sampler != null) {
+                    update(sampler);
+                } else {
+                    update(ProcessUtils.getProcesses());
                 }
-                ThreadUtils.sleep(50);
+                ThreadUtils.sleep(updateInterval);
             }
         });
         updater.setDaemon(true);
@@ -72,12 +67,50 @@ public class YProcess {
         updater.start();
     }
 
-    private static List<Integer> createPIDList(List<ProcessInfo> processInfos) {
-        List<Integer> pids = new LinkedList<>();
+    private static void update(ProcessSampler sampler) {
+        sampler.sample();
+        for (YProcess process : allProcesses.values()) {
+            ProcessSample sample = sampler.get(process.getPID());
+            if (sample == null || !sample.getCommand().equals(process.getCommand())) {
+                allProcesses.remove(process.getPID(), process);
+                continue;
+            }
+            process.assemble(sample);
+        }
+    }
+
+    private static void update(List<ProcessInfo> processInfos) {
+        Map<Integer, ProcessInfo> infos = new HashMap<>();
         for (ProcessInfo info : processInfos) {
-            pids.add(Integer.parseInt(info.getPid()));
+            infos.put(Integer.parseInt(info.getPid()), info);
+        }
+        for (YProcess process : allProcesses.values()) {
+            ProcessInfo info = infos.get(process.getPID());
+            if (info == null || !info.getCommand().equals(process.getCommand())) {
+                allProcesses.remove(process.getPID(), process);
+                continue;
+            }
+            process.assemble(info);
+        }
+    }
+
+    /**
+     * @return the milliseconds between two updates of all YProcess instances
+     */
+    public static long getUpdateInterval() {
+        return updateInterval;
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param millis the milliseconds between two updates of all YProcess instances
+     */
+    public static void setUpdateInterval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
         }
-        return pids;
+        updateInterval = millis;
     }
 
     private String name;
@@ -95,33 +128,25 @@ public class YProcess {
     private String startTime;
 
     public static YProcess getInstance(ProcessInfo processInfo) {
-        for (YProcess process : allProcesses) {
-            if (process.getPID() == Integer.parseInt(processInfo.getPid())) return process;
-        }
-        return new YProcess(processInfo);
+        YProcess process = allProcesses.computeIfAbsent(Integer.parseInt(processInfo.getPid()), pid -> new YProcess(processInfo));
+        createUpdater();
+        return process;
     }
 
     public static YProcess getInstance(RunningProcess runningProcess) {
-        for (YProcess process : allProcesses) {
-            if (process.getPID() == (int)runningProcess.getPID()) return process;
+        int pid = (int) runningProcess.getPID();
+        YProcess process = allProcesses.get(pid);
+        if (process == null) {
+            // Read the process before, computeIfAbsent would hold the lock of the map bin meanwhile
+            ProcessInfo processInfo = ProcessUtils.getProcess(pid);
+            process = allProcesses.computeIfAbsent(pid, key -> new YProcess(processInfo));
         }
-        return new YProcess(runningProcess);
+        createUpdater();
+        return process;
     }
 
     private YProcess(ProcessInfo processInfo) {
         assemble(processInfo);
-        allProcesses.add(this);
-        createUpdater();
-    }
-
-    private YProcess(RunningProcess runningProcess) {
-        assemble(runningProcess);
-        allProcesses.add(this);
-        createUpdater();
-    }
-
-    private void assemble(RunningProcess runningProcess) {
-        assemble(ProcessUtils.getProcess((int)runningProcess.getPID()));
     }
 
     private synchronized void assemble(ProcessInfo processInfo) {
@@ -140,6 +165,14 @@ public class YProcess {
         this.startTime = processInfo.getStartTime();
     }
 
+    private synchronized void assemble(ProcessSample sample) {
+        this.cpuUsage = sample.getCpuUsage();
+        this.physicalMemory = sample.getPhysicalMemory();
+        this.virtualMemory = sample.getVirtualMemory();
+        this.priority = sample.getPriority();
+        this.time = sample.getTime();
+    }
+
     public synchronized String getName() {
         return name;
     }
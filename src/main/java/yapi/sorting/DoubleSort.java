@@ -0,0 +1,155 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import java.util.Arrays;
+
+/**
+ * Counterpart of {@link Sort} for a double[] without boxing. Large arrays are
+ * sorted by an LSD radix sort over the eight bytes of the bit pattern, passes
+ * where every key has the same byte are skipped. Small arrays go to
+ * {@link Arrays#sort(double[])}, NaN values end up last in both cases.
+ *
+ * The hook gets a copy of the array after every radix pass and once in the
+ * final order.
+ *
+ * @since Version 2.4
+ */
+public class DoubleSort {
+
+    // Below this size the radix passes cost more than they save
+    private static final int RADIX_CUTOFF = 1 << 13;
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int PASSES = Long.SIZE / BITS;
+
+    private double[] ts = null;
+
+    private SortingHook<double[]> sortingHook = null;
+
+    public DoubleSort() {
+
+    }
+
+    public DoubleSort(double... ts) {
+        this.ts = ts;
+    }
+
+    public void setHook(SortingHook<double[]> sortingHook) {
+        this.sortingHook = sortingHook;
+    }
+
+    private void swap(int i, int j) {
+        double tmp = ts[i];
+        ts[i] = ts[j];
+        ts[j] = tmp;
+    }
+
+    public void sort() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        hook();
+    }
+
+    public void sortReversed() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        reverse();
+        hook();
+    }
+
+    public void reverse() {
+        if (ts.length <= 1) {
+            return;
+        }
+
+        for (int i = 0; i < ts.length / 2; i++) {
+            swap(i, ts.length - i - 1);
+        }
+    }
+
+    public double[] getArray() {
+        return ts;
+    }
+
+    public void setArray(double... ts) {
+        if (this.ts == null) {
+            this.ts = ts;
+        }
+    }
+
+    private void sortAscending() {
+        if (ts.length < RADIX_CUTOFF) {
+            Arrays.sort(ts);
+        } else {
+            radixSort();
+        }
+    }
+
+    private void hook() {
+        if (sortingHook != null) {
+            sortingHook.hook(copy());
+        }
+    }
+
+    private void radixSort() {
+        int n = ts.length;
+        int[][] counts = new int[PASSES][RADIX];
+        for (double t : ts) {
+            long key = key(t);
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass][(int) (key >>> (pass * BITS)) & (RADIX - 1)]++;
+            }
+        }
+
+        double[] from = ts;
+        double[] to = new double[n];
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] count = counts[pass];
+            int shift = pass * BITS;
+            if (count[(int) (key(from[0]) >>> shift) & (RADIX - 1)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int size = count[digit];
+                count[digit] = offset;
+                offset += size;
+            }
+            for (double t : from) {
+                to[count[(int) (key(t) >>> shift) & (RADIX - 1)]++] = t;
+            }
+            double[] tmp = from;
+            from = to;
+            to = tmp;
+            if (sortingHook != null) {
+                sortingHook.hook(Arrays.copyOf(from, n));
+            }
+        }
+        if (from != ts) {
+            System.arraycopy(from, 0, ts, 0, n);
+        }
+    }
+
+    /**
+     * Maps the double to a long in the same unsigned order, -0.0 before 0.0
+     * and NaN after positive infinity like {@link Arrays#sort(double[])}.
+     */
+    private static long key(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private double[] copy() {
+        return Arrays.copyOf(ts, ts.length);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import java.util.Arrays;
+
+/**
+ * Counterpart of {@link Sort} for an int[] without boxing. Large arrays are
+ * sorted by an LSD radix sort over the four bytes of the key, passes where
+ * every key has the same byte are skipped. Small arrays go to {@link Arrays#sort(int[])}.
+ *
+ * The hook gets a copy of the array after every radix pass and once in the
+ * final order.
+ *
+ * @since Version 2.4
+ */
+public class IntSort {
+
+    // Below this size the radix passes cost more than they save
+    private static final int RADIX_CUTOFF = 1 << 12;
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int PASSES = Integer.SIZE / BITS;
+
+    private int[] ts = null;
+
+    private SortingHook<int[]> sortingHook = null;
+
+    public IntSort() {
+
+    }
+
+    public IntSort(int... ts) {
+        this.ts = ts;
+    }
+
+    public void setHook(SortingHook<int[]> sortingHook) {
+        this.sortingHook = sortingHook;
+    }
+
+    private void swap(int i, int j) {
+        int tmp = ts[i];
+        ts[i] = ts[j];
+        ts[j] = tmp;
+    }
+
+    public void sort() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        hook();
+    }
+
+    public void sortReversed() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        reverse();
+        hook();
+    }
+
+    public void reverse() {
+        if (ts.length <= 1) {
+            return;
+        }
+
+        for (int i = 0; i < ts.length / 2; i++) {
+            swap(i, ts.length - i - 1);
+        }
+    }
+
+    public int[] getArray() {
+        return ts;
+    }
+
+    public void setArray(int... ts) {
+        if (this.ts == null) {
+            this.ts = ts;
+        }
+    }
+
+    private void sortAscending() {
+        if (ts.length < RADIX_CUTOFF) {
+            Arrays.sort(ts);
+        } else {
+            radixSort();
+        }
+    }
+
+    private void hook() {
+        if (sortingHook != null) {
+            sortingHook.hook(copy());
+        }
+    }
+
+    private void radixSort() {
+        int n = ts.length;
+        int[][] counts = new int[PASSES][RADIX];
+        for (int t : ts) {
+            int key = t ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass][(key >>> (pass * BITS)) & (RADIX - 1)]++;
+            }
+        }
+
+        int[] from = ts;
+        int[] to = new int[n];
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] count = counts[pass];
+            int shift = pass * BITS;
+            if (count[((from[0] ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int size = count[digit];
+                count[digit] = offset;
+                offset += size;
+            }
+            for (int t : from) {
+                to[count[((t ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = t;
+            }
+            int[] tmp = from;
+            from = to;
+            to = tmp;
+            if (sortingHook != null) {
+                sortingHook.hook(Arrays.copyOf(from, n));
+            }
+        }
+        if (from != ts) {
+            System.arraycopy(from, 0, ts, 0, n);
+        }
+    }
+
+    private int[] copy() {
+        return Arrays.copyOf(ts, ts.length);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import java.util.Arrays;
+
+/**
+ * Counterpart of {@link Sort} for a long[] without boxing. Large arrays are
+ * sorted by an LSD radix sort over the eight bytes of the key, passes where
+ * every key has the same byte are skipped. Small arrays go to {@link Arrays#sort(long[])}.
+ *
+ * The hook gets a copy of the array after every radix pass and once in the
+ * final order.
+ *
+ * @since Version 2.4
+ */
+public class LongSort {
+
+    // Below this size the radix passes cost more than they save
+    private static final int RADIX_CUTOFF = 1 << 13;
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int PASSES = Long.SIZE / BITS;
+
+    private long[] ts = null;
+
+    private SortingHook<long[]> sortingHook = null;
+
+    public LongSort() {
+
+    }
+
+    public LongSort(long... ts) {
+        this.ts = ts;
+    }
+
+    public void setHook(SortingHook<long[]> sortingHook) {
+        this.sortingHook = sortingHook;
+    }
+
+    private void swap(int i, int j) {
+        long tmp = ts[i];
+        ts[i] = ts[j];
+        ts[j] = tmp;
+    }
+
+    public void sort() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        hook();
+    }
+
+    public void sortReversed() {
+        if (ts == null) {
+            return;
+        }
+
+        sortAscending();
+        reverse();
+        hook();
+    }
+
+    public void reverse() {
+        if (ts.length <= 1) {
+            return;
+        }
+
+        for (int i = 0; i < ts.length / 2; i++) {
+            swap(i, ts.length - i - 1);
+        }
+    }
+
+    public long[] getArray() {
+        return ts;
+    }
+
+    public void setArray(long... ts) {
+        if (this.ts == null) {
+            this.ts = ts;
+        }
+    }
+
+    private void sortAscending() {
+        if (ts.length < RADIX_CUTOFF) {
+            Arrays.sort(ts);
+        } else {
+            radixSort();
+        }
+    }
+
+    private void hook() {
+        if (sortingHook != null) {
+            sortingHook.hook(copy());
+        }
+    }
+
+    private void radixSort() {
+        int n = ts.length;
+        int[][] counts = new int[PASSES][RADIX];
+        for (long t : ts) {
+            long key = t ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass][(int) (key >>> (pass * BITS)) & (RADIX - 1)]++;
+            }
+        }
+
+        long[] from = ts;
+        long[] to = new long[n];
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] count = counts[pass];
+            int shift = pass * BITS;
+            if (count[(int) ((from[0] ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int size = count[digit];
+                count[digit] = offset;
+                offset += size;
+            }
+            for (long t : from) {
+                to[count[(int) ((t ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = t;
+            }
+            long[] tmp = from;
+            from = to;
+            to = tmp;
+            if (sortingHook != null) {
+                sortingHook.hook(Arrays.copyOf(from, n));
+            }
+        }
+        if (from != ts) {
+            System.arraycopy(from, 0, ts, 0, n);
+        }
+    }
+
+    private long[] copy() {
+        return Arrays.copyOf(ts, ts.length);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort on a {@link ForkJoinPool}. One buffer of the array size
+ * is allocated per sort, each level merges from the array into the buffer or
+ * back, so nothing is copied between the levels. Large runs are merged in
+ * parallel by splitting them around the median of the longer run.
+ *
+ * The hook is only called once the array is sorted, while several threads
+ * work on it the intermediate states are not consistent.
+ *
+ * @since Version 2.4
+ */
+public class ParallelMergeSort<T> implements Sort<T> {
+
+    // Below this size a range is sorted by the current thread
+    private static final int SORT_CUTOFF = 1 << 13;
+    // Below this size two runs are merged by the current thread
+    private static final int MERGE_CUTOFF = 1 << 14;
+    private static final int INSERTION_CUTOFF = 32;
+
+    private T[] ts = null;
+    private ForkJoinPool pool;
+
+    private SortingHook<T> sortingHook = null;
+
+    public ParallelMergeSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelMergeSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @SafeVarargs
+    public ParallelMergeSort(T... ts) {
+        this(ForkJoinPool.commonPool());
+        this.ts = ts;
+    }
+
+    @Override
+    public void setHook(SortingHook<T> sortingHook) {
+        this.sortingHook = sortingHook;
+    }
+
+    private void swap(int i, int j) {
+        T tmp = ts[i];
+        ts[i] = ts[j];
+        ts[j] = tmp;
+    }
+
+    @Override
+    public void sort(Comparator<T> comparator) {
+        if (ts == null) {
+            return;
+        }
+
+        mergeSort(comparator);
+    }
+
+    @Override
+    public void sortReversed(Comparator<T> comparator) {
+        if (ts == null) {
+            return;
+        }
+
+        mergeSort(comparator.reversed());
+    }
+
+    @Override
+    public void reverse() {
+        if (ts.length <= 1) {
+            return;
+        }
+
+        for (int i = 0; i < ts.length / 2; i++) {
+            swap(i, ts.length - i - 1);
+        }
+    }
+
+    @Override
+    public T[] getArray() {
+        return ts;
+    }
+
+    @Override
+    @SafeVarargs
+    public final void setArray(T... ts) {
+        if (this.ts == null) {
+            this.ts = ts;
+        }
+    }
+
+    private void mergeSort(Comparator<T> comparator) {
+        if (ts.length > 1) {
+            T[] buffer = Arrays.copyOf(ts, ts.length);
+            if (ts.length <= SORT_CUTOFF || pool.getParallelism() <= 1) {
+                sort(buffer, ts, 0, ts.length, comparator);
+            } else {
+                pool.invoke(new Sorter<>(buffer, ts, 0, ts.length, comparator));
+            }
+        }
+
+        if (sortingHook != null) {
+            sortingHook.hook(Arrays.copyOf(ts, ts.length));
+        }
+    }
+
+    /**
+     * Sorts 'from[low, high)' into 'to[low, high)', both ranges need to hold the same elements.
+     */
+    private static <T> void sort(T[] from, T[] to, int low, int high, Comparator<T> comparator) {
+        if (high - low <= INSERTION_CUTOFF) {
+            insertionSort(to, low, high, comparator);
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        sort(to, from, low, middle, comparator);
+        sort(to, from, middle, high, comparator);
+        merge(from, to, low, middle, middle, high, low, comparator);
+    }
+
+    private static <T> void insertionSort(T[] ts, int low, int high, Comparator<T> comparator) {
+        for (int i = low + 1; i < high; i++) {
+            T t = ts[i];
+            int j = i - 1;
+            while (j >= low && comparator.compare(ts[j], t) > 0) {
+                ts[j + 1] = ts[j];
+                j--;
+            }
+            ts[j + 1] = t;
+        }
+    }
+
+    /**
+     * Merges 'from[leftLow, leftHigh)' and 'from[rightLow, rightHigh)' into 'to' starting at 'index'.
+     */
+    private static <T> void merge(T[] from, T[] to, int leftLow, int leftHigh, int rightLow, int rightHigh, int index, Comparator<T> comparator) {
+        if (leftLow < leftHigh && rightLow < rightHigh && comparator.compare(from[leftHigh - 1], from[rightLow]) <= 0) {
+            // Already in order, typical for presorted input
+            System.arraycopy(from, leftLow, to, index, leftHigh - leftLow);
+            System.arraycopy(from, rightLow, to, index + leftHigh - leftLow, rightHigh - rightLow);
+            return;
+        }
+        while (leftLow < leftHigh && rightLow < rightHigh) {
+            if (comparator.compare(from[leftLow], from[rightLow]) <= 0) {
+                to[index++] = from[leftLow++];
+            } else {
+                to[index++] = from[rightLow++];
+            }
+        }
+        System.arraycopy(from, leftLow, to, index, leftHigh - leftLow);
+        System.arraycopy(from, rightLow, to, index + leftHigh - leftLow, rightHigh - rightLow);
+    }
+
+    /**
+     * @return the first index in 'ts[low, high)' whose element is not less than 't'
+     */
+    private static <T> int lowerBound(T[] ts, int low, int high, T t, Comparator<T> comparator) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(ts[middle], t) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the first index in 'ts[low, high)' whose element is greater than 't'
+     */
+    private static <T> int upperBound(T[] ts, int low, int high, T t, Comparator<T> comparator) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(ts[middle], t) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static class Sorter<T> extends RecursiveAction {
+
+        private final T[] from;
+        private final T[] to;
+        private final int low;
+        private final int high;
+        private final Comparator<T> comparator;
+
+        private Sorter(T[] from, T[] to, int low, int high, Comparator<T> comparator) {
+            this.from = from;
+            this.to = to;
+            this.low = low;
+            this.high = high;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= SORT_CUTOFF) {
+                sort(from, to, low, high, comparator);
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            invokeAll(new Sorter<>(to, from, low, middle, comparator), new Sorter<>(to, from, middle, high, comparator));
+            new Merger<>(from, to, low, middle, middle, high, low, comparator).compute();
+        }
+
+    }
+
+    private static class Merger<T> extends RecursiveAction {
+
+        private final T[] from;
+        private final T[] to;
+        private final int leftLow;
+        private final int leftHigh;
+        private final int rightLow;
+        private final int rightHigh;
+        private final int index;
+        private final Comparator<T> comparator;
+
+        private Merger(T[] from, T[] to, int leftLow, int leftHigh, int rightLow, int rightHigh, int index, Comparator<T> comparator) {
+            this.from = from;
+            this.to = to;
+            this.leftLow = leftLow;
+            this.leftHigh = leftHigh;
+            this.rightLow = rightLow;
+            this.rightHigh = rightHigh;
+            this.index = index;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftHigh - leftLow;
+            int rightLength = rightHigh - rightLow;
+            if (leftLength + rightLength <= MERGE_CUTOFF || leftLength == 0 || rightLength == 0) {
+                merge(from, to, leftLow, leftHigh, rightLow, rightHigh, index, comparator);
+                return;
+            }
+            int leftSplit;
+            int rightSplit;
+            if (leftLength >= rightLength) {
+                leftSplit = (leftLow + leftHigh) >>> 1;
+                rightSplit = lowerBound(from, rightLow, rightHigh, from[leftSplit], comparator);
+            } else {
+                rightSplit = (rightLow + rightHigh) >>> 1;
+                leftSplit = upperBound(from, leftLow, leftHigh, from[rightSplit], comparator);
+            }
+            int splitIndex = index + (leftSplit - leftLow) + (rightSplit - rightLow);
+            invokeAll(new Merger<>(from, to, leftLow, leftSplit, rightLow, rightSplit, index, comparator),
+                    new Merger<>(from, to, leftSplit, leftHigh, rightSplit, rightHigh, splitIndex, comparator));
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * In-place quick sort on a {@link ForkJoinPool}, not stable. The pivot is the
+ * median of three and the partition stops on elements equal to the pivot, so
+ * presorted input and runs of equal elements still split in the middle. Both
+ * sides are sorted in parallel until they get smaller than the cutoff.
+ *
+ * The hook is only called once the array is sorted, while several threads
+ * work on it the intermediate states are not consistent.
+ *
+ * @since Version 2.4
+ */
+public class ParallelQuickSort<T> implements Sort<T> {
+
+    // Below this size a range is sorted by the current thread
+    private static final int SORT_CUTOFF = 1 << 13;
+    private static final int INSERTION_CUTOFF = 32;
+
+    private T[] ts = null;
+    private ForkJoinPool pool;
+
+    private SortingHook<T> sortingHook = null;
+
+    public ParallelQuickSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelQuickSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @SafeVarargs
+    public ParallelQuickSort(T... ts) {
+        this(ForkJoinPool.commonPool());
+        this.ts = ts;
+    }
+
+    @Override
+    public void setHook(SortingHook<T> sortingHook) {
+        this.sortingHook = sortingHook;
+    }
+
+    private static <T> void swap(T[] ts, int i, int j) {
+        T tmp = ts[i];
+        ts[i] = ts[j];
+        ts[j] = tmp;
+    }
+
+    @Override
+    public void sort(Comparator<T> comparator) {
+        if (ts == null) {
+            return;
+        }
+
+        quickSort(comparator);
+    }
+
+    @Override
+    public void sortReversed(Comparator<T> comparator) {
+        if (ts == null) {
+            return;
+        }
+
+        quickSort(comparator.reversed());
+    }
+
+    @Override
+    public void reverse() {
+        if (ts.length <= 1) {
+            return;
+        }
+
+        for (int i = 0; i < ts.length / 2; i++) {
+            swap(ts, i, ts.length - i - 1);
+        }
+    }
+
+    @Override
+    public T[] getArray() {
+        return ts;
+    }
+
+    @Override
+    @SafeVarargs
+    public final void setArray(T... ts) {
+        if (this.ts == null) {
+            this.ts = ts;
+        }
+    }
+
+    private void quickSort(Comparator<T> comparator) {
+        if (ts.length <= SORT_CUTOFF || pool.getParallelism() <= 1) {
+            sort(ts, 0, ts.length, comparator);
+        } else {
+            pool.invoke(new Sorter<>(ts, 0, ts.length, comparator));
+        }
+
+        if (sortingHook != null) {
+            sortingHook.hook(Arrays.copyOf(ts, ts.length));
+        }
+    }
+
+    private static <T> void sort(T[] ts, int low, int high, Comparator<T> comparator) {
+        while (high - low > INSERTION_CUTOFF) {
+            long bounds = partition(ts, low, high, comparator);
+            int lessHigh = (int) (bounds >>> 32);
+            int greaterLow = (int) bounds;
+            // Recurse into the smaller side, so the stack stays at log n
+            if (lessHigh - low < high - greaterLow) {
+                sort(ts, low, lessHigh, comparator);
+                low = greaterLow;
+            } else {
+                sort(ts, greaterLow, high, comparator);
+                high = lessHigh;
+            }
+        }
+        insertionSort(ts, low, high, comparator);
+    }
+
+    private static <T> void insertionSort(T[] ts, int low, int high, Comparator<T> comparator) {
+        for (int i = low + 1; i < high; i++) {
+            T t = ts[i];
+            int j = i - 1;
+            while (j >= low && comparator.compare(ts[j], t) > 0) {
+                ts[j + 1] = ts[j];
+                j--;
+            }
+            ts[j + 1] = t;
+        }
+    }
+
+    /**
+     * Splits 'ts[low, high)' into elements not greater and not less than the pivot.
+     *
+     * @return the end of the lower part in the upper 32 bits, the start of the upper part in the lower ones
+     */
+    private static <T> long partition(T[] ts, int low, int high, Comparator<T> comparator) {
+        T pivot = medianOfThree(ts, low, (low + high) >>> 1, high - 1, comparator);
+        int i = low;
+        int j = high - 1;
+        while (i <= j) {
+            while (comparator.compare(ts[i], pivot) < 0) i++;
+            while (comparator.compare(pivot, ts[j]) < 0) j--;
+            if (i <= j) {
+                swap(ts, i, j);
+                i++;
+                j--;
+            }
+        }
+        return ((long) (j + 1) << 32) | i;
+    }
+
+    private static <T> T medianOfThree(T[] ts, int a, int b, int c, Comparator<T> comparator) {
+        if (comparator.compare(ts[a], ts[b]) > 0) {
+            swap(ts, a, b);
+        }
+        if (comparator.compare(ts[b], ts[c]) > 0) {
+            swap(ts, b, c);
+            if (comparator.compare(ts[a], ts[b]) > 0) {
+                swap(ts, a, b);
+            }
+        }
+        return ts[b];
+    }
+
+    private static class Sorter<T> extends RecursiveAction {
+
+        private final T[] ts;
+        private final int low;
+        private final int high;
+        private final Comparator<T> comparator;
+
+        private Sorter(T[] ts, int low, int high, Comparator<T> comparator) {
+            this.ts = ts;
+            this.low = low;
+            this.high = high;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= SORT_CUTOFF) {
+                sort(ts, low, high, comparator);
+                return;
+            }
+            long bounds = partition(ts, low, high, comparator);
+            invokeAll(new Sorter<>(ts, low, (int) (bounds >>> 32), comparator), new Sorter<>(ts, (int) bounds, high, comparator));
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,474 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.statemachine;
+
+import java.util.*;
+
+/**
+ * A {@link StateMachine} turned into minimal deterministic automata. The
+ * chars are grouped into classes that every transition treats the same, a
+ * char is mapped to its class with one array lookup and the next state is
+ * one more lookup in a dense int[] of 'states * classes'. Matching never
+ * allocates.
+ *
+ * Three automata are built: one anchored at the start of the input for
+ * {@link #matches(CharSequence)}, one that can start at every char to find
+ * the end of a match, and one over the reversed machine to find the start
+ * of a match backwards from its end.
+ *
+ * Instances are immutable and can be used by any number of threads, the
+ * state of a stream lives in a {@link Feeder}.
+ *
+ * @since Version 2.4
+ */
+public final class CompiledStateMachine {
+
+    // The state that never leads to a stop state again
+    private static final int DEAD = 0;
+    private static final int START = 1;
+    // Subset construction can grow exponentially, stop before it eats the memory
+    private static final int MAX_STATES = 1 << 16;
+
+    // Class of every char
+    private final char[] classes;
+    private final int classCount;
+
+    private final int[] anchored;
+    private final boolean[] anchoredStops;
+    private final int[] unanchored;
+    private final boolean[] unanchoredStops;
+    private final int[] reverse;
+    private final boolean[] reverseStops;
+
+    private CompiledStateMachine(char[] classes, int classCount, Table anchored, Table unanchored, Table reverse) {
+        this.classes = classes;
+        this.classCount = classCount;
+        this.anchored = anchored.transitions;
+        this.anchoredStops = anchored.stops;
+        this.unanchored = unanchored.transitions;
+        this.unanchoredStops = unanchored.stops;
+        this.reverse = reverse.transitions;
+        this.reverseStops = reverse.stops;
+    }
+
+    static CompiledStateMachine compile(List<State> states, State start) {
+        Map<State, Integer> index = new IdentityHashMap<>();
+        for (State state : states) {
+            index.put(state, index.size());
+        }
+
+        // Transitions of unreachable states can still point to unresolved names, they do not matter
+        List<StateTransitionModifier> modifiers = new ArrayList<>();
+        List<int[]> edges = new ArrayList<>();
+        for (State state : states) {
+            for (StateTransition transition : state.transitions) {
+                if (transition.nextState != null && index.containsKey(transition.nextState)) {
+                    edges.add(new int[]{index.get(state), index.get(transition.nextState), modifiers.size()});
+                    modifiers.add(transition.modifier);
+                }
+            }
+        }
+
+        BitSet boundaries = new BitSet();
+        boundaries.set(0);
+        boundaries.set(Character.MAX_VALUE + 1);
+        for (StateTransitionModifier modifier : modifiers) {
+            modifier.addBoundaries(boundaries);
+        }
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        List<Character> representatives = new ArrayList<>();
+        Map<BitSet, Integer> signatures = new HashMap<>();
+        for (int from = 0; from <= Character.MAX_VALUE; ) {
+            int to = boundaries.nextSetBit(from + 1);
+            BitSet signature = new BitSet(modifiers.size());
+            for (int i = 0; i < modifiers.size(); i++) {
+                if (modifiers.get(i).isCaptured((char) from)) {
+                    signature.set(i);
+                }
+            }
+            Integer c = signatures.get(signature);
+            if (c == null) {
+                c = signatures.size();
+                signatures.put(signature, c);
+                representatives.add((char) from);
+            }
+            Arrays.fill(classes, from, to, (char) (int) c);
+            from = to;
+        }
+        int classCount = signatures.size();
+
+        int n = states.size();
+        Nfa forward = new Nfa(n, classCount);
+        Nfa backward = new Nfa(n, classCount);
+        for (int[] edge : edges) {
+            boolean[] captured = new boolean[classCount];
+            StateTransitionModifier modifier = modifiers.get(edge[2]);
+            for (int c = 0; c < classCount; c++) {
+                captured[c] = modifier.isCaptured(representatives.get(c));
+            }
+            forward.add(edge[0], edge[1], captured);
+            backward.add(edge[1], edge[0], captured);
+        }
+
+        BitSet startSet = new BitSet(n);
+        startSet.set(index.get(start));
+        BitSet stopSet = new BitSet(n);
+        for (State state : states) {
+            if (state.type == StateType.STOP) {
+                stopSet.set(index.get(state));
+            }
+        }
+
+        Table anchored = forward.determinize(startSet, stopSet, false).minimize(classCount);
+        Table unanchored = forward.determinize(startSet, stopSet, true).minimize(classCount);
+        Table reverse = backward.determinize(stopSet, startSet, false).minimize(classCount);
+        return new CompiledStateMachine(classes, classCount, anchored, unanchored, reverse);
+    }
+
+    /**
+     * @param input
+     * @return if the whole input leads from the start to a stop state
+     */
+    public boolean matches(CharSequence input) {
+        int state = START;
+        for (int i = 0; i < input.length(); i++) {
+            state = anchored[state * classCount + classes[input.charAt(i)]];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return anchoredStops[state];
+    }
+
+    /**
+     * @param input
+     * @param offset
+     * @param length
+     * @return if the chars in 'input[offset, offset + length)' lead from the start to a stop state
+     */
+    public boolean matches(char[] input, int offset, int length) {
+        int state = START;
+        for (int i = offset; i < offset + length; i++) {
+            state = anchored[state * classCount + classes[input[i]]];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return anchoredStops[state];
+    }
+
+    /**
+     * @param input
+     * @return the index after the first match or -1
+     */
+    public int findEnd(CharSequence input) {
+        return findEnd(input, 0);
+    }
+
+    /**
+     * The first match is the one that ends first.
+     *
+     * @param input
+     * @param from
+     * @return the index after the first match starting at 'from' or later or -1
+     */
+    public int findEnd(CharSequence input, int from) {
+        int state = START;
+        for (int i = from; i < input.length(); i++) {
+            state = unanchored[state * classCount + classes[input.charAt(i)]];
+            if (unanchoredStops[state]) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param input
+     * @return the start of the first match or -1
+     */
+    public int find(CharSequence input) {
+        return find(input, 0);
+    }
+
+    /**
+     * The first match is the one that ends first, of all matches ending
+     * there the one that starts first is returned.
+     *
+     * @param input
+     * @param from
+     * @return the start of the first match starting at 'from' or later or -1
+     */
+    public int find(CharSequence input, int from) {
+        int end = findEnd(input, from);
+        if (end < 0) {
+            return -1;
+        }
+        int start = -1;
+        int state = START;
+        for (int i = end - 1; i >= from; i--) {
+            state = reverse[state * classCount + classes[input.charAt(i)]];
+            if (state == DEAD) {
+                break;
+            }
+            if (reverseStops[state]) {
+                start = i;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @return a new feeder to search a stream chunk by chunk
+     */
+    public Feeder feeder() {
+        return new Feeder();
+    }
+
+    public int getStateCount() {
+        return anchoredStops.length;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Searches a stream that is given in chunks, a match can span chunks.
+     * After every match the search starts again, so matches do not overlap.
+     * A feeder is not thread safe.
+     */
+    public final class Feeder {
+
+        private int state = START;
+        private long position = 0;
+        private long matches = 0;
+
+        private Feeder() {
+
+        }
+
+        public int feed(char[] chars) {
+            return feed(chars, 0, chars.length);
+        }
+
+        /**
+         * @param chars
+         * @param offset
+         * @param length
+         * @return the index in 'chars' after the first match ending in the
+         *         range or -1, call again from there for the next one
+         */
+        public int feed(char[] chars, int offset, int length) {
+            int current = state;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                current = unanchored[current * classCount + classes[chars[i]]];
+                if (unanchoredStops[current]) {
+                    state = START;
+                    position += i + 1 - offset;
+                    matches++;
+                    return i + 1;
+                }
+            }
+            state = current;
+            position += length;
+            return -1;
+        }
+
+        /**
+         * @return the chars fed since the last reset
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * @return the matches found since the last reset
+         */
+        public long getMatches() {
+            return matches;
+        }
+
+        public void reset() {
+            state = START;
+            position = 0;
+            matches = 0;
+        }
+
+    }
+
+    /**
+     * Nondeterministic automaton with the transitions already split into char classes.
+     */
+    private static final class Nfa {
+
+        private final int classCount;
+        // Per state the pairs of target and captured classes
+        private final List<List<Integer>> targets = new ArrayList<>();
+        private final List<List<boolean[]>> captures = new ArrayList<>();
+
+        private Nfa(int states, int classCount) {
+            this.classCount = classCount;
+            for (int i = 0; i < states; i++) {
+                targets.add(new ArrayList<>());
+                captures.add(new ArrayList<>());
+            }
+        }
+
+        private void add(int from, int to, boolean[] captured) {
+            targets.get(from).add(to);
+            captures.get(from).add(captured);
+        }
+
+        /**
+         * Subset construction, state 0 is the empty set and state 1 the
+         * start set. With 'unanchored' the start set is added after every
+         * step, so a match can begin at every char.
+         */
+        private Table determinize(BitSet start, BitSet stops, boolean unanchored) {
+            Map<BitSet, Integer> ids = new HashMap<>();
+            List<BitSet> sets = new ArrayList<>();
+            ids.put(new BitSet(), DEAD);
+            sets.add(new BitSet());
+            ids.put(start, START);
+            sets.add(start);
+
+            int[] transitions = new int[16 * classCount];
+            for (int id = 0; id < sets.size(); id++) {
+                BitSet set = sets.get(id);
+                for (int c = 0; c < classCount; c++) {
+                    BitSet next = new BitSet();
+                    for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+                        List<Integer> stateTargets = targets.get(s);
+                        List<boolean[]> stateCaptures = captures.get(s);
+                        for (int t = 0; t < stateTargets.size(); t++) {
+                            if (stateCaptures.get(t)[c]) {
+                                next.set(stateTargets.get(t));
+                            }
+                        }
+                    }
+                    if (unanchored) {
+                        next.or(start);
+                    }
+                    Integer nextId = ids.get(next);
+                    if (nextId == null) {
+                        if (sets.size() == MAX_STATES) {
+                            throw new IllegalStateException("State machine needs more than " + MAX_STATES + " deterministic states");
+                        }
+                        nextId = sets.size();
+                        ids.put(next, nextId);
+                        sets.add(next);
+                    }
+                    int i = id * classCount + c;
+                    if (i >= transitions.length) {
+                        transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                    }
+                    transitions[i] = nextId;
+                }
+            }
+
+            boolean[] accepting = new boolean[sets.size()];
+            for (int id = 0; id < sets.size(); id++) {
+                accepting[id] = sets.get(id).intersects(stops);
+            }
+            return new Table(Arrays.copyOf(transitions, sets.size() * classCount), accepting);
+        }
+
+    }
+
+    private static final class Table {
+
+        private final int[] transitions;
+        private final boolean[] stops;
+
+        private Table(int[] transitions, boolean[] stops) {
+            this.transitions = transitions;
+            this.stops = stops;
+        }
+
+        /**
+         * Moore's algorithm, the states are split by their transitions into
+         * the current blocks until no block splits anymore. The block of the
+         * dead state becomes state 0 and the block of the start state 1.
+         */
+        private Table minimize(int classCount) {
+            int n = stops.length;
+            int[] block = new int[n];
+            for (int i = 0; i < n; i++) {
+                block[i] = stops[i] ? 1 : 0;
+            }
+            int blocks = -1;
+            while (true) {
+                Map<Signature, Integer> split = new HashMap<>();
+                int[] next = new int[n];
+                for (int i = 0; i < n; i++) {
+                    int[] values = new int[classCount + 1];
+                    values[0] = block[i];
+                    for (int c = 0; c < classCount; c++) {
+                        values[c + 1] = block[transitions[i * classCount + c]];
+                    }
+                    Signature signature = new Signature(values);
+                    Integer b = split.get(signature);
+                    if (b == null) {
+                        b = split.size();
+                        split.put(signature, b);
+                    }
+                    next[i] = b;
+                }
+                block = next;
+                if (split.size() == blocks) {
+                    break;
+                }
+                blocks = split.size();
+            }
+
+            int[] renumber = new int[blocks];
+            Arrays.fill(renumber, -1);
+            renumber[block[DEAD]] = DEAD;
+            renumber[block[START]] = START;
+            int count = 2;
+            for (int i = 0; i < n; i++) {
+                if (renumber[block[i]] < 0) {
+                    renumber[block[i]] = count++;
+                }
+            }
+            int[] minimalTransitions = new int[count * classCount];
+            boolean[] minimalStops = new boolean[count];
+            for (int i = 0; i < n; i++) {
+                int b = renumber[block[i]];
+                minimalStops[b] = stops[i];
+                for (int c = 0; c < classCount; c++) {
+                    minimalTransitions[b * classCount + c] = renumber[block[transitions[i * classCount + c]]];
+                }
+            }
+            return new Table(minimalTransitions, minimalStops);
+        }
+
+    }
+
+    private static final class Signature {
+
+        private final int[] values;
+        private final int hash;
+
+        private Signature(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature && Arrays.equals(values, ((Signature) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -8,8 +8,7 @@ import yapi.internal.annotations.yapi.WorkInProgress;
 import yapi.internal.annotations.yapi.WorkInProgressType;
 import yapi.math.NumberRandom;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @WorkInProgress(context = WorkInProgressType.ALPHA)
 public class StateMachine {
@@ -47,7 +46,7 @@ public class StateMachine {
 
     public StateTransitionModifier getTransitionModifier() {
         if (builded) throw new IllegalStateException();
-        return new StateTransitionModifier(true);
+        return new StateTransitionModifier(false);
     }
 
     public StateTransitionModifier getNegatedTransitionModifier() {
@@ -79,38 +78,99 @@ public class StateMachine {
             throw new IllegalStateException();
         }
 
-        if (!checkRecursive(startNode, new ArrayList<>())) {
+        if (!canStop()) {
             throw new IllegalStateException();
         }
 
         return this;
     }
 
-    private boolean checkRecursive(State currentNode, List<State> checkedStates) {
-        if (checkedStates.contains(currentNode)) {
-            return currentNode.type.equals(StateType.STOP);
-        }
+    /**
+     * Compiles the built state machine into a deterministic and minimal
+     * {@link CompiledStateMachine}.
+     *
+     * @since Version 2.4
+     *
+     * @return
+     */
+    public CompiledStateMachine compile() {
+        if (!builded) throw new IllegalStateException();
+        return CompiledStateMachine.compile(states, startNode);
+    }
 
-        List<State> checked = copy(checkedStates);
-        checked.add(currentNode);
+    /**
+     * @return if every state reachable from the start can reach a stop state
+     */
+    private boolean canStop() {
+        Map<State, Integer> index = new IdentityHashMap<>();
+        for (State state : states) {
+            index.put(state, index.size());
+        }
+        List<List<Integer>> predecessors = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            predecessors.add(new ArrayList<>());
+        }
 
-        List<StateTransition> transitions = currentNode.transitions;
-        if (transitions.isEmpty()) {
-            return currentNode.type.equals(StateType.STOP);
+        boolean[] reachable = new boolean[states.size()];
+        Deque<State> queue = new ArrayDeque<>();
+        reachable[index.get(startNode)] = true;
+        queue.add(startNode);
+        while (!queue.isEmpty()) {
+            State state = queue.poll();
+            for (StateTransition transition : state.transitions) {
+                State next = resolve(transition);
+                Integer i = index.get(next);
+                if (i == null) {
+                    throw new IllegalStateException("State " + next.name + " is not part of this state machine");
+                }
+                predecessors.get(i).add(index.get(state));
+                if (!reachable[i]) {
+                    reachable[i] = true;
+                    queue.add(next);
+                }
+            }
         }
 
-        for (StateTransition transition : transitions) {
-            if (!checkRecursive(transition.nextState, checked)) {
+        boolean[] stops = new boolean[states.size()];
+        Deque<Integer> backwards = new ArrayDeque<>();
+        for (int i = 0; i < states.size(); i++) {
+            if (reachable[i] && states.get(i).type == StateType.STOP) {
+                stops[i] = true;
+                backwards.add(i);
+            }
+        }
+        while (!backwards.isEmpty()) {
+            for (int i : predecessors.get(backwards.poll())) {
+                if (!stops[i]) {
+                    stops[i] = true;
+                    backwards.add(i);
+                }
+            }
+        }
+        for (int i = 0; i < states.size(); i++) {
+            if (reachable[i] && !stops[i]) {
                 return false;
             }
         }
         return true;
     }
 
-    private List<State> copy(List<State> list) {
-        List<State> states = new ArrayList<>();
-        states.addAll(list);
-        return states;
+    /**
+     * @return the next state of 'transition', looked up by name if needed
+     */
+    State resolve(StateTransition transition) {
+        if (transition.nextState == null) {
+            for (State state : states) {
+                if (state.name.equals(transition.nextStateName)) {
+                    transition.nextState = state;
+                    break;
+                }
+            }
+            if (transition.nextState == null) {
+                throw new IllegalStateException("Unknown state " + transition.nextStateName);
+            }
+        }
+        return transition.nextState;
     }
 
     public StateMachine copy() {
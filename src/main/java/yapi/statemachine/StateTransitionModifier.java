@@ -4,19 +4,27 @@
 
 package yapi.statemachine;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 public class StateTransitionModifier {
 
     private boolean negation;
     private boolean builded = false;
-    private List<Character> characters = new ArrayList<>();
+    // One bit per char
+    private final BitSet characters = new BitSet();
 
     StateTransitionModifier(boolean negation) {
         this.negation = negation;
     }
 
+    /**
+     * Sets the characters from a group like '[a-z_]' or '[^0-9]', the escapes
+     * '\d', '\w', '\s', '\t', '\n', '\r' and '\f' can be used inside. '.'
+     * captures every character.
+     *
+     * @param s
+     * @return
+     */
     public StateTransitionModifier fromGroup(String s) {
         if (builded) {
             return this;
@@ -33,14 +41,79 @@ public class StateTransitionModifier {
     }
 
     private void processGroup(String s) {
+        int i = 0;
+        if (s.startsWith("^")) {
+            negation = !negation;
+            i++;
+        }
+        while (i < s.length()) {
+            char c = s.charAt(i++);
+            if (c == '\\' && i < s.length()) {
+                char escaped = s.charAt(i++);
+                if (addClass(escaped)) {
+                    continue;
+                }
+                c = escape(escaped);
+            }
+            if (i + 1 < s.length() && s.charAt(i) == '-') {
+                char to = s.charAt(i + 1);
+                i += 2;
+                if (to == '\\' && i < s.length()) {
+                    to = escape(s.charAt(i++));
+                }
+                if (to < c) {
+                    throw new IllegalArgumentException("Illegal range " + c + "-" + to);
+                }
+                characters.set(c, to + 1);
+            } else {
+                characters.set(c);
+            }
+        }
+    }
 
+    /**
+     * @return if 'c' is a class like 'd' for '\d', its characters are added
+     */
+    private boolean addClass(char c) {
+        switch (c) {
+            case 'd':
+                characters.set('0', '9' + 1);
+                return true;
+            case 'w':
+                characters.set('a', 'z' + 1);
+                characters.set('A', 'Z' + 1);
+                characters.set('0', '9' + 1);
+                characters.set('_');
+                return true;
+            case 's':
+                characters.set(' ');
+                characters.set('\t', '\r' + 1);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static char escape(char c) {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return c;
+        }
     }
 
     public StateTransitionModifier add(char c) {
         if (builded) {
             return this;
         }
-        characters.add(c);
+        characters.set(c);
         return this;
     }
 
@@ -49,7 +122,7 @@ public class StateTransitionModifier {
             return this;
         }
         for (char c : chars) {
-            characters.add(c);
+            characters.set(c);
         }
         return this;
     }
@@ -68,10 +141,20 @@ public class StateTransitionModifier {
     }
 
     boolean isCaptured(char c) {
-        if (negation) {
-            return !characters.contains(c);
-        } else {
-            return characters.contains(c);
+        return characters.get(c) != negation;
+    }
+
+    /**
+     * Adds the first char of every run of captured or not captured chars to
+     * 'boundaries', every char between two boundaries is treated the same.
+     */
+    void addBoundaries(BitSet boundaries) {
+        int start = characters.nextSetBit(0);
+        while (start >= 0 && start <= Character.MAX_VALUE) {
+            int end = characters.nextClearBit(start);
+            boundaries.set(start);
+            boundaries.set(end);
+            start = characters.nextSetBit(end);
         }
     }
 
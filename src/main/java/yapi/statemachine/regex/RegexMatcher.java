@@ -4,12 +4,87 @@
 
 package yapi.statemachine.regex;
 
+import yapi.statemachine.CompiledStateMachine;
 import yapi.statemachine.StateMachine;
 
+/**
+ * Matches with a {@link CompiledStateMachine}, so every char costs two
+ * array lookups and nothing is allocated while matching. There is no
+ * backtracking and no capturing, a match is only reported by its position.
+ * A matcher is immutable and can be shared between threads.
+ *
+ * @since Version 2.4
+ */
 public class RegexMatcher {
 
+    private final CompiledStateMachine compiled;
+
+    /**
+     * @param stateMachine a built state machine
+     */
     public RegexMatcher(StateMachine stateMachine) {
+        this.compiled = stateMachine.compile();
+    }
+
+    /**
+     * The regex may use literals, escapes, '.', '[...]', '\d', '\w', '\s',
+     * '\D', '\W', '\S', groups, '|', '*', '+', '?' and '{n}', '{n,}',
+     * '{n,m}'. Unlike {@link java.util.regex.Pattern} '.' matches line
+     * terminators too.
+     *
+     * @since Version 2.4
+     *
+     * @param regex
+     * @throws IllegalArgumentException if the regex is not supported or matches the empty string
+     */
+    public RegexMatcher(String regex) {
+        this(RegexParser.parse(regex));
+    }
+
+    public boolean matches(CharSequence input) {
+        return compiled.matches(input);
+    }
+
+    /**
+     * @param input
+     * @return the start of the first match or -1, see {@link CompiledStateMachine#find(CharSequence, int)}
+     */
+    public int find(CharSequence input) {
+        return compiled.find(input, 0);
+    }
+
+    public int find(CharSequence input, int from) {
+        return compiled.find(input, from);
+    }
+
+    /**
+     * @param input
+     * @return the index after the first match or -1
+     */
+    public int findEnd(CharSequence input) {
+        return compiled.findEnd(input, 0);
+    }
+
+    public int findEnd(CharSequence input, int from) {
+        return compiled.findEnd(input, from);
+    }
+
+    /**
+     * @return if the input contains a match
+     */
+    public boolean contains(CharSequence input) {
+        return compiled.findEnd(input, 0) >= 0;
+    }
+
+    /**
+     * @return a new feeder to search a stream chunk by chunk
+     */
+    public CompiledStateMachine.Feeder feeder() {
+        return compiled.feeder();
+    }
 
+    public CompiledStateMachine getCompiled() {
+        return compiled;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,350 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.statemachine.regex;
+
+import yapi.statemachine.State;
+import yapi.statemachine.StateMachine;
+import yapi.statemachine.StateTransitionModifier;
+import yapi.statemachine.StateType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Turns a regex into a {@link StateMachine} with the Glushkov construction:
+ * every char of the regex becomes one state, reached over the chars it
+ * matches, so no empty transitions are needed. Counted repetitions are
+ * expanded into copies.
+ *
+ * Supported are literals, escapes, '.', '[...]', '\d', '\w', '\s', '\D',
+ * '\W', '\S', groups, '|', '*', '+', '?' and '{n}', '{n,}', '{n,m}'.
+ */
+class RegexParser {
+
+    // Expanded repetitions can explode, every position becomes a state
+    private static final int MAX_POSITIONS = 1 << 14;
+
+    private final String regex;
+    private int index = 0;
+
+    private final List<Node> positions = new ArrayList<>();
+    private final List<BitSet> follow = new ArrayList<>();
+
+    private RegexParser(String regex) {
+        this.regex = regex;
+    }
+
+    static StateMachine parse(String regex) {
+        RegexParser parser = new RegexParser(regex);
+        Node root = parser.alternation();
+        if (parser.index < regex.length()) {
+            throw parser.error("Unexpected '" + regex.charAt(parser.index) + "'");
+        }
+        Fragment fragment = parser.glushkov(root);
+        if (fragment.nullable) {
+            throw new IllegalArgumentException("Regex '" + regex + "' matches the empty string");
+        }
+        return parser.stateMachine(fragment);
+    }
+
+    private StateMachine stateMachine(Fragment fragment) {
+        StateMachine stateMachine = new StateMachine();
+        State start = stateMachine.getState(StateType.START, "start");
+        State[] states = new State[positions.size()];
+        StateTransitionModifier[] modifiers = new StateTransitionModifier[positions.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = stateMachine.getState(fragment.last.get(i) ? StateType.STOP : StateType.OTHER, "p" + i);
+            modifiers[i] = positions.get(i).modifier(stateMachine);
+        }
+        for (int i = fragment.first.nextSetBit(0); i >= 0; i = fragment.first.nextSetBit(i + 1)) {
+            start.addTransition(states[i], modifiers[i]);
+        }
+        for (int p = 0; p < states.length; p++) {
+            BitSet next = follow.get(p);
+            for (int i = next.nextSetBit(0); i >= 0; i = next.nextSetBit(i + 1)) {
+                states[p].addTransition(states[i], modifiers[i]);
+            }
+        }
+        return stateMachine.build();
+    }
+
+    private Fragment glushkov(Node node) {
+        switch (node.type) {
+            case EMPTY:
+                return new Fragment(true, new BitSet(), new BitSet());
+            case CHARS: {
+                if (positions.size() == MAX_POSITIONS) {
+                    throw new IllegalArgumentException("Regex '" + regex + "' needs more than " + MAX_POSITIONS + " states");
+                }
+                int position = positions.size();
+                positions.add(node);
+                follow.add(new BitSet());
+                BitSet set = new BitSet();
+                set.set(position);
+                return new Fragment(false, set, (BitSet) set.clone());
+            }
+            case CONCAT: {
+                Fragment result = glushkov(node.children.get(0));
+                for (int i = 1; i < node.children.size(); i++) {
+                    result = concat(result, glushkov(node.children.get(i)));
+                }
+                return result;
+            }
+            case ALTERNATION: {
+                Fragment result = new Fragment(false, new BitSet(), new BitSet());
+                for (Node child : node.children) {
+                    Fragment fragment = glushkov(child);
+                    result.nullable |= fragment.nullable;
+                    result.first.or(fragment.first);
+                    result.last.or(fragment.last);
+                }
+                return result;
+            }
+            default:
+                return repeat(node);
+        }
+    }
+
+    private Fragment repeat(Node node) {
+        Node child = node.children.get(0);
+        Fragment result = new Fragment(true, new BitSet(), new BitSet());
+        for (int i = 0; i < node.min; i++) {
+            result = concat(result, glushkov(child));
+        }
+        if (node.max < 0) {
+            Fragment loop = glushkov(child);
+            for (int i = loop.last.nextSetBit(0); i >= 0; i = loop.last.nextSetBit(i + 1)) {
+                follow.get(i).or(loop.first);
+            }
+            loop.nullable = true;
+            return concat(result, loop);
+        }
+        for (int i = node.min; i < node.max; i++) {
+            Fragment optional = glushkov(child);
+            optional.nullable = true;
+            result = concat(result, optional);
+        }
+        return result;
+    }
+
+    private Fragment concat(Fragment a, Fragment b) {
+        for (int i = a.last.nextSetBit(0); i >= 0; i = a.last.nextSetBit(i + 1)) {
+            follow.get(i).or(b.first);
+        }
+        BitSet first = (BitSet) a.first.clone();
+        if (a.nullable) {
+            first.or(b.first);
+        }
+        BitSet last = (BitSet) b.last.clone();
+        if (b.nullable) {
+            last.or(a.last);
+        }
+        return new Fragment(a.nullable && b.nullable, first, last);
+    }
+
+    private Node alternation() {
+        List<Node> alternatives = new ArrayList<>();
+        alternatives.add(concatenation());
+        while (index < regex.length() && regex.charAt(index) == '|') {
+            index++;
+            alternatives.add(concatenation());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new Node(NodeType.ALTERNATION, alternatives);
+    }
+
+    private Node concatenation() {
+        List<Node> nodes = new ArrayList<>();
+        while (index < regex.length() && regex.charAt(index) != '|' && regex.charAt(index) != ')') {
+            nodes.add(quantified(atom()));
+        }
+        if (nodes.isEmpty()) {
+            return new Node(NodeType.EMPTY, nodes);
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new Node(NodeType.CONCAT, nodes);
+    }
+
+    private Node quantified(Node node) {
+        while (index < regex.length()) {
+            char c = regex.charAt(index);
+            if (c == '*') {
+                node = repetition(node, 0, -1);
+            } else if (c == '+') {
+                node = repetition(node, 1, -1);
+            } else if (c == '?') {
+                node = repetition(node, 0, 1);
+            } else if (c == '{') {
+                int close = regex.indexOf('}', index);
+                if (close < 0) {
+                    throw error("Unclosed '{'");
+                }
+                String[] bounds = regex.substring(index + 1, close).split(",", -1);
+                try {
+                    int min = Integer.parseInt(bounds[0].trim());
+                    int max = bounds.length == 1 ? min : bounds[1].trim().isEmpty() ? -1 : Integer.parseInt(bounds[1].trim());
+                    if (bounds.length > 2 || min < 0 || (max >= 0 && max < min)) {
+                        throw error("Illegal repetition");
+                    }
+                    index = close;
+                    node = repetition(node, min, max);
+                } catch (NumberFormatException e) {
+                    throw error("Illegal repetition");
+                }
+            } else {
+                return node;
+            }
+            index++;
+        }
+        return node;
+    }
+
+    private Node repetition(Node node, int min, int max) {
+        List<Node> children = new ArrayList<>();
+        children.add(node);
+        Node repetition = new Node(NodeType.REPETITION, children);
+        repetition.min = min;
+        repetition.max = max;
+        return repetition;
+    }
+
+    private Node atom() {
+        char c = regex.charAt(index++);
+        switch (c) {
+            case '(': {
+                if (regex.startsWith("?:", index)) {
+                    index += 2;
+                } else if (index < regex.length() && regex.charAt(index) == '?') {
+                    throw error("Unsupported group");
+                }
+                Node node = alternation();
+                if (index >= regex.length() || regex.charAt(index) != ')') {
+                    throw error("Unclosed group");
+                }
+                index++;
+                return node;
+            }
+            case '[': {
+                int start = index - 1;
+                if (index < regex.length() && regex.charAt(index) == '^') {
+                    index++;
+                }
+                while (index < regex.length() && regex.charAt(index) != ']') {
+                    if (regex.charAt(index) == '\\') {
+                        index++;
+                    }
+                    index++;
+                }
+                if (index >= regex.length()) {
+                    throw error("Unclosed character class");
+                }
+                index++;
+                return chars(regex.substring(start, index), null);
+            }
+            case '.':
+                return chars(".", null);
+            case '\\':
+                return escape();
+            case '^':
+            case '$':
+                throw error("Anchors are not supported");
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("Dangling '" + c + "'");
+            default:
+                return chars(null, String.valueOf(c));
+        }
+    }
+
+    private Node escape() {
+        if (index >= regex.length()) {
+            throw error("Trailing '\\'");
+        }
+        char c = regex.charAt(index++);
+        switch (c) {
+            case 'd':
+            case 'w':
+            case 's':
+                return chars("[\\" + c + "]", null);
+            case 'D':
+            case 'W':
+            case 'S':
+                return chars("[^\\" + Character.toLowerCase(c) + "]", null);
+            case 't':
+                return chars(null, "\t");
+            case 'n':
+                return chars(null, "\n");
+            case 'r':
+                return chars(null, "\r");
+            case 'f':
+                return chars(null, "\f");
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    throw error("Unsupported escape '\\" + c + "'");
+                }
+                return chars(null, String.valueOf(c));
+        }
+    }
+
+    private Node chars(String group, String literal) {
+        Node node = new Node(NodeType.CHARS, null);
+        node.group = group;
+        node.literal = literal;
+        return node;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + index + " in regex '" + regex + "'");
+    }
+
+    private enum NodeType {
+        EMPTY,
+        CHARS,
+        CONCAT,
+        ALTERNATION,
+        REPETITION
+    }
+
+    private static class Node {
+
+        private final NodeType type;
+        private final List<Node> children;
+
+        // CHARS, either a group for StateTransitionModifier.fromGroup or literal chars
+        private String group;
+        private String literal;
+
+        // REPETITION, a negative max is unbounded
+        private int min;
+        private int max;
+
+        private Node(NodeType type, List<Node> children) {
+            this.type = type;
+            this.children = children;
+        }
+
+        private StateTransitionModifier modifier(StateMachine stateMachine) {
+            StateTransitionModifier modifier = stateMachine.getTransitionModifier();
+            return group != null ? modifier.fromGroup(group) : modifier.add(literal);
+        }
+
+    }
+
+    private static class Fragment {
+
+        private boolean nullable;
+        private final BitSet first;
+        private final BitSet last;
+
+        private Fragment(boolean nullable, BitSet first, BitSet last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+
+    }
+
+}
\ No newline at end of file
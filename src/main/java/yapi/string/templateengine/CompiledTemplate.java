@@ -0,0 +1,228 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.string.templateengine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A template split into literal text and variable slots, see
+ * {@link TemplateEngine#compile(String)}. Rendering only appends the parts,
+ * every variable is looked up once per render no matter how often it is used.
+ * Instances are immutable and can be rendered by any number of threads.
+ *
+ * @since Version 2.4
+ */
+public final class CompiledTemplate {
+
+    private static final Pattern NAME = Pattern.compile("[a-z][a-zA-z0-9_\\-]*");
+
+    private final String template;
+    // The text before every slot and after the last one
+    private final String[] literals;
+    // Index into 'names' for every slot
+    private final int[] slots;
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final int literalLength;
+
+    private CompiledTemplate(String template, List<String> literals, int[] slots, Map<String, Integer> index) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots;
+        this.names = index.keySet().toArray(new String[0]);
+        this.index = Collections.unmodifiableMap(index);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Uses the rules of {@link TemplateEngine#replaceString(String)}: '${name}'
+     * is a slot if it is not inside other curly brackets, a name that is not
+     * valid for a {@link TemplateEngineVariable} stays text. A '${' without
+     * closing bracket stays text as well.
+     */
+    static CompiledTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        int[] slots = new int[8];
+        int slotCount = 0;
+        Map<String, Integer> index = new LinkedHashMap<>();
+
+        StringBuilder literal = new StringBuilder();
+        int bracket = 0;
+        int length = template.length();
+        int i = 0;
+        while (i < length) {
+            char c = template.charAt(i);
+            if (c == '$' && bracket == 0 && i < length - 2 && template.charAt(i + 1) == '{' && template.charAt(i + 2) != '}') {
+                int end = closingBracket(template, i + 1);
+                if (end < 0) {
+                    literal.append(template, i, length);
+                    break;
+                }
+                String name = template.substring(i + 2, end);
+                if (NAME.matcher(name).matches()) {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    if (slotCount == slots.length) {
+                        slots = Arrays.copyOf(slots, slotCount * 2);
+                    }
+                    Integer slot = index.get(name);
+                    if (slot == null) {
+                        slot = index.size();
+                        index.put(name, slot);
+                    }
+                    slots[slotCount++] = slot;
+                } else {
+                    literal.append(template, i, end + 1);
+                }
+                i = end + 1;
+                continue;
+            }
+            if (c == '{') {
+                bracket++;
+            }
+            if (c == '}') {
+                bracket--;
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(template, literals, Arrays.copyOf(slots, slotCount), index);
+    }
+
+    /**
+     * @return the index of the '}' closing the '{' at 'open' or -1
+     */
+    private static int closingBracket(String s, int open) {
+        int bracket = 0;
+        for (int i = open; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '{') {
+                bracket++;
+            } else if (c == '}' && --bracket == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the names of all variables in the order of their first use
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @return the position of 'name' in {@link #getVariables()} or -1
+     */
+    public int indexOf(String name) {
+        return index.getOrDefault(name, -1);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param values the value of every variable, a missing or null value keeps the '${name}'
+     * @return
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder st = new StringBuilder(literalLength + slots.length * 16);
+        try {
+            render(values, st);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return st.toString();
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param values the value of every variable, a missing or null value keeps the '${name}'
+     * @param out
+     * @throws IOException if 'out' throws one
+     */
+    public void render(Map<String, ?> values, Appendable out) throws IOException {
+        Object[] resolved = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            resolved[i] = values.get(names[i]);
+        }
+        render(resolved, out);
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param values the value of every variable in the order of {@link #getVariables()}
+     * @return
+     */
+    public String render(Object... values) {
+        StringBuilder st = new StringBuilder(literalLength + slots.length * 16);
+        try {
+            render(values, st);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return st.toString();
+    }
+
+    /**
+     * @since Version 2.4
+     *
+     * @param values the value of every variable in the order of {@link #getVariables()}
+     * @param out
+     * @throws IOException if 'out' throws one
+     */
+    public void render(Object[] values, Appendable out) throws IOException {
+        if (values.length < names.length) {
+            throw new IllegalArgumentException("Template needs " + names.length + " values, got " + values.length);
+        }
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            Object value = values[slots[i]];
+            if (value == null) {
+                out.append("${").append(names[slots[i]]).append('}');
+            } else {
+                out.append(value.toString());
+            }
+        }
+        out.append(literals[slots.length]);
+    }
+
+    void render(List<TemplateEngineVariable> variables, Appendable out) throws IOException {
+        Object[] resolved = new Object[names.length];
+        // Backwards, so the first variable with a name wins like in TemplateEngine
+        ListIterator<TemplateEngineVariable> iterator = variables.listIterator(variables.size());
+        while (iterator.hasPrevious()) {
+            TemplateEngineVariable variable = iterator.previous();
+            Integer slot = index.get(variable.getName());
+            if (slot != null) {
+                resolved[slot] = variable.getValue();
+            }
+        }
+        render(resolved, out);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledTemplate{" +
+                "template='" + template + '\'' +
+                ", variables=" + getVariables() +
+                '}';
+    }
+
+}
\ No newline at end of file
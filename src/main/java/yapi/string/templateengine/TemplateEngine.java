@@ -4,10 +4,13 @@
 
 package yapi.string.templateengine;
 
+import yapi.datastructures.cache.ConcurrentCache;
 import yapi.internal.annotations.yapi.WorkInProgress;
 import yapi.internal.annotations.yapi.WorkInProgressType;
 import yapi.string.StringSplitting;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +28,9 @@ public class TemplateEngine {
         System.out.println(s);
     }
 
+    // Compiled templates by their text, shared by all engines
+    private static final ConcurrentCache<String, CompiledTemplate> TEMPLATES = new ConcurrentCache<>(256);
+
     private List<TemplateEngineVariable> variables;
     private boolean variableMode;
 
@@ -57,6 +63,56 @@ public class TemplateEngine {
         return executionMode();
     }
 
+    /**
+     * Parses 'template' once into literal text and variable slots. The
+     * result is cached by the template text, compiling the same text again
+     * returns the same instance as long as it is in the cache.
+     *
+     * @since Version 2.4
+     *
+     * @param template
+     * @return
+     */
+    public static CompiledTemplate compile(String template) {
+        CompiledTemplate compiledTemplate = TEMPLATES.getValue(template);
+        if (compiledTemplate == null) {
+            compiledTemplate = CompiledTemplate.parse(template);
+            TEMPLATES.add(template, compiledTemplate);
+        }
+        return compiledTemplate;
+    }
+
+    /**
+     * Renders 'template' with the variables of this engine.
+     *
+     * @since Version 2.4
+     *
+     * @param template
+     * @return
+     */
+    public String render(CompiledTemplate template) {
+        StringBuilder st = new StringBuilder();
+        try {
+            render(template, st);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return st.toString();
+    }
+
+    /**
+     * Renders 'template' with the variables of this engine into 'out'.
+     *
+     * @since Version 2.4
+     *
+     * @param template
+     * @param out
+     * @throws IOException if 'out' throws one
+     */
+    public void render(CompiledTemplate template, Appendable out) throws IOException {
+        template.render(variables, out);
+    }
+
     private Integer[] templateOccurrences(String s) {
         char[] chars = s.toCharArray();
         List<Integer> integers = new ArrayList<>();
@@ -89,6 +145,9 @@ public class TemplateEngine {
     }
 
     public String replaceString(String s) {
+        if (variableMode) {
+            return render(compile(s));
+        }
         Integer[] integers = templateOccurrences(s);
         StringBuilder st = new StringBuilder();
         StringBuilder pd = new StringBuilder();
@@ -81,12 +81,7 @@ public class Console {
 
     public synchronized Console send(ConsoleMessage message) {
         ConsoleMessageSendStats stats = new ConsoleMessageSendStats();
-        stats.previousTasks = message.getTasks().size();
-        long time = System.currentTimeMillis();
-        List<ConsoleMessageTask> tasks = renderer.render(message.getTasks(), clipping, getWidth());
-        time = System.currentTimeMillis() - time;
-        stats.optimizedTasks = tasks.size();
-        stats.renderTime = time;
+        List<ConsoleMessageTask> tasks = render(message, getWidth(), stats);
         this.stats = stats;
         Ansi ansi = Ansi.ansi();
 
@@ -99,6 +94,15 @@ public class Console {
         return this;
     }
 
+    synchronized List<ConsoleMessageTask> render(ConsoleMessage message, int width, ConsoleMessageSendStats stats) {
+        stats.previousTasks = message.getTasks().size();
+        long time = System.currentTimeMillis();
+        List<ConsoleMessageTask> tasks = renderer.render(message.getTasks(), clipping, width);
+        stats.renderTime = System.currentTimeMillis() - time;
+        stats.optimizedTasks = tasks.size();
+        return tasks;
+    }
+
     public int getWidth() {
         return TerminalUtils.getWidth();
     }
@@ -0,0 +1,214 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.ui.console;
+
+import org.fusesource.jansi.Ansi;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * A grid of cells the rendered tasks of a {@link ConsoleMessage} are drawn
+ * into, see {@link ConsoleScreen}. Every cell is a char and a style packed
+ * into a long: the foreground in bits 0-25, the background in bits 26-51
+ * and the attributes from bit 52 on. A color is 0 for the default, or a kind
+ * (1 normal, 2 bright, 3 RGB) in bits 24-25 and the color index or RGB
+ * value below.
+ */
+class ConsoleFrame {
+
+    static final int NORMAL = 1 << 24;
+    static final int BRIGHT = 2 << 24;
+    static final int RGB = 3 << 24;
+    static final int COLOR_MASK = (1 << 26) - 1;
+
+    static final int BOLD = 1;
+    static final int FAINT = 1 << 1;
+    static final int ITALIC = 1 << 2;
+    static final int UNDERLINE = 1 << 3;
+    static final int BLINK_SLOW = 1 << 4;
+    static final int BLINK_FAST = 1 << 5;
+    static final int NEGATIVE = 1 << 6;
+    static final int CONCEAL = 1 << 7;
+    static final int STRIKETHROUGH = 1 << 8;
+    static final int UNDERLINE_DOUBLE = 1 << 9;
+
+    private static final int TAB = 8;
+
+    final int width;
+    final int height;
+    final char[] chars;
+    final long[] styles;
+
+    private int row = 0;
+    private int column = 0;
+    private long style = 0;
+
+    ConsoleFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chars = new char[width * height];
+        this.styles = new long[width * height];
+        clear();
+    }
+
+    void clear() {
+        Arrays.fill(chars, ' ');
+        Arrays.fill(styles, 0);
+        row = 0;
+        column = 0;
+        style = 0;
+    }
+
+    void text(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                newLine();
+            } else if (c == '\r') {
+                column = 0;
+            } else if (c == '\t') {
+                indent(TAB - column % TAB);
+            } else if (c >= ' ') {
+                put(c);
+            }
+        }
+    }
+
+    void indent(int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            put(' ');
+        }
+    }
+
+    void newLine() {
+        row++;
+        column = 0;
+    }
+
+    // Cells outside of the frame are clipped
+    private void put(char c) {
+        if (row < height && column < width) {
+            int index = row * width + column;
+            chars[index] = c;
+            styles[index] = style;
+        }
+        column++;
+    }
+
+    void foreground(Ansi.Color color, boolean bright) {
+        style = style & ~(long) COLOR_MASK | color(color, bright);
+    }
+
+    void foreground(Color color) {
+        style = style & ~(long) COLOR_MASK | RGB | (color.getRGB() & 0xFFFFFF);
+    }
+
+    void background(Ansi.Color color, boolean bright) {
+        style = style & ~((long) COLOR_MASK << 26) | color(color, bright) << 26;
+    }
+
+    void background(Color color) {
+        style = style & ~((long) COLOR_MASK << 26) | (long) (RGB | (color.getRGB() & 0xFFFFFF)) << 26;
+    }
+
+    private static long color(Ansi.Color color, boolean bright) {
+        if (color == Ansi.Color.DEFAULT) {
+            return 0;
+        }
+        return (bright ? BRIGHT : NORMAL) | color.value();
+    }
+
+    void attribute(Ansi.Attribute attribute) {
+        switch (attribute) {
+            case RESET:
+                style = 0;
+                break;
+            case INTENSITY_BOLD:
+                set(BOLD, true);
+                break;
+            case INTENSITY_FAINT:
+                set(FAINT, true);
+                break;
+            case ITALIC:
+                set(ITALIC, true);
+                break;
+            case UNDERLINE:
+                set(UNDERLINE, true);
+                break;
+            case BLINK_SLOW:
+                set(BLINK_SLOW, true);
+                break;
+            case BLINK_FAST:
+                set(BLINK_FAST, true);
+                break;
+            case NEGATIVE_ON:
+                set(NEGATIVE, true);
+                break;
+            case CONCEAL_ON:
+                set(CONCEAL, true);
+                break;
+            case STRIKETHROUGH_ON:
+                set(STRIKETHROUGH, true);
+                break;
+            case UNDERLINE_DOUBLE:
+                set(UNDERLINE_DOUBLE, true);
+                break;
+            case INTENSITY_BOLD_OFF:
+                set(BOLD | FAINT, false);
+                break;
+            case ITALIC_OFF:
+                set(ITALIC, false);
+                break;
+            case UNDERLINE_OFF:
+                set(UNDERLINE | UNDERLINE_DOUBLE, false);
+                break;
+            case BLINK_OFF:
+                set(BLINK_SLOW | BLINK_FAST, false);
+                break;
+            case NEGATIVE_OFF:
+                set(NEGATIVE, false);
+                break;
+            case CONCEAL_OFF:
+                set(CONCEAL, false);
+                break;
+            case STRIKETHROUGH_OFF:
+                set(STRIKETHROUGH, false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void set(int attributes, boolean on) {
+        if (on) {
+            style |= (long) attributes << 52;
+        } else {
+            style &= ~((long) attributes << 52);
+        }
+    }
+
+    void eraseLine(Ansi.Erase erase) {
+        if (row >= height) {
+            return;
+        }
+        int from = erase == Ansi.Erase.FORWARD ? Math.min(column, width) : 0;
+        int to = erase == Ansi.Erase.BACKWARD ? Math.min(column + 1, width) : width;
+        erase(row * width + from, row * width + to);
+    }
+
+    void eraseScreen(Ansi.Erase erase) {
+        int cursor = Math.min(row * width + Math.min(column, width), chars.length);
+        int from = erase == Ansi.Erase.FORWARD ? cursor : 0;
+        int to = erase == Ansi.Erase.BACKWARD ? Math.min(cursor + 1, chars.length) : chars.length;
+        erase(from, to);
+    }
+
+    private void erase(int from, int to) {
+        Arrays.fill(chars, from, to, ' ');
+        Arrays.fill(styles, from, to, style & ((long) COLOR_MASK << 26));
+    }
+
+}
@@ -11,12 +11,22 @@ class ConsoleMessageSendStats {
 
     long renderTime = 0;
 
+    // Only set by ConsoleScreen
+    int changedLines = 0;
+    int changedCells = 0;
+    int outputLength = 0;
+    long skippedFrames = 0;
+
     @Override
     public String toString() {
         return "ConsoleMessageSendStats{" +
                 "previousTasks=" + previousTasks +
                 ", optimizedTasks=" + optimizedTasks +
                 ", renderTime=" + renderTime +
+                ", changedLines=" + changedLines +
+                ", changedCells=" + changedCells +
+                ", outputLength=" + outputLength +
+                ", skippedFrames=" + skippedFrames +
                 '}';
     }
 
@@ -10,4 +10,12 @@ abstract class ConsoleMessageTask {
 
     abstract void runTask(Ansi ansi, Console console);
 
+    /**
+     * Draws the task into a frame of a {@link ConsoleScreen}, tasks that
+     * cannot be drawn into cells do nothing.
+     */
+    void drawTask(ConsoleFrame frame) {
+
+    }
+
 }
\ No newline at end of file
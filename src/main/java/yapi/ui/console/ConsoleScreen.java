@@ -0,0 +1,343 @@
+// SPDX-License-Identifier: Apache-2.0
+// YAPI
+// Copyright (C) 2019,2020 yoyosource
+
+package yapi.ui.console;
+
+import yapi.runtime.TerminalUtils;
+import yapi.runtime.ThreadUtils;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Retained mode output for messages that redraw the whole screen, like a
+ * live process table. Every message is drawn into a frame of the terminal
+ * size and compared with the previous frame, only the cells that changed
+ * are written, with a cursor move in front of every changed region and
+ * the shortest SGR sequence between two styles.
+ *
+ * Messages can be drawn directly with {@link #draw(ConsoleMessage)} or
+ * handed to {@link #update(ConsoleMessage)} while the render loop started
+ * with {@link #start(int)} draws the latest one at a limited frame rate.
+ *
+ * @since Version 2.4
+ */
+public class ConsoleScreen {
+
+    private static final char ESC = 27;
+    // Unchanged cells between two changed ones are written again if that is shorter than moving the cursor
+    private static final int MAX_GAP = 6;
+    private static final int[] ATTRIBUTE_ON = {1, 2, 3, 4, 5, 6, 7, 8, 9, 21};
+    private static final int[] ATTRIBUTE_OFF = {22, 22, 23, 24, 25, 25, 27, 28, 29, 24};
+    // The attributes every off code of ATTRIBUTE_OFF turns off
+    private static final int[] ATTRIBUTE_CLEARS = {
+            ConsoleFrame.BOLD | ConsoleFrame.FAINT, ConsoleFrame.BOLD | ConsoleFrame.FAINT, ConsoleFrame.ITALIC,
+            ConsoleFrame.UNDERLINE | ConsoleFrame.UNDERLINE_DOUBLE, ConsoleFrame.BLINK_SLOW | ConsoleFrame.BLINK_FAST,
+            ConsoleFrame.BLINK_SLOW | ConsoleFrame.BLINK_FAST, ConsoleFrame.NEGATIVE, ConsoleFrame.CONCEAL,
+            ConsoleFrame.STRIKETHROUGH, ConsoleFrame.UNDERLINE | ConsoleFrame.UNDERLINE_DOUBLE
+    };
+
+    private final Console console;
+    private final PrintStream out;
+
+    // What the terminal shows and what the next message is drawn into
+    private ConsoleFrame front = null;
+    private ConsoleFrame back = null;
+
+    private final StringBuilder output = new StringBuilder();
+    private int cursorRow = -1;
+    private int cursorColumn = -1;
+    private long terminalStyle = 0;
+
+    private ConsoleMessageSendStats stats = null;
+
+    private final AtomicReference<ConsoleMessage> pending = new AtomicReference<>();
+    private final AtomicLong skippedFrames = new AtomicLong();
+    private Thread renderLoop = null;
+    private volatile boolean running = false;
+
+    public ConsoleScreen(Console console) {
+        this(console, System.out);
+    }
+
+    public ConsoleScreen(Console console, PrintStream out) {
+        this.console = console;
+        this.out = out;
+    }
+
+    /**
+     * Draws the message now and writes the changes to the last drawn message.
+     *
+     * @since Version 2.4
+     *
+     * @param message
+     * @return
+     */
+    public synchronized ConsoleScreen draw(ConsoleMessage message) {
+        int width = TerminalUtils.getWidthOrDefault();
+        int height = TerminalUtils.getHeightOrDefault();
+        output.setLength(0);
+        if (front == null || front.width != width || front.height != height) {
+            front = new ConsoleFrame(width, height);
+            back = new ConsoleFrame(width, height);
+            output.append(ESC).append("[0m").append(ESC).append("[2J");
+            cursorRow = -1;
+            terminalStyle = 0;
+        }
+
+        ConsoleMessageSendStats stats = new ConsoleMessageSendStats();
+        List<ConsoleMessageTask> tasks = console.render(message, width, stats);
+        back.clear();
+        for (ConsoleMessageTask task : tasks) {
+            task.drawTask(back);
+        }
+        diff(stats);
+
+        ConsoleFrame frame = front;
+        front = back;
+        back = frame;
+
+        stats.outputLength = output.length();
+        stats.skippedFrames = skippedFrames.get();
+        this.stats = stats;
+        if (output.length() > 0) {
+            out.print(output);
+            out.flush();
+        }
+        return this;
+    }
+
+    /**
+     * Writes every cell again with the next message, for example after
+     * something else wrote to the terminal.
+     */
+    public synchronized void redraw() {
+        front = null;
+    }
+
+    /**
+     * Hands a message to the render loop, a message that was not drawn yet
+     * is dropped and counted as skipped frame.
+     *
+     * @since Version 2.4
+     *
+     * @param message
+     */
+    public void update(ConsoleMessage message) {
+        if (pending.getAndSet(message) != null) {
+            skippedFrames.incrementAndGet();
+        }
+    }
+
+    /**
+     * Starts a thread that draws the latest message from {@link
+     * #update(ConsoleMessage)} at most 'framesPerSecond' times a second.
+     *
+     * @since Version 2.4
+     *
+     * @param framesPerSecond
+     * @return
+     */
+    public synchronized ConsoleScreen start(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Frames per second must be positive");
+        }
+        if (renderLoop != null) {
+            throw new IllegalStateException("Render loop is already running");
+        }
+        long frameTime = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+        running = true;
+        renderLoop = new Thread(ThreadUtils.yapiGroup, () -> {
+            long next = System.nanoTime();
+            while (running) {
+                ConsoleMessage message = pending.getAndSet(null);
+                if (message != null) {
+                    draw(message);
+                }
+                next += frameTime;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(sleep);
+                } else {
+                    // Behind schedule, do not try to catch up with a burst of frames
+                    next = System.nanoTime();
+                }
+            }
+        });
+        renderLoop.setName("Console Screen");
+        renderLoop.setDaemon(true);
+        renderLoop.start();
+        return this;
+    }
+
+    /**
+     * Stops the render loop after the current frame and moves the cursor
+     * below the drawn frame.
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = renderLoop;
+            renderLoop = null;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (front != null) {
+                out.print(ESC + "[0m" + ESC + "[" + front.height + ";1H");
+                out.println();
+                out.flush();
+                terminalStyle = 0;
+                cursorRow = -1;
+            }
+        }
+    }
+
+    public ConsoleMessageSendStats getStats() {
+        return stats;
+    }
+
+    private void diff(ConsoleMessageSendStats stats) {
+        int width = back.width;
+        for (int row = 0; row < back.height; row++) {
+            int offset = row * width;
+            boolean changedLine = false;
+            int column = 0;
+            while (column < width) {
+                if (same(offset + column)) {
+                    column++;
+                    continue;
+                }
+                changedLine = true;
+                int end = column + 1;
+                for (int i = end; i < width && i - end < MAX_GAP; i++) {
+                    if (!same(offset + i)) {
+                        end = i + 1;
+                    }
+                }
+                if (cursorRow != row || cursorColumn != column) {
+                    output.append(ESC).append('[').append(row + 1).append(';').append(column + 1).append('H');
+                }
+                for (int i = column; i < end; i++) {
+                    if (!same(offset + i)) {
+                        stats.changedCells++;
+                    }
+                    style(back.styles[offset + i]);
+                    output.append(back.chars[offset + i]);
+                }
+                cursorRow = row;
+                // After the last column the terminal may wrap or not, move explicitly next time
+                cursorColumn = end < width ? end : -1;
+                column = end;
+            }
+            if (changedLine) {
+                stats.changedLines++;
+            }
+        }
+        style(0);
+    }
+
+    private boolean same(int index) {
+        return front.chars[index] == back.chars[index] && front.styles[index] == back.styles[index];
+    }
+
+    /**
+     * Appends the SGR sequence from the style of the terminal to 'style',
+     * either changing only what differs or resetting first, whatever is shorter.
+     */
+    private void style(long style) {
+        if (style == terminalStyle) {
+            return;
+        }
+        StringBuilder change = new StringBuilder();
+        int from = (int) (terminalStyle >>> 52);
+        int to = (int) (style >>> 52);
+        int added = to & ~from;
+        int removed = from & ~to;
+        int emitted = 0;
+        for (int i = 0; i < ATTRIBUTE_OFF.length; i++) {
+            if ((removed & 1 << i) != 0 && (emitted & ATTRIBUTE_CLEARS[i]) != ATTRIBUTE_CLEARS[i]) {
+                parameter(change, ATTRIBUTE_OFF[i]);
+                emitted |= ATTRIBUTE_CLEARS[i];
+            }
+        }
+        // An off code can turn off attributes that stay on as well
+        added |= to & emitted;
+        attributes(change, added);
+        if (foreground(terminalStyle) != foreground(style)) {
+            color(change, foreground(style), 30);
+        }
+        if (background(terminalStyle) != background(style)) {
+            color(change, background(style), 40);
+        }
+
+        StringBuilder reset = new StringBuilder("0");
+        attributes(reset, to);
+        if (foreground(style) != 0) {
+            color(reset, foreground(style), 30);
+        }
+        if (background(style) != 0) {
+            color(reset, background(style), 40);
+        }
+
+        output.append(ESC).append('[').append(reset.length() < change.length() ? reset : change).append('m');
+        terminalStyle = style;
+    }
+
+    private static void attributes(StringBuilder st, int attributes) {
+        for (int i = 0; i < ATTRIBUTE_ON.length; i++) {
+            if ((attributes & 1 << i) != 0) {
+                parameter(st, ATTRIBUTE_ON[i]);
+            }
+        }
+    }
+
+    /**
+     * @param base 30 for the foreground and 40 for the background
+     */
+    private static void color(StringBuilder st, int color, int base) {
+        int value = color & 0xFFFFFF;
+        switch (color & ~0xFFFFFF) {
+            case ConsoleFrame.NORMAL:
+                parameter(st, base + value);
+                break;
+            case ConsoleFrame.BRIGHT:
+                parameter(st, base + 60 + value);
+                break;
+            case ConsoleFrame.RGB:
+                parameter(st, base + 8);
+                st.append(";2;").append(value >>> 16).append(';').append(value >>> 8 & 0xFF).append(';').append(value & 0xFF);
+                break;
+            default:
+                parameter(st, base + 9);
+                break;
+        }
+    }
+
+    private static void parameter(StringBuilder st, int parameter) {
+        if (st.length() > 0) {
+            st.append(';');
+        }
+        st.append(parameter);
+    }
+
+    private static int foreground(long style) {
+        return (int) (style & ConsoleFrame.COLOR_MASK);
+    }
+
+    private static int background(long style) {
+        return (int) (style >>> 26 & ConsoleFrame.COLOR_MASK);
+    }
+
+}
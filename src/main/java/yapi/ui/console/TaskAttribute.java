@@ -22,6 +22,11 @@ public class TaskAttribute extends ConsoleMessageTask {
         ansi.a(attribute);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.attribute(attribute);
+    }
+
     @Override
     public String toString() {
         return "TaskAttribute{" + attribute + '}';
@@ -19,6 +19,11 @@ public class TaskBGColor extends ConsoleMessageTask {
         ansi.bg(color);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.background(color, false);
+    }
+
     @Override
     public String toString() {
         return "TaskBGColor{" + color + '}';
@@ -19,6 +19,11 @@ public class TaskBGColorBright extends ConsoleMessageTask {
         ansi.bgBright(color);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.background(color, true);
+    }
+
     @Override
     public String toString() {
         return "TaskBGColorBright{" + color + '}';
@@ -24,4 +24,9 @@ public class TaskBGColorRGB extends ConsoleMessageTask {
         ansi.a("" + FIRST_ESC_CHAR + SECOND_ESC_CHAR + (char)38 + ";" + color.getRed() + ";" + color.getGreen() + ";" + color.getBlue() + "m");
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.background(color);
+    }
+
 }
\ No newline at end of file
@@ -19,6 +19,11 @@ public class TaskColor extends ConsoleMessageTask {
         ansi.fg(color);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.foreground(color, false);
+    }
+
     @Override
     public String toString() {
         return "TaskColor{" + color + '}';
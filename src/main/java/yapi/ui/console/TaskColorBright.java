@@ -19,6 +19,11 @@ public class TaskColorBright extends ConsoleMessageTask {
         ansi.fgBright(color);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.foreground(color, true);
+    }
+
     @Override
     public String toString() {
         return "TaskColorBright{" + color + '}';
@@ -19,6 +19,11 @@ public class TaskEraseLine extends ConsoleMessageTask {
         ansi.eraseLine(erase);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.eraseLine(erase);
+    }
+
     @Override
     public String toString() {
         return "TaskEraseLine{" + erase + '}';
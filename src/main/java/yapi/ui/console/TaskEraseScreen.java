@@ -19,6 +19,11 @@ public class TaskEraseScreen extends ConsoleMessageTask {
         ansi.eraseScreen(erase);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.eraseScreen(erase);
+    }
+
     @Override
     public String toString() {
         return "TaskEraseScreen{" + erase + '}';
@@ -22,4 +22,9 @@ class TaskIndention extends ConsoleMessageTask {
         ansi.a(" ".repeat(indention));
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.indent(indention);
+    }
+
 }
\ No newline at end of file
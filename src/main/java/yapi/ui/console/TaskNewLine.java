@@ -13,6 +13,11 @@ public class TaskNewLine extends ConsoleMessageTask {
         ansi.newline();
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.newLine();
+    }
+
     @Override
     public String toString() {
         return "TaskNewLine{}";
@@ -19,6 +19,11 @@ public class TaskText extends ConsoleMessageTask {
         ansi.a(text);
     }
 
+    @Override
+    void drawTask(ConsoleFrame frame) {
+        frame.text(text);
+    }
+
     public String getText() {
         return text;
     }
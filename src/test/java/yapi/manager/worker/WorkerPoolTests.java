@@ -0,0 +1,89 @@
+package yapi.manager.worker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class WorkerPoolTests {
+
+    @Test
+    public void closeCancelsQueuedTasksDispatcher() throws Exception {
+        closeCancelsQueuedTasks(WorkerPoolMode.DISPATCHER);
+    }
+
+    @Test
+    public void closeCancelsQueuedTasksWorkStealing() throws Exception {
+        closeCancelsQueuedTasks(WorkerPoolMode.WORK_STEALING);
+    }
+
+    @Test
+    public void closeCancelsQueuedTasksVirtualThreads() throws Exception {
+        closeCancelsQueuedTasks(WorkerPoolMode.VIRTUAL_THREADS);
+    }
+
+    private void closeCancelsQueuedTasks(WorkerPoolMode mode) throws Exception {
+        // Not started, so every task is still queued when the pool closes
+        WorkerPool workerPool = new WorkerPool(1, 2, mode, true);
+        TaskFuture<Integer> single = workerPool.submit(() -> 1);
+        List<TaskFuture<Integer>> batch = workerPool.submitAll(Arrays.asList(() -> 2, () -> 3));
+        workerPool.close();
+
+        assertCancelled(single);
+        for (TaskFuture<Integer> future : batch) {
+            assertCancelled(future);
+        }
+        WorkerPoolMetrics metrics = workerPool.getMetrics();
+        assertThat(metrics.getCancelledTasks(), is(3L));
+        assertThat(metrics.getCompletedTasks(), is(0L));
+    }
+
+    @Test
+    public void rejectsTasksOverTheQueueCapacity() throws Exception {
+        // Not started, so the queue only fills up
+        WorkerPool workerPool = new WorkerPool(1, 1, WorkerPoolMode.DISPATCHER, true);
+        workerPool.setQueueCapacity(1, TaskOverflowPolicy.REJECT);
+        workerPool.work(() -> {});
+
+        boolean thrown = false;
+        try {
+            workerPool.work(() -> {});
+        } catch (RejectedExecutionException e) {
+            thrown = true;
+        }
+        assertThat(thrown, is(true));
+
+        TaskFuture<Integer> future = workerPool.submit(() -> 1);
+        boolean failed = false;
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            failed = e.getCause() instanceof RejectedExecutionException;
+        }
+        assertThat(failed, is(true));
+        assertThat(workerPool.getMetrics().getRejectedTasks(), is(2L));
+        workerPool.close();
+    }
+
+    private void assertCancelled(TaskFuture<Integer> future) throws InterruptedException, ExecutionException {
+        boolean cancelled = false;
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (CancellationException e) {
+            cancelled = true;
+        } catch (TimeoutException e) {
+            // Left pending, get() without timeout would hang
+        }
+        assertThat(cancelled, is(true));
+        assertThat(future.isCancelled(), is(true));
+    }
+
+}
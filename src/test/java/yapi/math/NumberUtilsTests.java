@@ -48,6 +48,12 @@ public class NumberUtilsTests {
         primeTest(5, true);
         primeTest(6, false);
         primeTest(7, true);
+        primeTest(561, false);
+        primeTest(3215031751L, false);
+        primeTest(3825123056546413051L, false);
+        primeTest(Long.MAX_VALUE, false);
+        primeTest(9223372036854775783L, true);
+        primeTest(1000000007L * 1000000009L, false);
     }
 
     private void primeTest(long l, boolean expected) {
@@ -111,6 +117,19 @@ public class NumberUtilsTests {
         assertThat(result, is(equalTo(new Long[]{2L, 3L, 5L, 7L})));
     }
 
+    @Test
+    public void sieveTest() {
+        PrimeSieve primeSieve = NumberUtils.sieve(1000000);
+        assertThat(primeSieve.count(), is(equalTo(78498L)));
+        assertThat(primeSieve.isPrime(999983), is(equalTo(true)));
+        assertThat(primeSieve.isPrime(999985), is(equalTo(false)));
+        assertThat(primeSieve.nextPrime(999983), is(equalTo(-1L)));
+        assertThat(primeSieve.nextPrime(999979), is(equalTo(999983L)));
+        for (long prime : primeSieve.toArray()) {
+            assertThat(NumberUtils.isPrime(prime), is(equalTo(true)));
+        }
+    }
+
     @Test
     public void greatestCommonDivisorTest() {
         greatestCommonDivisorTest(6, 1, 1);
@@ -165,6 +184,9 @@ public class NumberUtilsTests {
         nextPrimeTest(100, 101);
         nextPrimeTest(1, 2);
         nextPrimeTest(19, 23);
+        nextPrimeTest(2, 3);
+        nextPrimeTest(Long.MAX_VALUE - 100, 9223372036854775783L);
+        nextPrimeTest(Long.MAX_VALUE - 24, -1);
     }
 
     private void nextPrimeTest(long a, long expected) {
@@ -177,6 +199,9 @@ public class NumberUtilsTests {
         primeFactorizationTest(10, 2, 5);
         primeFactorizationTest(101, 101);
         primeFactorizationTest(3465, 3, 3, 5, 7, 11);
+        primeFactorizationTest(600851475143L, 71, 839, 1471, 6857);
+        primeFactorizationTest(Long.MAX_VALUE, 7, 7, 73, 127, 337, 92737, 649657);
+        primeFactorizationTest(999999937L * 999999937L, 999999937L, 999999937L);
     }
 
     private void primeFactorizationTest(long a, long... expected) {